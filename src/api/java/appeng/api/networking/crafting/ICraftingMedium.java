@@ -44,6 +44,31 @@ public interface ICraftingMedium
 	 */
 	boolean pushPattern( ICraftingPatternDetails patternDetails, InventoryCrafting table );
 
+	/**
+	 * @param patternDetails details
+	 *
+	 * @return how many crafts of the pattern can be pushed at once with
+	 * {@link #pushPatternBatch(ICraftingPatternDetails, InventoryCrafting, int)}, 1 if the medium only takes one craft at a time.
+	 */
+	default int getMaxBatchSize( ICraftingPatternDetails patternDetails )
+	{
+		return 1;
+	}
+
+	/**
+	 * instruct a medium to create the items of several crafts of the pattern at once. All crafts are pushed, or none.
+	 *
+	 * @param patternDetails details
+	 * @param table crafting table, holding the inputs of all crafts, so its stacks can be larger than their maximum stack size
+	 * @param multiplier number of crafts, never more than {@link #getMaxBatchSize(ICraftingPatternDetails)}
+	 *
+	 * @return if the crafts were successfully pushed.
+	 */
+	default boolean pushPatternBatch( ICraftingPatternDetails patternDetails, InventoryCrafting table, int multiplier )
+	{
+		return multiplier == 1 && this.pushPattern( patternDetails, table );
+	}
+
 	/**
 	 * @return if this is false, the crafting engine will refuse to send new jobs to this medium.
 	 */
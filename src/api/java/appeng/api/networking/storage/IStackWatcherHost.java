@@ -48,4 +48,15 @@ public interface IStackWatcherHost
 	 * @param chan storage channel
 	 */
 	void onStackChange( IItemList<?> o, IAEStack<?> fullStack, IAEStack<?> diffStack, IActionSource src, IStorageChannel<?> chan );
+
+	/**
+	 * Changes to watched stacks are collected over a tick and reported once, merged per stack. Hosts which have to
+	 * react to every single change while it happens can return true here.
+	 *
+	 * @return true if changes should be reported immediately instead of once per tick
+	 */
+	default boolean requiresImmediateChanges()
+	{
+		return false;
+	}
 }
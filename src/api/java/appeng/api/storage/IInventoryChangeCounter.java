@@ -0,0 +1,20 @@
+package appeng.api.storage;
+
+
+/**
+ * Lets an inventory tell storage buses when its contents changed, so they do not have to look at all of its slots every
+ * time they are ticked.
+ * This interface is used in conjunction with capabilities, on the same side as the inventory it describes.
+ * <p/>
+ * To get access to the capability for this, use @CapabilityInject with this interface as the argument
+ * to the annotation.
+ */
+public interface IInventoryChangeCounter
+{
+
+	/**
+	 * @return A number which has to change whenever the contents of any slot change, including changes of the NBT of a
+	 * stack which is kept in its slot. It does not matter by how much it changes.
+	 */
+	long getChangeCount();
+}
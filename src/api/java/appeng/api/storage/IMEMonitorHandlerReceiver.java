@@ -52,4 +52,16 @@ public interface IMEMonitorHandlerReceiver<T extends IAEStack<T>>
 	 * called when the list updates its contents, this is mostly for handling power events.
 	 */
 	void onListUpdate();
+
+	/**
+	 * Network monitors collect changes over a tick and pass them to their listeners once, merged per stack. Listeners
+	 * which have to see every single change while it happens, for example to forward it into another network, can
+	 * return true here.
+	 *
+	 * @return true if changes should be posted immediately instead of once per tick
+	 */
+	default boolean requiresImmediateChanges()
+	{
+		return false;
+	}
 }
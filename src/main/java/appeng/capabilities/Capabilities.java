@@ -19,6 +19,7 @@
 package appeng.capabilities;
 
 
+import appeng.api.storage.IInventoryChangeCounter;
 import appeng.api.storage.ISpatialDimension;
 import appeng.api.storage.IStorageMonitorableAccessor;
 import appeng.integration.IntegrationRegistry;
@@ -47,6 +48,8 @@ public final class Capabilities {
 
     public static Capability<ISpatialDimension> SPATIAL_DIMENSION;
 
+    public static Capability<IInventoryChangeCounter> INVENTORY_CHANGE_COUNTER;
+
     public static Capability<ITeslaConsumer> TESLA_CONSUMER;
 
     public static Capability<ITeslaHolder> TESLA_HOLDER;
@@ -63,6 +66,7 @@ public final class Capabilities {
     public static void register() {
         CapabilityManager.INSTANCE.register(IStorageMonitorableAccessor.class, createNullStorage(), NullMENetworkAccessor::new);
         CapabilityManager.INSTANCE.register(ISpatialDimension.class, createNullStorage(), NullSpatialDimension::new);
+        CapabilityManager.INSTANCE.register(IInventoryChangeCounter.class, createNullStorage(), NullInventoryChangeCounter::new);
     }
 
     @CapabilityInject(IStorageMonitorableAccessor.class)
@@ -75,6 +79,11 @@ public final class Capabilities {
         SPATIAL_DIMENSION = cap;
     }
 
+    @CapabilityInject(IInventoryChangeCounter.class)
+    private static void capIInventoryChangeCounterRegistered(Capability<IInventoryChangeCounter> cap) {
+        INVENTORY_CHANGE_COUNTER = cap;
+    }
+
     @CapabilityInject(ITeslaConsumer.class)
     private static void capITeslaConsumerRegistered(Capability<ITeslaConsumer> cap) {
         if (IntegrationRegistry.INSTANCE.isEnabled(IntegrationType.TESLA)) {
@@ -1,6 +1,6 @@
 /*
  * This file is part of Applied Energistics 2.
- * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ * Copyright (c) 2013 - 2017, AlgorithmX2, All rights reserved.
  *
  * Applied Energistics 2 is free software: you can redistribute it and/or modify
  * it under the terms of the GNU Lesser General Public License as published by
@@ -16,36 +16,15 @@
  * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
  */
 
-package appeng.me;
+package appeng.capabilities;
 
 
-import appeng.api.networking.IGridNode;
-import appeng.api.networking.IGridVisitor;
+import appeng.api.storage.IInventoryChangeCounter;
 
 
-class GridSplitDetector implements IGridVisitor {
-
-    private final IGridNode pivot;
-    private boolean pivotFound;
-
-    public GridSplitDetector(final IGridNode pivot) {
-        this.pivot = pivot;
-    }
-
+class NullInventoryChangeCounter implements IInventoryChangeCounter {
     @Override
-    public boolean visitNode(final IGridNode n) {
-        if (n == this.pivot) {
-            this.setPivotFound(true);
-        }
-
-        return !this.isPivotFound();
-    }
-
-    public boolean isPivotFound() {
-        return this.pivotFound;
-    }
-
-    private void setPivotFound(final boolean pivotFound) {
-        this.pivotFound = pivotFound;
+    public long getChangeCount() {
+        return 0;
     }
 }
@@ -50,6 +50,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 
 public class GuiCraftingCPU extends AEBaseGui implements ISortSource {
@@ -78,6 +79,8 @@ public class GuiCraftingCPU extends AEBaseGui implements ISortSource {
     private static final int ITEMSTACK_LEFT_OFFSET = 9;
     private static final int ITEMSTACK_TOP_OFFSET = 22;
 
+    private static final Pattern PATTERN_NEW_LINE = Pattern.compile("\\n", Pattern.LITERAL);
+
     private final ContainerCraftingCPU craftingCpu;
 
     private IItemList<IAEItemStack> storage = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
@@ -303,9 +306,18 @@ public class GuiCraftingCPU extends AEBaseGui implements ISortSource {
 
         if (this.tooltip >= 0 && !dspToolTip.isEmpty()) {
             this.drawTooltip(toolPosX, toolPosY + 10, dspToolTip);
+        } else if (!this.visual.isEmpty() && this.isMouseOverTitle(title, mouseX - offsetX, mouseY - offsetY)) {
+            final String tasks = String.format(GuiText.CraftingTasks.getLocal(), this.craftingCpu.getReadyTasks(), this.craftingCpu.getBlockedTasks(),
+                    this.craftingCpu.getBusyTasks());
+            this.drawTooltip(mouseX - offsetX, mouseY - offsetY, PATTERN_NEW_LINE.matcher(tasks).replaceAll("\n"));
         }
     }
 
+    private boolean isMouseOverTitle(final String title, final int x, final int y) {
+        return x >= TITLE_LEFT_OFFSET && x < TITLE_LEFT_OFFSET + this.fontRenderer.getStringWidth(title)
+                && y >= TITLE_TOP_OFFSET && y < TITLE_TOP_OFFSET + this.fontRenderer.FONT_HEIGHT;
+    }
+
     @Override
     public void drawBG(final int offsetX, final int offsetY, final int mouseX, final int mouseY) {
         this.bindTexture("guis/craftingcpu.png");
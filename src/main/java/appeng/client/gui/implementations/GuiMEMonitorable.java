@@ -102,6 +102,9 @@ public class GuiMEMonitorable extends AEBaseMEGui implements ISortSource, IConfi
     private int currentMouseX = 0;
     private int currentMouseY = 0;
     private boolean delayedUpdate;
+    private String pageSearch;
+    private int pageOffset = -1;
+    private int pageCount = -1;
 
     protected int jeiOffset = Loader.isModLoaded("jei") ? 24 : 0;
 
@@ -166,6 +169,44 @@ public class GuiMEMonitorable extends AEBaseMEGui implements ISortSource, IConfi
         }
     }
 
+    /**
+     * Called by the server of a terminal in paged mode, with the part of the view the client has and its total size.
+     */
+    public void setPage(final int offset, final int total) {
+        this.repo.setPage(offset, total);
+        this.repo.updateView();
+        this.setScrollBar();
+    }
+
+    /**
+     * Tells the server of a terminal in paged mode what to send, the rows of one screen above and below the visible
+     * ones are sent as well.
+     */
+    private void requestPage() {
+        if (!this.repo.isPaged()) {
+            return;
+        }
+
+        final String search = this.repo.getSearchString();
+        final int offset = Math.max(0, this.getScrollBar().getCurrentScroll() - this.rows) * this.perRow;
+        final int count = this.rows * 3 * this.perRow;
+
+        try {
+            if (!search.equals(this.pageSearch)) {
+                this.pageSearch = search;
+                NetworkHandler.instance().sendToServer(new PacketValueConfig("Terminal.Search", search));
+            }
+
+            if (offset != this.pageOffset || count != this.pageCount) {
+                this.pageOffset = offset;
+                this.pageCount = count;
+                NetworkHandler.instance().sendToServer(new PacketValueConfig("Terminal.Viewport", offset + "," + count));
+            }
+        } catch (final IOException e) {
+            AELog.debug(e);
+        }
+    }
+
     private void setScrollBar() {
         this.getScrollBar().setTop(18).setLeft(175).setHeight(this.rows * 18 - 2);
         this.getScrollBar().setRange(0, (this.repo.size() + this.perRow - 1) / this.perRow - this.rows, Math.max(1, this.rows / 6));
@@ -508,6 +549,7 @@ public class GuiMEMonitorable extends AEBaseMEGui implements ISortSource, IConfi
             this.repo.updateView();
             this.setScrollBar();
         }
+        this.requestPage();
         super.updateScreen();
     }
 
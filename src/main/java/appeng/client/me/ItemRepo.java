@@ -31,21 +31,31 @@ import appeng.integration.Integrations;
 import appeng.integration.modules.bogosorter.InventoryBogoSortModule;
 import appeng.items.storage.ItemViewCell;
 import appeng.util.ItemSorters;
-import appeng.util.Platform;
 import appeng.util.prioritylist.IPartitionList;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import net.minecraft.item.ItemStack;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Comparator;
 
 
 public class ItemRepo {
 
+    /**
+     * Up to this many changed items are moved to their new place in the view one by one, more are sorted in together.
+     */
+    private static final int MAX_REPOSITIONED = 32;
+
     private final IItemList<IAEItemStack> list = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
-    private final ArrayList<IAEItemStack> view = new ArrayList<>();
+    private final ArrayList<ViewEntry> view = new ArrayList<>();
+    private final Int2ObjectOpenHashMap<ViewEntry> viewEntries = new Int2ObjectOpenHashMap<>();
+    private final IntOpenHashSet changed = new IntOpenHashSet();
+    private final ItemSearchIndex index = new ItemSearchIndex();
     private final IScrollSource src;
     private final ISortSource sortSrc;
 
@@ -53,9 +63,20 @@ public class ItemRepo {
 
     private String searchString = "";
     private IPartitionList<IAEItemStack> myPartitionList;
-    private String innerSearch = "";
     private boolean hasPower;
 
+    // in paged mode the view only holds the part of the server side view starting at pageOffset
+    private boolean paged;
+    private int pageOffset;
+    private int pageTotal;
+
+    private boolean rebuild = true;
+    private BitSet lastMatches;
+    private Enum lastViewMode;
+    private Enum lastSortBy;
+    private Enum lastSortDir;
+    private Comparator<ViewEntry> comparator;
+
     public ItemRepo(final IScrollSource src, final ISortSource sortSrc) {
         this.src = src;
         this.sortSrc = sortSrc;
@@ -64,10 +85,14 @@ public class ItemRepo {
     public IAEItemStack getReferenceItem(int idx) {
         idx += this.src.getCurrentScroll() * this.rowSize;
 
-        if (idx >= this.view.size()) {
+        if (this.paged) {
+            idx -= this.pageOffset;
+        }
+
+        if (idx < 0 || idx >= this.view.size()) {
             return null;
         }
-        return this.view.get(idx);
+        return this.view.get(idx).stack;
     }
 
     void setSearch(final String search) {
@@ -83,6 +108,8 @@ public class ItemRepo {
         } else {
             this.list.add(is);
         }
+
+        this.changed.add(this.index.add(is));
     }
 
     public long getItemCount(final IAEItemStack is) {
@@ -92,114 +119,172 @@ public class ItemRepo {
 
     public void setViewCell(final ItemStack[] list) {
         this.myPartitionList = ItemViewCell.createFilter(list);
+        this.rebuild = true;
         this.updateView();
     }
 
+    /**
+     * Brings the view up to date. Only the items which changed since the last update, or whose search result changed,
+     * are moved in the view, it is only rebuilt from the whole list when the view mode, sorting or view cells changed.
+     */
     public void updateView() {
-        this.view.clear();
-
-        this.view.ensureCapacity(this.list.size());
-
         final Enum viewMode = this.sortSrc.getSortDisplay();
         final Enum searchMode = AEConfig.instance().getConfigManager().getSetting(Settings.SEARCH_MODE);
-        final boolean needsZeroCopy = viewMode == ViewItems.CRAFTABLE;
 
         if (searchMode == SearchBoxMode.JEI_AUTOSEARCH || searchMode == SearchBoxMode.JEI_MANUAL_SEARCH || searchMode == SearchBoxMode.JEI_AUTOSEARCH_KEEP || searchMode == SearchBoxMode.JEI_MANUAL_SEARCH_KEEP) {
             this.updateJEI(this.searchString);
         }
 
         final boolean terminalSearchToolTips = AEConfig.instance().getConfigManager().getSetting(Settings.SEARCH_TOOLTIPS) != YesNo.NO;
+        // the server already searched the items of a paged view
+        final BitSet matches = this.index.search(this.paged ? "" : this.searchString.toLowerCase(), terminalSearchToolTips);
+        if (matches == null) {
+            this.view.clear();
+            this.viewEntries.clear();
+            this.changed.clear();
+            this.rebuild = true;
+            return;
+        }
 
-        boolean searchMod = false;
+        final Enum SortBy = this.sortSrc.getSortBy();
+        final Enum SortDir = this.sortSrc.getSortDir();
 
-        this.innerSearch = searchString.toLowerCase();
-        if (this.innerSearch.startsWith("@")) {
-            searchMod = true;
-            this.innerSearch = this.innerSearch.substring(1);
-        }
+        ItemSorters.setDirection((appeng.api.config.SortDir) SortDir);
+        ItemSorters.init();
 
-        Pattern m = null;
-        try {
-            m = Pattern.compile(this.innerSearch, Pattern.CASE_INSENSITIVE);
-        } catch (final Throwable ignore) {
-            try {
-                m = Pattern.compile(Pattern.quote(this.innerSearch), Pattern.CASE_INSENSITIVE);
-            } catch (final Throwable __) {
-                return;
-            }
+        if (viewMode != this.lastViewMode || SortBy != this.lastSortBy || SortDir != this.lastSortDir) {
+            this.comparator = createComparator(SortBy, SortDir);
+            this.lastViewMode = viewMode;
+            this.lastSortBy = SortBy;
+            this.lastSortDir = SortDir;
+            this.rebuild = true;
         }
 
-        boolean notDone = false;
-        for (IAEItemStack is : this.list) {
-            if (this.myPartitionList != null) {
-                if (!this.myPartitionList.isListed(is)) {
-                    continue;
+        if (this.rebuild) {
+            this.rebuildView(viewMode, matches);
+        } else {
+            if (matches != this.lastMatches) {
+                final BitSet searchChanges = (BitSet) matches.clone();
+                searchChanges.xor(this.lastMatches);
+                for (int id = searchChanges.nextSetBit(0); id >= 0; id = searchChanges.nextSetBit(id + 1)) {
+                    this.changed.add(id);
                 }
             }
 
-            if (viewMode == ViewItems.CRAFTABLE && !is.isCraftable()) {
-                continue;
+            if (!this.changed.isEmpty()) {
+                this.updateChanged(viewMode, matches);
             }
+        }
 
-            if (viewMode == ViewItems.STORED && is.getStackSize() == 0) {
-                continue;
+        this.changed.clear();
+        this.lastMatches = matches;
+        this.rebuild = false;
+    }
+
+    private void rebuildView(final Enum viewMode, final BitSet matches) {
+        this.view.clear();
+        this.viewEntries.clear();
+
+        this.view.ensureCapacity(this.list.size());
+
+        for (final IAEItemStack is : this.list) {
+            final ViewEntry entry = this.createEntry(this.index.getId(is), is, viewMode, matches);
+            if (entry != null) {
+                this.view.add(entry);
+                this.viewEntries.put(entry.id, entry);
             }
+        }
+
+        this.view.sort(this.comparator);
+    }
+
+    private void updateChanged(final Enum viewMode, final BitSet matches) {
+        final boolean bulk = this.changed.size() > MAX_REPOSITIONED;
+        if (bulk) {
+            this.view.removeIf(entry -> this.changed.contains(entry.id));
+        }
 
-            final String dspName = (searchMod ? Platform.getModId(is) : Platform.getItemDisplayName(is)).toLowerCase();
-            boolean foundMatchingItemStack = true;
-
-            for (String term : innerSearch.split(" ")) {
-                if (term.length() > 1 && (term.startsWith("-") || term.startsWith("!"))) {
-                    term = term.substring(1);
-                    if (dspName.contains(term)) {
-                        foundMatchingItemStack = false;
-                        break;
-                    }
-                } else if (!dspName.contains(term)) {
-                    foundMatchingItemStack = false;
-                    break;
+        for (final IntIterator it = this.changed.iterator(); it.hasNext(); ) {
+            final int id = it.nextInt();
+            final ViewEntry old = this.viewEntries.remove(id);
+            if (old != null && !bulk) {
+                final int pos = Collections.binarySearch(this.view, old, this.comparator);
+                if (pos >= 0 && this.view.get(pos) == old) {
+                    this.view.remove(pos);
+                } else {
+                    this.view.remove(old);
                 }
             }
 
-            if (terminalSearchToolTips && !foundMatchingItemStack) {
-                final List<String> tooltip = Platform.getTooltip(is);
-                for (final String line : tooltip) {
-                    if (m.matcher(line).find()) {
-                        foundMatchingItemStack = true;
-                        break;
-                    }
-                }
+            final IAEItemStack is = this.list.findPrecise(this.index.getStack(id));
+            final ViewEntry entry = is != null && is.isMeaningful() ? this.createEntry(id, is, viewMode, matches) : null;
+            if (entry == null) {
+                continue;
             }
 
-            if (foundMatchingItemStack) {
-                if (needsZeroCopy) {
-                    is = is.copy();
-                    is.setStackSize(0);
-                }
+            this.viewEntries.put(id, entry);
+            if (bulk) {
+                this.view.add(entry);
+            } else {
+                final int pos = Collections.binarySearch(this.view, entry, this.comparator);
+                this.view.add(pos < 0 ? -pos - 1 : pos, entry);
+            }
+        }
+
+        if (bulk) {
+            this.view.sort(this.comparator);
+        }
+    }
 
-                this.view.add(is);
+    /**
+     * @return the entry showing the item in the view, or null if it is not shown
+     */
+    private ViewEntry createEntry(final int id, IAEItemStack is, final Enum viewMode, final BitSet matches) {
+        if (this.myPartitionList != null) {
+            if (!this.myPartitionList.isListed(is)) {
+                return null;
             }
         }
 
-        final Enum SortBy = this.sortSrc.getSortBy();
-        final Enum SortDir = this.sortSrc.getSortDir();
+        if (viewMode == ViewItems.CRAFTABLE && !is.isCraftable()) {
+            return null;
+        }
 
-        ItemSorters.setDirection((appeng.api.config.SortDir) SortDir);
-        ItemSorters.init();
+        if (viewMode == ViewItems.STORED && is.getStackSize() == 0) {
+            return null;
+        }
 
-        if (SortBy == SortOrder.MOD) {
-            Collections.sort(this.view, ItemSorters.CONFIG_BASED_SORT_BY_MOD);
-        } else if (SortBy == SortOrder.AMOUNT) {
-            Collections.sort(this.view, ItemSorters.CONFIG_BASED_SORT_BY_SIZE);
-        } else if (SortBy == SortOrder.INVTWEAKS) {
+        if (id < 0 || !matches.get(id)) {
+            return null;
+        }
+
+        if (viewMode == ViewItems.CRAFTABLE) {
+            is = is.copy();
+            is.setStackSize(0);
+        }
+
+        return new ViewEntry(id, is, this.index.getDisplayName(id), this.index.getModId(id));
+    }
+
+    private static Comparator<ViewEntry> createComparator(final Enum sortBy, final Enum sortDir) {
+        final Comparator<ViewEntry> order;
+        if (sortBy == SortOrder.MOD) {
+            order = (o1, o2) -> {
+                final int cmp = o1.modId.compareToIgnoreCase(o2.modId);
+                return cmp != 0 ? cmp : o1.displayName.compareToIgnoreCase(o2.displayName);
+            };
+        } else if (sortBy == SortOrder.AMOUNT) {
+            order = (o1, o2) -> Long.compare(o2.stackSize, o1.stackSize);
+        } else if (sortBy == SortOrder.INVTWEAKS) {
             if (InventoryBogoSortModule.isLoaded()) {
-                Collections.sort(this.view, InventoryBogoSortModule.COMPARATOR);
-            } else {
-                Collections.sort(this.view, ItemSorters.CONFIG_BASED_SORT_BY_INV_TWEAKS);
+                return Comparator.<ViewEntry, IAEItemStack>comparing(entry -> entry.stack, InventoryBogoSortModule.COMPARATOR).thenComparingInt(entry -> entry.id);
             }
+            return Comparator.<ViewEntry, IAEItemStack>comparing(entry -> entry.stack, ItemSorters.CONFIG_BASED_SORT_BY_INV_TWEAKS).thenComparingInt(entry -> entry.id);
         } else {
-            Collections.sort(this.view, ItemSorters.CONFIG_BASED_SORT_BY_NAME);
+            order = (o1, o2) -> o1.displayName.compareToIgnoreCase(o2.displayName);
         }
+
+        return (sortDir == SortDir.ASCENDING ? order : order.reversed()).thenComparingInt(entry -> entry.id);
     }
 
     private void updateJEI(String filter) {
@@ -207,11 +292,25 @@ public class ItemRepo {
     }
 
     public int size() {
-        return this.view.size();
+        return this.paged ? this.pageTotal : this.view.size();
+    }
+
+    /**
+     * Switches the repo to paged mode, where the server filters and sorts the items and only sends some of them.
+     */
+    public void setPage(final int offset, final int total) {
+        this.paged = true;
+        this.pageOffset = offset;
+        this.pageTotal = total;
+    }
+
+    public boolean isPaged() {
+        return this.paged;
     }
 
     public void clear() {
         this.list.resetStatus();
+        this.rebuild = true;
     }
 
     public boolean hasPower() {
@@ -241,4 +340,23 @@ public class ItemRepo {
     public IItemList<IAEItemStack> getList() {
         return list;
     }
+
+    /**
+     * An item shown in the view, with the values it is sorted by at the time it was put in its place.
+     */
+    private static class ViewEntry {
+        private final int id;
+        private final IAEItemStack stack;
+        private final long stackSize;
+        private final String displayName;
+        private final String modId;
+
+        private ViewEntry(final int id, final IAEItemStack stack, final String displayName, final String modId) {
+            this.id = id;
+            this.stack = stack;
+            this.stackSize = stack.getStackSize();
+            this.displayName = displayName;
+            this.modId = modId;
+        }
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.client.me;
+
+
+import appeng.api.storage.data.IAEItemStack;
+import appeng.util.Platform;
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+
+/**
+ * The searchable text of every item a terminal has seen, so searching does not ask the items for their names and
+ * tooltips again for every keystroke.
+ *
+ * Names are split into trigrams, which narrow a search down to the items containing the rarest trigram of the query.
+ * With tooltip search the other items are only checked against the tooltip pattern. When a query only extends the
+ * previous one, just the items matching the previous one are checked again. Tooltips are slow to build, so they are
+ * collected a few at a time while tooltip search is used, and an item can only be found by its tooltip once that is
+ * done.
+ */
+class ItemSearchIndex {
+
+    private static final long TOOLTIP_BUDGET_NANOS = 2_000_000L;
+
+    /**
+     * Queries without negated terms or regex syntax, a match for one of these also matches all of its prefixes.
+     */
+    private static final Pattern LITERAL = Pattern.compile("[^-!\\\\^$.|?*+()\\[\\]{}]*");
+
+    private final Object2IntOpenHashMap<IAEItemStack> ids = new Object2IntOpenHashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Long2ObjectOpenHashMap<IntArrayList> trigrams = new Long2ObjectOpenHashMap<>();
+    private final IntArrayFIFOQueue pendingTooltips = new IntArrayFIFOQueue();
+    private int version = 0;
+
+    private String lastQuery;
+    private boolean lastTooltips;
+    private int lastVersion;
+    private BitSet lastMatches;
+
+    ItemSearchIndex() {
+        this.ids.defaultReturnValue(-1);
+    }
+
+    /**
+     * @return the id of the item, or -1 if it was never added
+     */
+    int getId(final IAEItemStack stack) {
+        return this.ids.getInt(stack);
+    }
+
+    /**
+     * @return the definition of the item with the given id
+     */
+    IAEItemStack getStack(final int id) {
+        return this.entries.get(id).stack;
+    }
+
+    String getDisplayName(final int id) {
+        return this.entries.get(id).displayName;
+    }
+
+    String getModId(final int id) {
+        return this.entries.get(id).modId;
+    }
+
+    /**
+     * @return the id of the item, which is added if it is new
+     */
+    int add(final IAEItemStack stack) {
+        final int known = this.ids.getInt(stack);
+        if (known >= 0) {
+            return known;
+        }
+
+        final int id = this.entries.size();
+        final IAEItemStack key = stack.copy().reset();
+        final Entry entry = new Entry(key, Platform.getItemDisplayName(key), Platform.getModId(key));
+
+        this.ids.put(key, id);
+        this.entries.add(entry);
+        this.pendingTooltips.enqueue(id);
+
+        final String name = entry.name;
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            final IntArrayList posting = this.trigrams.computeIfAbsent(trigram(name, i), k -> new IntArrayList());
+            if (posting.isEmpty() || posting.getInt(posting.size() - 1) != id) {
+                posting.add(id);
+            }
+        }
+
+        this.version++;
+        return id;
+    }
+
+    /**
+     * @param query the lower case search string of the terminal, starting with @ to search by mod
+     * @param tooltips whether items can also be found by their tooltip
+     * @return the ids of the matching items, or null if the query can not be used at all
+     */
+    BitSet search(final String query, final boolean tooltips) {
+        final boolean searchMod = query.startsWith("@");
+        final String inner = searchMod ? query.substring(1) : query;
+
+        if (tooltips && !inner.isEmpty()) {
+            this.computeTooltips();
+        }
+
+        if (query.equals(this.lastQuery) && tooltips == this.lastTooltips && this.version == this.lastVersion) {
+            return this.lastMatches;
+        }
+
+        Pattern m;
+        try {
+            m = Pattern.compile(inner, Pattern.CASE_INSENSITIVE);
+        } catch (final Throwable ignore) {
+            try {
+                m = Pattern.compile(Pattern.quote(inner), Pattern.CASE_INSENSITIVE);
+            } catch (final Throwable __) {
+                return null;
+            }
+        }
+
+        final String[] terms = inner.split(" ");
+        final boolean narrows = this.lastMatches != null && tooltips == this.lastTooltips && this.version == this.lastVersion
+                && query.startsWith(this.lastQuery) && LITERAL.matcher(this.lastQuery).matches() && LITERAL.matcher(query).matches();
+
+        final BitSet candidates;
+        if (narrows) {
+            candidates = this.lastMatches;
+        } else if (!searchMod) {
+            candidates = this.getCandidates(terms);
+        } else {
+            candidates = null;
+        }
+
+        final Pattern tooltip = tooltips ? m : null;
+        final BitSet matches = new BitSet(this.entries.size());
+        if (candidates != null) {
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                if (this.matches(this.entries.get(id), searchMod, terms, tooltip)) {
+                    matches.set(id);
+                }
+            }
+
+            // the trigrams only cover the names, the other items can still be found by their tooltip
+            if (tooltip != null && !narrows) {
+                for (int id = candidates.nextClearBit(0); id < this.entries.size(); id = candidates.nextClearBit(id + 1)) {
+                    if (this.matchesTooltip(this.entries.get(id), tooltip)) {
+                        matches.set(id);
+                    }
+                }
+            }
+        } else {
+            for (int id = 0; id < this.entries.size(); id++) {
+                if (this.matches(this.entries.get(id), searchMod, terms, tooltip)) {
+                    matches.set(id);
+                }
+            }
+        }
+
+        this.lastQuery = query;
+        this.lastTooltips = tooltips;
+        this.lastVersion = this.version;
+        this.lastMatches = matches;
+        return matches;
+    }
+
+    /**
+     * @return the items containing the rarest trigram of the positive terms, or null if no term is long enough to tell
+     */
+    private BitSet getCandidates(final String[] terms) {
+        IntArrayList rarest = null;
+
+        for (final String term : terms) {
+            if (term.length() > 1 && (term.startsWith("-") || term.startsWith("!"))) {
+                continue;
+            }
+
+            for (int i = 0; i + 3 <= term.length(); i++) {
+                final IntArrayList posting = this.trigrams.get(trigram(term, i));
+                if (posting == null) {
+                    return new BitSet();
+                }
+
+                if (rarest == null || posting.size() < rarest.size()) {
+                    rarest = posting;
+                }
+            }
+        }
+
+        if (rarest == null) {
+            return null;
+        }
+
+        final BitSet candidates = new BitSet(this.entries.size());
+        for (int i = 0; i < rarest.size(); i++) {
+            candidates.set(rarest.getInt(i));
+        }
+        return candidates;
+    }
+
+    private boolean matches(final Entry entry, final boolean searchMod, final String[] terms, final Pattern tooltip) {
+        final String dspName = searchMod ? entry.searchModId : entry.name;
+        boolean foundMatchingItemStack = true;
+
+        for (String term : terms) {
+            if (term.length() > 1 && (term.startsWith("-") || term.startsWith("!"))) {
+                term = term.substring(1);
+                if (dspName.contains(term)) {
+                    foundMatchingItemStack = false;
+                    break;
+                }
+            } else if (!dspName.contains(term)) {
+                foundMatchingItemStack = false;
+                break;
+            }
+        }
+
+        if (tooltip != null && !foundMatchingItemStack) {
+            return this.matchesTooltip(entry, tooltip);
+        }
+
+        return foundMatchingItemStack;
+    }
+
+    private boolean matchesTooltip(final Entry entry, final Pattern tooltip) {
+        if (entry.tooltip != null) {
+            for (final String line : entry.tooltip) {
+                if (tooltip.matcher(line).find()) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void computeTooltips() {
+        if (this.pendingTooltips.isEmpty()) {
+            return;
+        }
+
+        final long deadline = System.nanoTime() + TOOLTIP_BUDGET_NANOS;
+        do {
+            final Entry entry = this.entries.get(this.pendingTooltips.dequeueInt());
+            entry.tooltip = Platform.getTooltip(entry.stack);
+        } while (!this.pendingTooltips.isEmpty() && System.nanoTime() < deadline);
+
+        this.version++;
+    }
+
+    private static long trigram(final String s, final int offset) {
+        return (long) s.charAt(offset) << 32 | (long) s.charAt(offset + 1) << 16 | s.charAt(offset + 2);
+    }
+
+    private static class Entry {
+        private final IAEItemStack stack;
+        private final String displayName;
+        private final String modId;
+        private final String name;
+        private final String searchModId;
+        private List<String> tooltip;
+
+        private Entry(final IAEItemStack stack, final String displayName, final String modId) {
+            this.stack = stack;
+            this.displayName = displayName;
+            this.modId = modId;
+            this.name = displayName.toLowerCase();
+            this.searchModId = modId.toLowerCase();
+        }
+    }
+}
@@ -61,6 +61,15 @@ public class ContainerCraftingCPU extends AEBaseContainer implements IMEMonitorH
 
     @GuiSync(0)
     public long eta = -1;
+
+    @GuiSync(1)
+    public int readyTasks = 0;
+
+    @GuiSync(2)
+    public int blockedTasks = 0;
+
+    @GuiSync(3)
+    public int busyTasks = 0;
     private GuiCraftingCPU guiCraftingCPU;
 
     public ContainerCraftingCPU(final InventoryPlayer ip, final Object te) {
@@ -147,6 +156,10 @@ public class ContainerCraftingCPU extends AEBaseContainer implements IMEMonitorH
                 final long eta = (long) (elapsedTime / Math.max(1d, (startItems - remainingItems)) * remainingItems);
                 this.setEstimatedTime(eta);
             }
+
+            this.readyTasks = this.getMonitor().getReadyTaskCount();
+            this.blockedTasks = this.getMonitor().getBlockedTaskCount();
+            this.busyTasks = this.getMonitor().getBusyTaskCount();
             if (!this.list.isEmpty()) {
                 try {
                     final PacketMEInventoryUpdate a = new PacketMEInventoryUpdate((byte) 0);
@@ -221,6 +234,18 @@ public class ContainerCraftingCPU extends AEBaseContainer implements IMEMonitorH
         this.eta = eta;
     }
 
+    public int getReadyTasks() {
+        return this.readyTasks;
+    }
+
+    public int getBlockedTasks() {
+        return this.blockedTasks;
+    }
+
+    public int getBusyTasks() {
+        return this.busyTasks;
+    }
+
     CraftingCPUCluster getMonitor() {
         return this.monitor;
     }
@@ -47,11 +47,13 @@ import appeng.client.gui.implementations.GuiMEMonitorable;
 import appeng.container.AEBaseContainer;
 import appeng.container.guisync.GuiSync;
 import appeng.container.slot.SlotRestrictedInput;
+import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.sync.network.NetworkHandler;
 import appeng.core.sync.packets.PacketMEInventoryUpdate;
 import appeng.core.sync.packets.PacketValueConfig;
 import appeng.helpers.WirelessTerminalGuiObject;
+import appeng.me.cache.helpers.BroadcastDiff;
 import appeng.me.helpers.ChannelPowerSrc;
 import appeng.util.ConfigManager;
 import appeng.util.IConfigManagerHost;
@@ -67,6 +69,7 @@ import net.minecraftforge.fml.common.Loader;
 import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.nio.BufferOverflowException;
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -75,6 +78,10 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
     protected final SlotRestrictedInput[] cellView = new SlotRestrictedInput[5];
     private final IMEMonitor<IAEItemStack> monitor;
     public final IItemList<IAEItemStack> items = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
+    // changes of the network shared with the other terminals on it, see BroadcastDiff
+    private final List<BroadcastDiff<IAEItemStack>> broadcasts = new ArrayList<>();
+    // only set for terminals in paged mode, which receive their changes instead of items and broadcasts
+    private PagedItemView pager;
     private final IConfigManager clientCM;
     private final ITerminalHost host;
     @GuiSync(99)
@@ -114,6 +121,10 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
 
                 this.setCellInventory(this.monitor);
 
+                if (AEConfig.instance().isPagedTerminals() && this.monitor.getStorageList().size() >= AEConfig.instance().getPagedTerminalMinTypes()) {
+                    this.pager = new PagedItemView();
+                }
+
                 if (monitorable instanceof IPortableCell) {
                     this.setPowerSource((IEnergySource) monitorable);
                     if (monitorable instanceof WirelessTerminalGuiObject) {
@@ -190,6 +201,10 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
                 }
             }
 
+            if (this.pager != null) {
+                this.updatePage();
+            }
+
             if (!this.items.isEmpty()) {
                 try {
                     final IItemList<IAEItemStack> monitorCache = this.monitor.getStorageList();
@@ -220,6 +235,28 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
                 }
             }
 
+            if (!this.broadcasts.isEmpty()) {
+                try {
+                    final IItemList<IAEItemStack> monitorCache = this.monitor.getStorageList();
+
+                    for (final BroadcastDiff<IAEItemStack> diff : this.broadcasts) {
+                        final List<PacketMEInventoryUpdate> packets = diff.getEncoded(changes -> encodeUpdate(monitorCache, changes));
+
+                        for (final Object c : this.listeners) {
+                            if (c instanceof EntityPlayer) {
+                                for (final PacketMEInventoryUpdate piu : packets) {
+                                    NetworkHandler.instance().sendTo(piu, (EntityPlayerMP) c);
+                                }
+                            }
+                        }
+                    }
+                } catch (final IOException e) {
+                    AELog.debug(e);
+                }
+
+                this.broadcasts.clear();
+            }
+
             this.updatePowerStatus();
 
             final boolean oldAccessible = this.canAccessViewCells;
@@ -237,6 +274,80 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
 
     }
 
+    private static List<PacketMEInventoryUpdate> encodeUpdate(final IItemList<IAEItemStack> monitorCache, final List<IAEItemStack> changes) throws IOException {
+        final List<PacketMEInventoryUpdate> packets = new ArrayList<>();
+        PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
+        packets.add(piu);
+
+        for (final IAEItemStack is : changes) {
+            IAEItemStack send = monitorCache.findPrecise(is);
+            if (send == null) {
+                send = is.copy();
+                send.setStackSize(0);
+            }
+
+            try {
+                piu.appendItem(send);
+            } catch (final BufferOverflowException boe) {
+                piu = new PacketMEInventoryUpdate();
+                packets.add(piu);
+                piu.appendItem(send);
+            }
+        }
+
+        return packets;
+    }
+
+    private void updatePage() {
+        final ItemStack[] cells = this.host instanceof IViewCellStorage ? this.getViewCells() : new ItemStack[0];
+        final List<IAEItemStack> out = new ArrayList<>();
+        final boolean pageChanged = this.pager.update(this.monitor.getStorageList(), this.serverCM, cells, out);
+
+        try {
+            final List<PacketMEInventoryUpdate> packets = new ArrayList<>();
+            if (!out.isEmpty()) {
+                PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
+                packets.add(piu);
+
+                for (final IAEItemStack is : out) {
+                    try {
+                        piu.appendItem(is);
+                    } catch (final BufferOverflowException boe) {
+                        piu = new PacketMEInventoryUpdate();
+                        packets.add(piu);
+                        piu.appendItem(is);
+                    }
+                }
+            }
+
+            for (final Object c : this.listeners) {
+                if (c instanceof EntityPlayerMP) {
+                    for (final PacketMEInventoryUpdate piu : packets) {
+                        NetworkHandler.instance().sendTo(piu, (EntityPlayerMP) c);
+                    }
+
+                    if (pageChanged) {
+                        NetworkHandler.instance().sendTo(new PacketValueConfig("Terminal.Page", this.pager.getOffset() + "," + this.pager.getTotal()), (EntityPlayerMP) c);
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            AELog.debug(e);
+        }
+    }
+
+    public void setPageSearch(final String search) {
+        if (this.pager != null) {
+            this.pager.setSearch(search);
+        }
+    }
+
+    public void setPageViewport(final int offset, final int count) {
+        if (this.pager != null) {
+            this.pager.setViewport(offset, count);
+        }
+    }
+
     protected void updatePowerStatus() {
         try {
             if (this.networkNode != null) {
@@ -272,6 +383,12 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
     }
 
     private void queueInventory(final IContainerListener c) {
+        if (this.pager != null) {
+            // sent with the next page update
+            this.pager.resend();
+            return;
+        }
+
         if (Platform.isServer() && c instanceof EntityPlayer && this.monitor != null) {
             try {
                 PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
@@ -319,6 +436,16 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
 
     @Override
     public void postChange(final IBaseMonitor<IAEItemStack> monitor, final Iterable<IAEItemStack> change, final IActionSource source) {
+        if (this.pager != null) {
+            this.pager.postChanges(change);
+            return;
+        }
+
+        if (change instanceof BroadcastDiff && monitor == this.monitor) {
+            this.broadcasts.add((BroadcastDiff<IAEItemStack>) change);
+            return;
+        }
+
         for (final IAEItemStack is : change) {
             this.items.add(is);
         }
@@ -326,6 +453,9 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
 
     @Override
     public void onListUpdate() {
+        // the full list supersedes them
+        this.broadcasts.clear();
+
         for (final IContainerListener c : this.listeners) {
             this.queueInventory(c);
         }
@@ -0,0 +1,359 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.container.implementations;
+
+
+import appeng.api.config.Settings;
+import appeng.api.config.SortDir;
+import appeng.api.config.SortOrder;
+import appeng.api.config.ViewItems;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+import appeng.api.util.IConfigManager;
+import appeng.items.storage.ItemViewCell;
+import appeng.util.prioritylist.IPartitionList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * The server side of a terminal in paged mode, which only sends the client the part of the sorted and filtered network
+ * contents around its scroll position, together with the total count.
+ *
+ * The sorted view is rebuilt when the search, sorting or view cells change. Changes of the network only update the
+ * amounts of the items already sent right away, moving items in or out of the view waits for the next rebuild, which
+ * happens at most once per {@link #RESORT_TICKS}, and only if an item was added or removed or the order depends on the
+ * amounts. Names are the ones known to the server, tooltips can not be searched.
+ */
+class PagedItemView {
+
+    /**
+     * The items sent before the client told the server where it is scrolled to.
+     */
+    private static final int DEFAULT_WINDOW = 9 * 18;
+
+    private static final int MAX_WINDOW = 9 * 256;
+
+    private static final int RESORT_TICKS = 20;
+
+    private final Set<IAEItemStack> sent = new ObjectOpenHashSet<>();
+    private final Set<IAEItemStack> changed = new ObjectOpenHashSet<>();
+    // the items changed while the order and view do not depend on amounts, only entering or leaving the view matters
+    private final Set<IAEItemStack> unsorted = new ObjectOpenHashSet<>();
+    private List<IAEItemStack> view = Collections.emptyList();
+    private Set<IAEItemStack> inView = Collections.emptySet();
+    private Map<IAEItemStack, SortKeys> keys = new Object2ObjectOpenHashMap<>();
+
+    private String search = "";
+    private boolean searchMod = false;
+    private String[] terms = {""};
+    private int offset = 0;
+    private int count = DEFAULT_WINDOW;
+    private int sentOffset = -1;
+    private int sentTotal = -1;
+
+    private boolean dirty = true;
+    private boolean stale = false;
+    private boolean windowMoved = true;
+    private int ticksSinceSort = 0;
+
+    private Enum sortBy;
+    private Enum sortDir;
+    private Enum viewMode;
+    private ItemStack[] viewCells = new ItemStack[0];
+    private IPartitionList<IAEItemStack> partition;
+
+    void setSearch(final String search) {
+        if (!this.search.equals(search)) {
+            this.search = search;
+            this.dirty = true;
+        }
+    }
+
+    void setViewport(final int offset, final int count) {
+        final int newOffset = Math.max(0, offset);
+        final int newCount = Math.max(0, Math.min(MAX_WINDOW, count));
+        if (newOffset != this.offset || newCount != this.count) {
+            this.offset = newOffset;
+            this.count = newCount;
+            this.windowMoved = true;
+        }
+    }
+
+    /**
+     * Sends the current window again, for clients which dropped their items.
+     */
+    void resend() {
+        this.changed.addAll(this.sent);
+        this.dirty = true;
+    }
+
+    void postChanges(final Iterable<IAEItemStack> changes) {
+        final boolean moves = this.sortBy == SortOrder.AMOUNT || this.viewMode != ViewItems.ALL;
+
+        for (final IAEItemStack change : changes) {
+            if (this.sent.contains(change)) {
+                this.changed.add(change);
+            }
+
+            if (moves) {
+                this.stale = true;
+            } else if (!this.stale) {
+                this.unsorted.add(change);
+            }
+        }
+    }
+
+    /**
+     * @param storage the current contents of the network
+     * @param out receives the stacks the client has to be sent, stacks leaving its window are sent with an amount of 0
+     * @return true if the window offset or the total count the client knows changed
+     */
+    boolean update(final IItemList<IAEItemStack> storage, final IConfigManager settings, final ItemStack[] cells, final List<IAEItemStack> out) {
+        this.updateSettings(settings, cells);
+
+        if (!this.dirty && !this.stale) {
+            this.stale = this.hasAddedOrRemoved(storage);
+        }
+        this.unsorted.clear();
+
+        this.ticksSinceSort++;
+        if (this.dirty || (this.stale && this.ticksSinceSort >= RESORT_TICKS)) {
+            this.view = this.buildView(storage);
+            this.dirty = false;
+            this.stale = false;
+            this.windowMoved = true;
+            this.ticksSinceSort = 0;
+        }
+
+        if (this.windowMoved) {
+            final Set<IAEItemStack> window = new ObjectOpenHashSet<>();
+            for (int i = this.offset; i < Math.min(this.offset + this.count, this.view.size()); i++) {
+                window.add(this.view.get(i));
+            }
+
+            for (final IAEItemStack old : this.sent) {
+                if (!window.contains(old)) {
+                    final IAEItemStack gone = old.copy();
+                    gone.reset();
+                    out.add(gone);
+                }
+            }
+
+            for (final IAEItemStack is : window) {
+                if (!this.sent.contains(is)) {
+                    this.changed.add(is);
+                }
+            }
+
+            this.sent.clear();
+            this.sent.addAll(window);
+            this.windowMoved = false;
+        }
+
+        for (final IAEItemStack is : this.changed) {
+            if (this.sent.contains(is)) {
+                final IAEItemStack current = storage.findPrecise(is);
+                if (current != null) {
+                    out.add(current);
+                } else {
+                    final IAEItemStack gone = is.copy();
+                    gone.reset();
+                    out.add(gone);
+                }
+            }
+        }
+        this.changed.clear();
+
+        final int offset = Math.min(this.offset, this.view.size());
+        if (offset != this.sentOffset || this.view.size() != this.sentTotal) {
+            this.sentOffset = offset;
+            this.sentTotal = this.view.size();
+            return true;
+        }
+
+        return false;
+    }
+
+    int getOffset() {
+        return this.sentOffset;
+    }
+
+    int getTotal() {
+        return this.sentTotal;
+    }
+
+    private void updateSettings(final IConfigManager settings, final ItemStack[] cells) {
+        final Enum sortBy = settings.getSetting(Settings.SORT_BY);
+        final Enum sortDir = settings.getSetting(Settings.SORT_DIRECTION);
+        final Enum viewMode = settings.getSetting(Settings.VIEW_MODE);
+        if (sortBy != this.sortBy || sortDir != this.sortDir || viewMode != this.viewMode) {
+            this.sortBy = sortBy;
+            this.sortDir = sortDir;
+            this.viewMode = viewMode;
+            this.dirty = true;
+        }
+
+        boolean cellsChanged = cells.length != this.viewCells.length;
+        for (int i = 0; !cellsChanged && i < cells.length; i++) {
+            cellsChanged = !ItemStack.areItemStacksEqual(cells[i], this.viewCells[i]);
+        }
+
+        if (cellsChanged) {
+            this.viewCells = new ItemStack[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                this.viewCells[i] = cells[i] == null ? null : cells[i].copy();
+            }
+            this.partition = ItemViewCell.createFilter(cells);
+            this.dirty = true;
+        }
+    }
+
+    /**
+     * @return true if an item changed since the last update entered or left the network, and so the view
+     */
+    private boolean hasAddedOrRemoved(final IItemList<IAEItemStack> storage) {
+        for (final IAEItemStack is : this.unsorted) {
+            final IAEItemStack current = storage.findPrecise(is);
+            if (current != null && current.isMeaningful()) {
+                if (!this.inView.contains(current) && this.includes(current, this.keys) != null) {
+                    return true;
+                }
+            } else if (this.inView.contains(is)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private List<IAEItemStack> buildView(final IItemList<IAEItemStack> storage) {
+        final String query = this.search.toLowerCase();
+        this.searchMod = query.startsWith("@");
+        this.terms = (this.searchMod ? query.substring(1) : query).split(" ");
+
+        final Map<IAEItemStack, SortKeys> keys = new Object2ObjectOpenHashMap<>();
+        final List<Row> rows = new ArrayList<>();
+        for (final IAEItemStack is : storage) {
+            final SortKeys sortKeys = this.includes(is, keys);
+            if (sortKeys != null) {
+                rows.add(new Row(is, sortKeys));
+            }
+        }
+        // only the keys of the items still stored are kept
+        this.keys = keys;
+
+        rows.sort(this.createComparator());
+
+        final List<IAEItemStack> view = new ArrayList<>(rows.size());
+        for (final Row row : rows) {
+            view.add(row.stack);
+        }
+        this.inView = new ObjectOpenHashSet<>(view);
+        return view;
+    }
+
+    /**
+     * @param keys receives the sort keys of the item if it passed the filters before the search
+     * @return the sort keys of the item if it is shown, null if it is not
+     */
+    private SortKeys includes(final IAEItemStack is, final Map<IAEItemStack, SortKeys> keys) {
+        if (this.partition != null && !this.partition.isListed(is)) {
+            return null;
+        }
+
+        if (this.viewMode == ViewItems.CRAFTABLE && !is.isCraftable()) {
+            return null;
+        }
+
+        if (this.viewMode == ViewItems.STORED && is.getStackSize() == 0) {
+            return null;
+        }
+
+        SortKeys sortKeys = this.keys.get(is);
+        if (sortKeys == null) {
+            sortKeys = new SortKeys(is.getDefinition());
+        }
+        keys.put(is, sortKeys);
+
+        return matches(this.searchMod ? sortKeys.modId : sortKeys.name, this.terms) ? sortKeys : null;
+    }
+
+    private Comparator<Row> createComparator() {
+        final Comparator<Row> order;
+        if (this.sortBy == SortOrder.MOD) {
+            order = Comparator.<Row, String>comparing(row -> row.keys.modId).thenComparing(row -> row.keys.name);
+        } else if (this.sortBy == SortOrder.AMOUNT) {
+            order = (o1, o2) -> Long.compare(o2.stack.getStackSize(), o1.stack.getStackSize());
+        } else {
+            order = Comparator.comparing(row -> row.keys.name);
+        }
+
+        return this.sortDir == SortDir.ASCENDING ? order : order.reversed();
+    }
+
+    private static boolean matches(final String name, final String[] terms) {
+        for (String term : terms) {
+            if (term.length() > 1 && (term.startsWith("-") || term.startsWith("!"))) {
+                term = term.substring(1);
+                if (name.contains(term)) {
+                    return false;
+                }
+            } else if (!name.contains(term)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static class Row {
+        private final IAEItemStack stack;
+        private final SortKeys keys;
+
+        private Row(final IAEItemStack stack, final SortKeys keys) {
+            this.stack = stack;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * The name and mod of an item, which only depend on its definition.
+     */
+    private static class SortKeys {
+        private final String name;
+        private final String modId;
+
+        private SortKeys(final ItemStack definition) {
+            final ResourceLocation registryName = definition.getItem().getRegistryName();
+
+            this.name = definition.getDisplayName().toLowerCase();
+            this.modId = registryName == null ? "" : registryName.getResourceDomain().toLowerCase();
+        }
+    }
+}
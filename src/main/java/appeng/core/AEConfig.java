@@ -81,6 +81,13 @@ public final class AEConfig extends Configuration implements IConfigurableObject
     private boolean useColoredCraftingStatus;
     private boolean disableColoredCableRecipesInJEI = true;
     private int craftingCalculationTimePerTick = 5;
+    private int craftingCalculationJobs = 4;
+    private int craftingCalculationThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int gridTickBudgetPerTick = 0;
+    private boolean incrementalChannelUpdates = true;
+    private boolean compactInventoryUpdates = true;
+    private boolean pagedTerminals = false;
+    private int pagedTerminalMinTypes = 20000;
     private PowerUnits selectedPowerUnit = PowerUnits.AE;
     // Spatial IO/Dimension
     private int storageProviderID = -1;
@@ -183,6 +190,17 @@ public final class AEConfig extends Configuration implements IConfigurableObject
         this.addCustomCategoryComment("autocrafting", "Enable patterns with substitutions on to have their substitutes to be auto craftable.\nThis changes the crafting tree, and can show missing ingredients for the substitute, instead of the patterned item");
         this.enableCraftingSubstitutes = this.get("autocrafting", "EnableAutocraftinSubstitutes", this.enableCraftingSubstitutes).getBoolean(this.enableCraftingSubstitutes);
 
+        this.addCustomCategoryComment("gridTicking", "Limits the time spent ticking network devices each server tick, in microseconds. 0 disables the limit.\nDevices which miss the budget are deferred to the next tick and networks take turns being ticked first.");
+        this.gridTickBudgetPerTick = Math.max(0, this.get("gridTicking", "gridTickBudgetPerTick", this.gridTickBudgetPerTick).getInt(this.gridTickBudgetPerTick));
+
+        this.addCustomCategoryComment("pathfinding", "When enabled, devices added or removed at the edge of a controller network only route their own channels instead of rebooting the whole network.");
+        this.incrementalChannelUpdates = this.get("pathfinding", "incrementalChannelUpdates", this.incrementalChannelUpdates).getBoolean(this.incrementalChannelUpdates);
+
+        this.addCustomCategoryComment("networkSync", "When enabled, terminals are sent item definitions once per player and afterwards only ids and amounts.\nDisable to send every item in full, as older versions did.");
+        this.compactInventoryUpdates = this.get("networkSync", "compactInventoryUpdates", this.compactInventoryUpdates).getBoolean(this.compactInventoryUpdates);
+        this.pagedTerminals = this.get("networkSync", "pagedTerminals", this.pagedTerminals, "Terminals on networks with at least pagedTerminalMinTypes item types only receive the items around their scroll position.\nThe server sorts and searches these itself, by the names it knows and without tooltips.").getBoolean(this.pagedTerminals);
+        this.pagedTerminalMinTypes = Math.max(0, this.get("networkSync", "pagedTerminalMinTypes", this.pagedTerminalMinTypes).getInt(this.pagedTerminalMinTypes));
+
         this.addCustomCategoryComment("ControllerSize", "Set the max size of a controller in any of the 3 axis.\nEach is between [1, 64)");
         this.maxControllerSizeX = Math.min(Math.max(this.get("ControllerSize", "maxControllerSizeX", this.maxControllerSizeX).getInt(this.maxControllerSizeX), 1), 63);
         this.maxControllerSizeY = Math.min(Math.max(this.get("ControllerSize", "maxControllerSizeY", this.maxControllerSizeY).getInt(this.maxControllerSizeY), 1), 63);
@@ -230,6 +248,8 @@ public final class AEConfig extends Configuration implements IConfigurableObject
 
         if (this.isFeatureEnabled(AEFeature.CRAFTING_CPU)) {
             this.craftingCalculationTimePerTick = this.get("craftingCPU", "craftingCalculationTimePerTick", this.craftingCalculationTimePerTick).getInt(this.craftingCalculationTimePerTick);
+            this.craftingCalculationJobs = Math.max(1, this.get("craftingCPU", "craftingCalculationJobs", this.craftingCalculationJobs, "Number of crafting calculations which run at the same time, further requests wait for a free slot.").getInt(this.craftingCalculationJobs));
+            this.craftingCalculationThreads = Math.max(1, this.get("craftingCPU", "craftingCalculationThreads", this.craftingCalculationThreads, "Number of threads shared by all crafting calculations to plan independent parts of a recipe tree in parallel. 1 plans every tree on its own calculation thread only.").getInt(this.craftingCalculationThreads));
         }
 
         this.updatable = true;
@@ -509,6 +529,34 @@ public final class AEConfig extends Configuration implements IConfigurableObject
         return this.craftingCalculationTimePerTick;
     }
 
+    public int getCraftingCalculationJobs() {
+        return this.craftingCalculationJobs;
+    }
+
+    public int getCraftingCalculationThreads() {
+        return this.craftingCalculationThreads;
+    }
+
+    public int getGridTickBudgetPerTick() {
+        return this.gridTickBudgetPerTick;
+    }
+
+    public boolean isIncrementalChannelUpdates() {
+        return this.incrementalChannelUpdates;
+    }
+
+    public boolean isCompactInventoryUpdates() {
+        return this.compactInventoryUpdates;
+    }
+
+    public boolean isPagedTerminals() {
+        return this.pagedTerminals;
+    }
+
+    public int getPagedTerminalMinTypes() {
+        return this.pagedTerminalMinTypes;
+    }
+
     public PowerUnits getSelectedPowerUnit() {
         return this.selectedPowerUnit;
     }
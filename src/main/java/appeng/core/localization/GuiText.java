@@ -158,6 +158,7 @@ public enum GuiText {
     Cancel,
     ETA,
     ETAFormat,
+    CraftingTasks,
 
     FromStorage,
     ToCraft,
@@ -26,6 +26,7 @@ import appeng.core.sync.network.INetworkInfo;
 import appeng.core.sync.network.NetworkHandler;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.network.INetHandler;
 import net.minecraft.network.Packet;
 import net.minecraft.network.PacketBuffer;
@@ -71,6 +72,14 @@ public abstract class AppEngPacket implements Packet {
         return pp;
     }
 
+    /**
+     * @return the packet as it is sent to the given player, for packets which depend on what that player received
+     * before
+     */
+    public FMLProxyPacket getProxy(final EntityPlayerMP player) {
+        return this.getProxy();
+    }
+
     @Override
     public void readPacketData(final PacketBuffer buf) throws IOException {
         throw new RuntimeException("Not Implemented");
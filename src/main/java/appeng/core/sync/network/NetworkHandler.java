@@ -105,7 +105,7 @@ public class NetworkHandler {
     }
 
     public void sendTo(final AppEngPacket message, final EntityPlayerMP player) {
-        this.ec.sendTo(message.getProxy(), player);
+        this.ec.sendTo(message.getProxy(player), player);
     }
 
     public void sendToAllAround(final AppEngPacket message, final NetworkRegistry.TargetPoint point) {
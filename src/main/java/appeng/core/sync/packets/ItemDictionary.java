@@ -0,0 +1,146 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.sync.packets;
+
+
+import appeng.api.storage.data.IAEItemStack;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * Ids for item definitions sent to clients by {@link PacketMEInventoryUpdate}.
+ *
+ * The server numbers every definition it sends and remembers per player which ones that client already received, so
+ * each definition travels once per player and updates afterwards only carry its id. Ids are never reused. When too many
+ * definitions were numbered, the server forgets all of them and tells every client to do the same with its next
+ * update.
+ */
+final class ItemDictionary {
+
+    private static final int MAX_DEFINITIONS = 1 << 20;
+
+    // server
+    private static final Object2IntOpenHashMap<IAEItemStack> IDS = new Object2IntOpenHashMap<>();
+    private static final Int2ObjectOpenHashMap<byte[]> DEFINITIONS = new Int2ObjectOpenHashMap<>();
+    private static final Map<EntityPlayerMP, Known> PLAYERS = new WeakHashMap<>();
+    private static int nextId = 0;
+    private static int epoch = 0;
+
+    // client
+    private static final Int2ObjectOpenHashMap<IAEItemStack> RECEIVED = new Int2ObjectOpenHashMap<>();
+
+    static {
+        IDS.defaultReturnValue(-1);
+    }
+
+    private ItemDictionary() {
+    }
+
+    /**
+     * @param definitions the serialized definitions for the ids used so far, the one of the stack is added if missing
+     * @return the id of the definition of the stack, numbering it if it has none yet
+     */
+    static synchronized int getId(final IAEItemStack stack, final Int2ObjectMap<byte[]> definitions) {
+        final int id = IDS.getInt(stack);
+        if (id >= 0) {
+            if (!definitions.containsKey(id)) {
+                definitions.put(id, DEFINITIONS.get(id));
+            }
+            return id;
+        }
+
+        if (IDS.size() >= MAX_DEFINITIONS) {
+            IDS.clear();
+            DEFINITIONS.clear();
+            epoch++;
+        }
+
+        final ByteBuf tmp = Unpooled.buffer();
+        ByteBufUtils.writeTag(tmp, stack.getDefinition().serializeNBT());
+
+        final int newId = nextId++;
+        final byte[] definition = Arrays.copyOf(tmp.array(), tmp.readableBytes());
+        IDS.put(stack.copy().reset(), newId);
+        DEFINITIONS.put(newId, definition);
+        definitions.put(newId, definition);
+        return newId;
+    }
+
+    static synchronized Known getKnown(final EntityPlayerMP player) {
+        final Known known = PLAYERS.computeIfAbsent(player, p -> new Known());
+        if (known.epoch != epoch) {
+            known.ids.clear();
+            known.epoch = epoch;
+            known.reset = true;
+        }
+        return known;
+    }
+
+    static synchronized void clientReset() {
+        RECEIVED.clear();
+    }
+
+    static synchronized void clientPut(final int id, final IAEItemStack definition) {
+        RECEIVED.put(id, definition);
+    }
+
+    static synchronized IAEItemStack clientGet(final int id) {
+        return RECEIVED.get(id);
+    }
+
+    /**
+     * The definitions one client received.
+     */
+    static final class Known {
+        private final IntOpenHashSet ids = new IntOpenHashSet();
+        private int epoch = -1;
+        private boolean reset;
+
+        /**
+         * @return true if the client does not have the definition yet, which is then expected to be sent to it
+         */
+        boolean send(final int id) {
+            synchronized (ItemDictionary.class) {
+                return this.ids.add(id);
+            }
+        }
+
+        /**
+         * @return true if the client has to forget its definitions before reading the next update
+         */
+        boolean takeReset() {
+            synchronized (ItemDictionary.class) {
+                final boolean reset = this.reset;
+                this.reset = false;
+                return reset;
+            }
+        }
+    }
+}
@@ -24,14 +24,22 @@ import appeng.container.implementations.ContainerCraftConfirm;
 import appeng.container.implementations.ContainerCraftingCPU;
 import appeng.container.implementations.ContainerMEMonitorable;
 import appeng.container.implementations.ContainerNetworkStatus;
+import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.sync.AppEngPacket;
 import appeng.core.sync.network.INetworkInfo;
 import appeng.util.item.AEItemStack;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.inventory.Container;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.internal.FMLProxyPacket;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
@@ -42,9 +50,13 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.BufferOverflowException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 
 
 public class PacketMEInventoryUpdate extends AppEngPacket {
@@ -53,6 +65,17 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
     private static final int TEMP_BUFFER_SIZE = 1024;
     private static final int STREAM_MASK = 0xff;
 
+    // every item in full as NBT, gzipped
+    private static final byte FORMAT_NBT = 0;
+    // item definitions once per player, then ids and amounts, both deflated
+    private static final byte FORMAT_COMPACT = 1;
+
+    private static final byte FLAG_CRAFTABLE = 1;
+    private static final byte FLAG_REQUESTABLE = 2;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
     // input.
     @Nullable
     private final List<IAEItemStack> list;
@@ -64,6 +87,15 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
     @Nullable
     private final GZIPOutputStream compressFrame;
 
+    // the items as ids and amounts, and the definitions of the ids, for the compact format
+    @Nullable
+    private final PacketBuffer entries;
+    @Nullable
+    private final Int2ObjectMap<byte[]> definitions;
+    // the entries compressed, shared by every receiver of the packet
+    @Nullable
+    private byte[] compressedEntries;
+
     private int writtenBytes = 0;
     private boolean empty = true;
 
@@ -71,9 +103,55 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
     public PacketMEInventoryUpdate(final ByteBuf stream) throws IOException {
         this.data = null;
         this.compressFrame = null;
+        this.entries = null;
+        this.definitions = null;
         this.list = new ArrayList<>();
         this.ref = stream.readByte();
 
+        if (stream.readByte() == FORMAT_COMPACT) {
+            this.readCompact(stream);
+        } else {
+            this.readNBT(stream);
+        }
+
+        this.empty = this.list.isEmpty();
+
+    }
+
+    // api
+    public PacketMEInventoryUpdate() throws IOException {
+        this((byte) 0);
+    }
+
+    // api
+    public PacketMEInventoryUpdate(final byte ref) throws IOException {
+        this.ref = ref;
+        this.list = null;
+
+        if (AEConfig.instance().isCompactInventoryUpdates()) {
+            this.data = null;
+            this.compressFrame = null;
+            this.entries = new PacketBuffer(Unpooled.buffer(OPERATION_BYTE_LIMIT));
+            this.definitions = new Int2ObjectOpenHashMap<>();
+            return;
+        }
+
+        this.entries = null;
+        this.definitions = null;
+        this.data = Unpooled.buffer(OPERATION_BYTE_LIMIT);
+        this.data.writeInt(this.getPacketID());
+        this.data.writeByte(this.ref);
+        this.data.writeByte(FORMAT_NBT);
+
+        this.compressFrame = new GZIPOutputStream(new OutputStream() {
+            @Override
+            public void write(final int value) throws IOException {
+                PacketMEInventoryUpdate.this.data.writeByte(value);
+            }
+        });
+    }
+
+    private void readNBT(final ByteBuf stream) throws IOException {
         // int originalBytes = stream.readableBytes();
 
         try (GZIPInputStream gzReader = new GZIPInputStream(new InputStream() {
@@ -101,31 +179,73 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
                 this.list.add(AEItemStack.fromPacket(uncompressed));
             }
         }
+    }
 
-        this.empty = this.list.isEmpty();
+    private void readCompact(final ByteBuf stream) throws IOException {
+        if (stream.readBoolean()) {
+            ItemDictionary.clientReset();
+        }
 
-    }
+        final int definitionsLength = stream.readInt();
+        if (definitionsLength > 0) {
+            final PacketBuffer definitions = inflate(stream, stream.readInt(), definitionsLength);
 
-    // api
-    public PacketMEInventoryUpdate() throws IOException {
-        this((byte) 0);
+            for (int x = definitions.readVarInt(); x > 0; x--) {
+                final int id = definitions.readVarInt();
+                final ItemStack definition = new ItemStack(ByteBufUtils.readTag(definitions));
+                ItemDictionary.clientPut(id, definition.isEmpty() ? null : AEItemStack.fromItemStack(definition));
+            }
+        }
+
+        final int entriesLength = stream.readInt();
+        final PacketBuffer in = inflate(stream, stream.readableBytes(), entriesLength);
+
+        while (in.readableBytes() > 0) {
+            final IAEItemStack definition = ItemDictionary.clientGet(in.readVarInt());
+            final byte flags = in.readByte();
+            final long stackSize = in.readVarLong();
+            final long countRequestable = (flags & FLAG_REQUESTABLE) != 0 ? in.readVarLong() : 0;
+
+            if (definition == null) {
+                // an item this client does not know, the old format passes those on as null too
+                this.list.add(null);
+                continue;
+            }
+
+            final IAEItemStack is = definition.copy();
+            is.setStackSize(stackSize);
+            is.setCountRequestable(countRequestable);
+            is.setCraftable((flags & FLAG_CRAFTABLE) != 0);
+            this.list.add(is);
+        }
     }
 
-    // api
-    public PacketMEInventoryUpdate(final byte ref) throws IOException {
-        this.ref = ref;
-        this.data = Unpooled.buffer(OPERATION_BYTE_LIMIT);
-        this.data.writeInt(this.getPacketID());
-        this.data.writeByte(this.ref);
+    private static PacketBuffer inflate(final ByteBuf stream, final int compressedLength, final int length) throws IOException {
+        if (length < 0 || length > UNCOMPRESSED_PACKET_BYTE_LIMIT || compressedLength < 0 || compressedLength > stream.readableBytes()) {
+            throw new IOException("Invalid inventory update length " + length);
+        }
 
-        this.compressFrame = new GZIPOutputStream(new OutputStream() {
-            @Override
-            public void write(final int value) throws IOException {
-                PacketMEInventoryUpdate.this.data.writeByte(value);
+        final byte[] compressed = new byte[compressedLength];
+        stream.readBytes(compressed);
+
+        final byte[] uncompressed = new byte[length];
+        final Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                final int bytes = inflater.inflate(uncompressed, read, length - read);
+                if (bytes == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated inventory update");
+                }
+                read += bytes;
             }
-        });
+        } catch (final DataFormatException e) {
+            throw new IOException(e);
+        }
 
-        this.list = null;
+        return new PacketBuffer(Unpooled.wrappedBuffer(uncompressed));
     }
 
     @Override
@@ -153,6 +273,10 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
     @Nullable
     @Override
     public FMLProxyPacket getProxy() {
+        if (this.entries != null) {
+            return this.getCompactProxy(null);
+        }
+
         try {
             this.compressFrame.close();
 
@@ -165,7 +289,93 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
         return null;
     }
 
+    @Nullable
+    @Override
+    public FMLProxyPacket getProxy(final EntityPlayerMP player) {
+        if (this.entries != null) {
+            return this.getCompactProxy(player);
+        }
+
+        return this.getProxy();
+    }
+
+    /**
+     * The entries are compressed once and reused for every receiver, only the definitions a receiver is missing are
+     * compressed for it.
+     *
+     * @param player the receiver, or null to send every definition
+     */
+    private FMLProxyPacket getCompactProxy(@Nullable final EntityPlayerMP player) {
+        if (this.compressedEntries == null) {
+            final ByteBuf compressed = Unpooled.buffer(this.entries.readableBytes() / 2 + TEMP_BUFFER_SIZE);
+            deflate(this.entries, compressed);
+            this.compressedEntries = Arrays.copyOf(compressed.array(), compressed.readableBytes());
+        }
+
+        final ItemDictionary.Known known = player != null ? ItemDictionary.getKnown(player) : null;
+        final boolean reset = known != null && known.takeReset();
+
+        final List<Int2ObjectMap.Entry<byte[]>> missing = new ArrayList<>();
+        for (final Int2ObjectMap.Entry<byte[]> definition : this.definitions.int2ObjectEntrySet()) {
+            if (known == null || known.send(definition.getIntKey())) {
+                missing.add(definition);
+            }
+        }
+
+        final ByteBuf packet = Unpooled.buffer(this.compressedEntries.length + OPERATION_BYTE_LIMIT);
+        packet.writeInt(this.getPacketID());
+        packet.writeByte(this.ref);
+        packet.writeByte(FORMAT_COMPACT);
+        packet.writeBoolean(reset);
+
+        if (missing.isEmpty()) {
+            packet.writeInt(0);
+        } else {
+            final ByteBuf payload = PooledByteBufAllocator.DEFAULT.heapBuffer(OPERATION_BYTE_LIMIT);
+            try {
+                final PacketBuffer out = new PacketBuffer(payload);
+                out.writeVarInt(missing.size());
+                for (final Int2ObjectMap.Entry<byte[]> definition : missing) {
+                    out.writeVarInt(definition.getIntKey());
+                    out.writeBytes(definition.getValue());
+                }
+
+                packet.writeInt(payload.readableBytes());
+                final int lengthIndex = packet.writerIndex();
+                packet.writeInt(0);
+                deflate(payload, packet);
+                packet.setInt(lengthIndex, packet.writerIndex() - lengthIndex - 4);
+            } finally {
+                payload.release();
+            }
+        }
+
+        packet.writeInt(this.entries.readableBytes());
+        packet.writeBytes(this.compressedEntries);
+
+        this.configureWrite(packet);
+        return super.getProxy();
+    }
+
+    private static void deflate(final ByteBuf in, final ByteBuf out) {
+        final Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes());
+        deflater.finish();
+
+        while (!deflater.finished()) {
+            out.ensureWritable(TEMP_BUFFER_SIZE);
+            final int bytes = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes());
+            out.writerIndex(out.writerIndex() + bytes);
+        }
+    }
+
     public void appendItem(final IAEItemStack is) throws IOException, BufferOverflowException {
+        if (this.entries != null) {
+            this.appendCompact(is);
+            return;
+        }
+
         final ByteBuf tmp = Unpooled.buffer(OPERATION_BYTE_LIMIT);
         is.writeToPacket(tmp);
 
@@ -179,7 +389,39 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
         }
     }
 
+    private void appendCompact(final IAEItemStack is) throws BufferOverflowException {
+        final int definitionCount = this.definitions.size();
+        final int id = ItemDictionary.getId(is, this.definitions);
+        // counted as if the receiver did not know it yet
+        final int definitionBytes = this.definitions.size() > definitionCount ? this.definitions.get(id).length : 0;
+
+        final int start = this.entries.writerIndex();
+        this.entries.writeVarInt(id);
+        this.entries.writeByte((is.isCraftable() ? FLAG_CRAFTABLE : 0) | (is.getCountRequestable() != 0 ? FLAG_REQUESTABLE : 0));
+        this.entries.writeVarLong(is.getStackSize());
+        if (is.getCountRequestable() != 0) {
+            this.entries.writeVarLong(is.getCountRequestable());
+        }
+
+        final int bytes = this.entries.writerIndex() - start + definitionBytes;
+        if (this.writtenBytes + bytes > UNCOMPRESSED_PACKET_BYTE_LIMIT) {
+            this.entries.writerIndex(start);
+            if (definitionBytes > 0) {
+                this.definitions.remove(id);
+            }
+            throw new BufferOverflowException();
+        }
+
+        this.writtenBytes += bytes;
+        this.empty = false;
+        this.compressedEntries = null;
+    }
+
     public int getLength() {
+        if (this.entries != null) {
+            return this.entries.readableBytes();
+        }
+
         return this.data.readableBytes();
     }
 
@@ -24,6 +24,7 @@ import appeng.api.config.Settings;
 import appeng.api.util.IConfigManager;
 import appeng.api.util.IConfigurableObject;
 import appeng.client.gui.implementations.GuiCraftingCPU;
+import appeng.client.gui.implementations.GuiMEMonitorable;
 import appeng.client.gui.implementations.GuiOreDictStorageBus;
 import appeng.container.AEBaseContainer;
 import appeng.container.implementations.*;
@@ -108,6 +109,11 @@ public class PacketValueConfig extends AppEngPacket {
         } else if (this.Name.equals("Terminal.Start") && c instanceof ContainerCraftConfirm) {
             final ContainerCraftConfirm qk = (ContainerCraftConfirm) c;
             qk.startJob();
+        } else if (this.Name.equals("Terminal.Search") && c instanceof ContainerMEMonitorable) {
+            ((ContainerMEMonitorable) c).setPageSearch(this.Value);
+        } else if (this.Name.equals("Terminal.Viewport") && c instanceof ContainerMEMonitorable) {
+            final String[] viewport = this.Value.split(",");
+            ((ContainerMEMonitorable) c).setPageViewport(Integer.parseInt(viewport[0]), Integer.parseInt(viewport[1]));
         } else if (this.Name.equals("TileCrafting.Cancel") && c instanceof ContainerCraftingCPU) {
             final ContainerCraftingCPU qk = (ContainerCraftingCPU) c;
             qk.cancelCrafting();
@@ -237,6 +243,12 @@ public class PacketValueConfig extends AppEngPacket {
             if (gs instanceof GuiCraftingCPU) {
                 ((GuiCraftingCPU) gs).clearItems();
             }
+        } else if (this.Name.equals("Terminal.Page")) {
+            final GuiScreen gs = Minecraft.getMinecraft().currentScreen;
+            if (gs instanceof GuiMEMonitorable) {
+                final String[] page = this.Value.split(",");
+                ((GuiMEMonitorable) gs).setPage(Integer.parseInt(page[0]), Integer.parseInt(page[1]));
+            }
         } else if (this.Name.equals("OreDictStorageBus.sendRegex")) {
             final GuiScreen gs = Minecraft.getMinecraft().currentScreen;
             if (gs instanceof GuiOreDictStorageBus) {
@@ -0,0 +1,344 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.worlddata;
+
+
+import appeng.core.AELog;
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+
+/**
+ * An append-only file holding the data of every grid storage, indexed by storage id when it is opened.
+ * <p>
+ * Writing an entry appends a new record and points the index at it, the old record stays in the file as garbage until
+ * the file is compacted when it is closed. Every record carries a checksum, the file is cut off at the first record which
+ * is incomplete or does not match its checksum when it is opened again, like the end of a write interrupted by a crash.
+ * Entries which did not change since they were last read or written are not written again.
+ */
+final class GridStorageLog {
+    private static final int MAGIC = 0x41453247; // AE2G
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_CHECKSUMS = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte RECORD_DATA = 0;
+    private static final byte RECORD_REMOVE = 1;
+    private static final byte RECORD_COUNTER = 2;
+    private static final int RECORD_HEADER_SIZE = 1 + 8 + 4 + 4;
+    private static final int OLD_RECORD_HEADER_SIZE = 1 + 8 + 4;
+
+    /**
+     * Compacting only pays off when a noticeable part of the file is garbage.
+     */
+    private static final long MIN_GARBAGE_TO_COMPACT = 1024 * 1024;
+
+    private final File file;
+    private final Long2LongMap offsets = new Long2LongOpenHashMap();
+    private final Long2IntMap lengths = new Long2IntOpenHashMap();
+    private final Long2LongMap checksums = new Long2LongOpenHashMap();
+
+    private RandomAccessFile raf;
+    private long counter;
+    private long liveBytes;
+    private long garbageBytes;
+
+    GridStorageLog(@Nonnull final File file) {
+        Preconditions.checkNotNull(file);
+
+        this.file = file;
+        this.offsets.defaultReturnValue(-1);
+        this.checksums.defaultReturnValue(-1);
+    }
+
+    void open() throws IOException {
+        this.raf = new RandomAccessFile(this.file, "rw");
+
+        if (this.raf.length() < HEADER_SIZE) {
+            this.raf.setLength(0);
+            this.raf.writeInt(MAGIC);
+            this.raf.writeInt(VERSION);
+            return;
+        }
+
+        final int magic = this.raf.readInt();
+        final int version = this.raf.readInt();
+        if (magic != MAGIC || (version != VERSION && version != VERSION_WITHOUT_CHECKSUMS)) {
+            throw new IOException("Unknown grid storage file format: " + this.file.getAbsolutePath());
+        }
+
+        final boolean checked = version == VERSION;
+        final int headerSize = checked ? RECORD_HEADER_SIZE : OLD_RECORD_HEADER_SIZE;
+        final long length = this.raf.length();
+        long position = HEADER_SIZE;
+        while (position + headerSize <= length) {
+            this.raf.seek(position);
+            final byte type = this.raf.readByte();
+            final long id = this.raf.readLong();
+            final int size = this.raf.readInt();
+            final int checksum = checked ? this.raf.readInt() : 0;
+            final long payload = position + headerSize;
+
+            if (size < 0 || payload + size > length) {
+                break;
+            }
+
+            if (checked) {
+                final byte[] data = new byte[size];
+                this.raf.readFully(data);
+                if (recordChecksum(type, id, data) != checksum) {
+                    break;
+                }
+            }
+
+            if (type == RECORD_DATA) {
+                this.forget(id);
+                this.offsets.put(id, payload);
+                this.lengths.put(id, size);
+                this.liveBytes += headerSize + size;
+            } else if (type == RECORD_REMOVE) {
+                this.forget(id);
+                this.garbageBytes += headerSize;
+            } else if (type == RECORD_COUNTER) {
+                this.counter = Math.max(this.counter, id);
+                this.garbageBytes += headerSize;
+            } else {
+                break;
+            }
+
+            position = payload + size;
+        }
+
+        if (position != length) {
+            AELog.warn("Dropping %d bytes of incomplete or damaged grid storage data from %s", length - position, this.file.getAbsolutePath());
+            this.raf.setLength(position);
+        }
+
+        if (!checked) {
+            // rewritten with checksums, records of both kinds can not be mixed in one file
+            this.compact();
+            this.offsets.clear();
+            this.lengths.clear();
+            this.checksums.clear();
+            this.counter = 0;
+            this.liveBytes = 0;
+            this.garbageBytes = 0;
+            this.open();
+        }
+    }
+
+    boolean isEmpty() {
+        return this.offsets.isEmpty();
+    }
+
+    boolean contains(final long id) {
+        return this.offsets.containsKey(id);
+    }
+
+    /**
+     * @return the stored counter, which is never lower than any id stored
+     */
+    long getCounter() {
+        long next = this.counter;
+        for (final long id : this.offsets.keySet()) {
+            next = Math.max(next, id + 1);
+        }
+
+        return next;
+    }
+
+    @Nullable
+    byte[] read(final long id) throws IOException {
+        final long offset = this.offsets.get(id);
+        if (offset < 0) {
+            return null;
+        }
+
+        final byte[] data = new byte[this.lengths.get(id)];
+        this.checkOpen();
+        this.raf.seek(offset);
+        this.raf.readFully(data);
+        this.checksums.put(id, checksum(data));
+        return data;
+    }
+
+    /**
+     * Appends the data unless it is the same as the data last read or written for this id.
+     */
+    void write(final long id, @Nonnull final byte[] data) throws IOException {
+        final long checksum = checksum(data);
+        if (this.checksums.get(id) == checksum && this.lengths.get(id) == data.length && this.contains(id)) {
+            return;
+        }
+
+        final long payload = this.append(RECORD_DATA, id, data);
+        this.forget(id);
+        this.offsets.put(id, payload);
+        this.lengths.put(id, data.length);
+        this.checksums.put(id, checksum);
+        this.liveBytes += RECORD_HEADER_SIZE + data.length;
+    }
+
+    void remove(final long id) throws IOException {
+        if (this.contains(id)) {
+            this.append(RECORD_REMOVE, id, new byte[0]);
+            this.forget(id);
+            this.garbageBytes += RECORD_HEADER_SIZE;
+        }
+    }
+
+    void writeCounter(final long counter) throws IOException {
+        if (counter != this.counter) {
+            this.append(RECORD_COUNTER, counter, new byte[0]);
+            this.counter = counter;
+            this.garbageBytes += RECORD_HEADER_SIZE;
+        }
+    }
+
+    /**
+     * Forces everything written so far to the disk.
+     */
+    void sync() throws IOException {
+        this.raf.getFD().sync();
+    }
+
+    void close() throws IOException {
+        if (this.raf == null) {
+            return;
+        }
+
+        this.sync();
+        if (this.garbageBytes >= MIN_GARBAGE_TO_COMPACT && this.garbageBytes > this.liveBytes) {
+            this.compact();
+        } else {
+            this.raf.close();
+            this.raf = null;
+        }
+    }
+
+    /**
+     * Copies the current entries into a new file, which then replaces the old one. Closes the file.
+     */
+    private void compact() throws IOException {
+        final File compacted = new File(this.file.getPath() + ".tmp");
+
+        try (RandomAccessFile out = new RandomAccessFile(compacted, "rw")) {
+            out.setLength(0);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeRecord(out, RECORD_COUNTER, this.getCounter(), new byte[0]);
+
+            for (final Long2LongMap.Entry entry : this.offsets.long2LongEntrySet()) {
+                final byte[] data = new byte[this.lengths.get(entry.getLongKey())];
+                this.raf.seek(entry.getLongValue());
+                this.raf.readFully(data);
+                writeRecord(out, RECORD_DATA, entry.getLongKey(), data);
+            }
+
+            out.getFD().sync();
+        }
+
+        this.raf.close();
+        this.raf = null;
+
+        try {
+            Files.move(compacted.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(compacted.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private long append(final byte type, final long id, final byte[] data) throws IOException {
+        this.checkOpen();
+        final long position = this.raf.length();
+        this.raf.seek(position);
+        writeRecord(this.raf, type, id, data);
+        return position + RECORD_HEADER_SIZE;
+    }
+
+    private void checkOpen() throws IOException {
+        if (this.raf == null) {
+            throw new IOException("Grid storage file is closed: " + this.file.getAbsolutePath());
+        }
+    }
+
+    private void forget(final long id) {
+        if (this.offsets.containsKey(id)) {
+            final int size = this.lengths.remove(id);
+            this.offsets.remove(id);
+            this.checksums.remove(id);
+            this.liveBytes -= RECORD_HEADER_SIZE + size;
+            this.garbageBytes += RECORD_HEADER_SIZE + size;
+        }
+    }
+
+    private static void writeRecord(final RandomAccessFile out, final byte type, final long id, final byte[] data) throws IOException {
+        final byte[] record = new byte[RECORD_HEADER_SIZE + data.length];
+        record[0] = type;
+        for (int i = 0; i < 8; i++) {
+            record[1 + i] = (byte) (id >>> (56 - i * 8));
+        }
+        for (int i = 0; i < 4; i++) {
+            record[9 + i] = (byte) (data.length >>> (24 - i * 8));
+        }
+        final int checksum = recordChecksum(type, id, data);
+        for (int i = 0; i < 4; i++) {
+            record[13 + i] = (byte) (checksum >>> (24 - i * 8));
+        }
+        System.arraycopy(data, 0, record, RECORD_HEADER_SIZE, data.length);
+
+        // a single write, so a crash can only cut off the end of the last record
+        out.write(record);
+    }
+
+    /**
+     * @return the checksum stored with a record, covering its type, id, length and data
+     */
+    private static int recordChecksum(final byte type, final long id, final byte[] data) {
+        final CRC32 crc = new CRC32();
+        crc.update(type);
+        for (int i = 0; i < 8; i++) {
+            crc.update((int) (id >>> (56 - i * 8)));
+        }
+        for (int i = 0; i < 4; i++) {
+            crc.update(data.length >>> (24 - i * 8));
+        }
+        crc.update(data, 0, data.length);
+        return (int) crc.getValue();
+    }
+
+    private static long checksum(final byte[] data) {
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+}
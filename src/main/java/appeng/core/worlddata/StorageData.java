@@ -23,17 +23,23 @@ import appeng.core.AELog;
 import appeng.me.GridStorage;
 import appeng.me.GridStorageSearch;
 import com.google.common.base.Preconditions;
+import net.minecraftforge.common.config.ConfigCategory;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.common.config.Property;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.WeakHashMap;
 
 
 /**
+ * Grid storages are kept in their own {@link GridStorageLog}, older worlds kept them in the settings file, from where
+ * they are moved over once.
+ *
  * @author thatsIch
  * @version rv3 - 30.05.2015
  * @since rv3 30.05.2015
@@ -41,19 +47,21 @@ import java.util.WeakHashMap;
 final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOnWorldStoppable {
     private static final String LAST_GRID_STORAGE_CATEGORY = "Counters";
     private static final String LAST_GRID_STORAGE_KEY = "lastGridStorage";
-    private static final int LAST_GRID_STORAGE_DEFAULT = 0;
 
     private static final String GRID_STORAGE_CATEGORY = "gridstorage";
 
     private final Map<GridStorageSearch, WeakReference<GridStorageSearch>> loadedStorage = new WeakHashMap<>(10);
     private final Configuration config;
+    private final GridStorageLog log;
 
     private long lastGridStorage;
 
-    public StorageData(@Nonnull final Configuration settingsFile) {
+    public StorageData(@Nonnull final Configuration settingsFile, @Nonnull final File gridStorageFile) {
         Preconditions.checkNotNull(settingsFile);
+        Preconditions.checkNotNull(gridStorageFile);
 
         this.config = settingsFile;
+        this.log = new GridStorageLog(gridStorageFile);
     }
 
     /**
@@ -69,8 +77,13 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
         final WeakReference<GridStorageSearch> result = this.loadedStorage.get(gss);
 
         if (result == null || result.get() == null) {
-            final String id = String.valueOf(storageID);
-            final String data = this.config.get("gridstorage", id, "").getString();
+            byte[] data = null;
+            try {
+                data = this.log.read(storageID);
+            } catch (final IOException e) {
+                AELog.warn(e, "Failed to read grid storage " + storageID);
+            }
+
             final GridStorage thisStorage = new GridStorage(data, storageID, gss);
             gss.setGridStorage(new WeakReference<>(thisStorage));
             this.loadedStorage.put(gss, new WeakReference<>(gss));
@@ -99,14 +112,16 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
     public long nextGridStorage() {
         final long r = this.lastGridStorage;
         this.lastGridStorage++;
-        this.config.get("Counters", "lastGridStorage", this.lastGridStorage).set(Long.toString(this.lastGridStorage));
         return r;
     }
 
     @Override
     public void destroyGridStorage(final long id) {
-        final String stringID = String.valueOf(id);
-        this.config.getCategory("gridstorage").remove(stringID);
+        try {
+            this.log.remove(id);
+        } catch (final IOException e) {
+            AELog.warn(e, "Failed to remove grid storage " + id);
+        }
     }
 
     @Override
@@ -119,15 +134,68 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
 
     @Override
     public void onWorldStart() {
-        final String lastString = this.config.get(LAST_GRID_STORAGE_CATEGORY, LAST_GRID_STORAGE_KEY, LAST_GRID_STORAGE_DEFAULT).getString();
+        try {
+            this.log.open();
+        } catch (final IOException e) {
+            throw new IllegalStateException("Failed to open the grid storage file", e);
+        }
+
+        this.lastGridStorage = this.log.getCounter();
+
+        final ConfigCategory counters = this.config.getCategory(LAST_GRID_STORAGE_CATEGORY);
+        if (counters.containsKey(LAST_GRID_STORAGE_KEY)) {
+            final String lastString = counters.get(LAST_GRID_STORAGE_KEY).getString();
+
+            try {
+                this.lastGridStorage = Math.max(this.lastGridStorage, Long.parseLong(lastString));
+            } catch (final NumberFormatException err) {
+                AELog.warn("The config contained a value which was not represented as a Long: %s", lastString);
+            }
+        }
+
+        if (this.config.hasCategory(GRID_STORAGE_CATEGORY)) {
+            this.migrateConfigStorage();
+        }
+    }
+
+    /**
+     * Moves the grid storages kept as Base64 strings in the settings file of older worlds into the grid storage file.
+     */
+    private void migrateConfigStorage() {
+        final ConfigCategory category = this.config.getCategory(GRID_STORAGE_CATEGORY);
+        int migrated = 0;
 
         try {
-            this.lastGridStorage = Long.parseLong(lastString);
-        } catch (final NumberFormatException err) {
-            AELog.warn("The config contained a value which was not represented as a Long: %s", lastString);
+            for (final Map.Entry<String, Property> entry : category.entrySet()) {
+                final long id;
+                try {
+                    id = Long.parseLong(entry.getKey());
+                } catch (final NumberFormatException err) {
+                    AELog.warn("Skipping grid storage with an invalid id: %s", entry.getKey());
+                    continue;
+                }
+
+                final byte[] data = javax.xml.bind.DatatypeConverter.parseBase64Binary(entry.getValue().getString());
+                if (data.length > 0 && !this.log.contains(id)) {
+                    this.log.write(id, data);
+                    this.lastGridStorage = Math.max(this.lastGridStorage, id + 1);
+                    migrated++;
+                }
+            }
 
-            this.lastGridStorage = 0;
+            this.log.writeCounter(this.lastGridStorage);
+            this.log.sync();
+        } catch (final IOException e) {
+            AELog.error(e, "Failed to move grid storages out of the settings file, they are kept there");
+            return;
         }
+
+        // only forget the old data once it is safely written
+        this.config.removeCategory(category);
+        this.config.getCategory(LAST_GRID_STORAGE_CATEGORY).remove(LAST_GRID_STORAGE_KEY);
+        this.config.save();
+
+        AELog.info("Moved %d grid storages out of the settings file", migrated);
     }
 
     @Override
@@ -136,11 +204,26 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
         for (final GridStorageSearch gs : this.loadedStorage.keySet()) {
             final GridStorage thisStorage = gs.getGridStorage().get();
             if (thisStorage != null && thisStorage.getGrid() != null && !thisStorage.getGrid().isEmpty()) {
-                final String value = thisStorage.getValue();
-                this.config.get(GRID_STORAGE_CATEGORY, String.valueOf(thisStorage.getID()), value).set(value);
+                final byte[] value = thisStorage.getValue();
+                if (value == null) {
+                    continue;
+                }
+
+                try {
+                    this.log.write(thisStorage.getID(), value);
+                } catch (final IOException e) {
+                    AELog.error(e, "Failed to write grid storage " + thisStorage.getID());
+                }
             }
         }
 
+        try {
+            this.log.writeCounter(this.lastGridStorage);
+            this.log.close();
+        } catch (final IOException e) {
+            AELog.error(e, "Failed to write the grid storage file");
+        }
+
         this.config.save();
     }
 }
@@ -49,6 +49,7 @@ import java.util.concurrent.ThreadFactory;
 public final class WorldData implements IWorldData {
     private static final String AE2_DIRECTORY_NAME = "AE2";
     private static final String SETTING_FILE_NAME = "settings.cfg";
+    private static final String GRID_STORAGE_FILE_NAME = "gridstorage.dat";
     private static final String SPAWNDATA_DIR_NAME = "spawndata";
     private static final String COMPASS_DIR_NAME = "compass";
 
@@ -81,7 +82,7 @@ public final class WorldData implements IWorldData {
         this.sharedConfig = new Configuration(settingsFile, AEConfig.VERSION);
 
         final PlayerData playerData = new PlayerData(this.sharedConfig);
-        final StorageData storageData = new StorageData(this.sharedConfig);
+        final StorageData storageData = new StorageData(this.sharedConfig, new File(this.ae2directory, GRID_STORAGE_FILE_NAME));
 
         final ThreadFactory compassThreadFactory = new CompassThreadFactory();
         final CompassService compassService = new CompassService(this.compassDirectory, compassThreadFactory);
@@ -0,0 +1,65 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.crafting;
+
+
+import appeng.api.storage.data.IAEItemStack;
+import net.minecraft.item.Item;
+
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * Records which items a subtree planned on its own inventory copy depended on and which it changed.
+ *
+ * Observed items are those where the exact amount mattered: simulated extractions, extractions which came up short and
+ * direct list lookups. Taking the full amount or inserting only changes an item, if that conflicts with a sibling it
+ * shows up when the copies are committed. Items are compared without damage or NBT, which is coarse but safe.
+ */
+final class CraftingFootprint {
+
+    private final Set<Item> observed = new HashSet<>();
+    private final Set<Item> changed = new HashSet<>();
+
+    void observe(final IAEItemStack stack) {
+        this.observed.add(stack.getItem());
+    }
+
+    void change(final IAEItemStack stack) {
+        this.changed.add(stack.getItem());
+    }
+
+    /**
+     * @return true if planning the other subtree first could have changed the result of this one
+     */
+    boolean dependsOn(final CraftingFootprint other) {
+        for (final Item item : this.observed) {
+            if (other.changed.contains(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void addAll(final CraftingFootprint other) {
+        this.observed.addAll(other.observed);
+        this.changed.addAll(other.changed);
+    }
+}
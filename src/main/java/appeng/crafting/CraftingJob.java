@@ -37,20 +37,30 @@ import appeng.api.storage.data.IItemList;
 import appeng.api.util.DimensionalCoord;
 import appeng.core.AELog;
 import appeng.hooks.TickHandler;
+import appeng.me.cache.CraftingGridCache;
 import appeng.me.cache.GridStorageCache;
+import appeng.me.cache.NetworkMonitor;
+import appeng.me.cache.helpers.StorageSnapshot;
 import com.google.common.base.Stopwatch;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.world.World;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
 
 
 public class CraftingJob implements Runnable, ICraftingJob {
     private static final String LOG_CRAFTING_JOB = "CraftingJob (%s) issued by %s requesting [%s] using %s bytes took %s us";
     private static final String LOG_MACHINE_SOURCE_DETAILS = "Machine[object=%s, %s]";
+    // how often a calculation starts over when the network lost items it planned with
+    private static final int MAX_REBASES = 2;
 
-    private final MECraftingInventory original;
+    private final StorageSnapshot<IAEItemStack> snapshot;
+    private MECraftingInventory original;
     private final World world;
     private final IItemList<IAEItemStack> crafting = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
     private final IItemList<IAEItemStack> missing = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
@@ -64,6 +74,9 @@ public class CraftingJob implements Runnable, ICraftingJob {
     private final IAEItemStack output;
     private boolean simulate = false;
     private MECraftingInventory availableCheck;
+    // the copy of availableCheck a subtree planned in parallel works on, see CraftingTreeProcess
+    private final ThreadLocal<MECraftingInventory> availableCheckFork = new ThreadLocal<>();
+    private volatile boolean cancelled = false;
     private long bytes = 0;
     private final IActionSource actionSrc;
     private final ICraftingCallback callback;
@@ -85,26 +98,88 @@ public class CraftingJob implements Runnable, ICraftingJob {
 
         this.cc = grid.getCache(ICraftingGrid.class);
         final GridStorageCache sg = grid.getCache(IStorageGrid.class);
-        this.original = new MECraftingInventory(sg.getInventory(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class)).getStorageList());
+        this.snapshot = ((NetworkMonitor<IAEItemStack>) sg.getInventory(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class))).openSnapshot();
+        this.original = new MECraftingInventory(this.snapshot.getList());
 
         this.setTree(this.getCraftingTree(cc, what));
         this.availableCheck = null;
     }
 
     private CraftingTreeNode getCraftingTree(final ICraftingGrid cc, final IAEItemStack what) {
+        if (cc instanceof CraftingGridCache) {
+            final CraftingPlanTemplate template = ((CraftingGridCache) cc).getPlanTemplate(what);
+            return new CraftingTreeNode(cc, this, what, null, -1, 0, template.getRoot());
+        }
+
         return new CraftingTreeNode(cc, this, what, null, -1, 0);
     }
 
     void refund(final IAEItemStack o) {
-        this.availableCheck.injectItems(o, Actionable.MODULATE, this.actionSrc);
+        this.getAvailableCheck().injectItems(o, Actionable.MODULATE, this.actionSrc);
     }
 
     IAEItemStack checkUse(final IAEItemStack available) {
-        return this.availableCheck.extractItems(available, Actionable.MODULATE, this.actionSrc);
+        return this.getAvailableCheck().extractItems(available, Actionable.MODULATE, this.actionSrc);
     }
 
     IAEItemStack checkAvailable(final IAEItemStack available) {
-        return this.availableCheck.extractItems(available, Actionable.SIMULATE, this.actionSrc);
+        return this.getAvailableCheck().extractItems(available, Actionable.SIMULATE, this.actionSrc);
+    }
+
+    MECraftingInventory getAvailableCheck() {
+        final MECraftingInventory fork = this.availableCheckFork.get();
+        return fork != null ? fork : this.availableCheck;
+    }
+
+    /**
+     * Redirects the availability checks of the current thread to the given copy.
+     *
+     * @return the previous copy, to be passed to {@link #leaveFork(MECraftingInventory)}
+     */
+    MECraftingInventory enterFork(final MECraftingInventory fork) {
+        final MECraftingInventory previous = this.availableCheckFork.get();
+        this.availableCheckFork.set(fork);
+        return previous;
+    }
+
+    void leaveFork(final MECraftingInventory previous) {
+        if (previous == null) {
+            this.availableCheckFork.remove();
+        } else {
+            this.availableCheckFork.set(previous);
+        }
+    }
+
+    /**
+     * Jobs which are spread over server ticks pause on their own thread, so only the others plan in parallel.
+     */
+    boolean canPlanInParallel() {
+        return CraftingGridCache.getPlanningPool() != null && this.actionSrc.player().isPresent();
+    }
+
+    void planInParallel(final Collection<? extends ForkJoinTask<?>> tasks) throws InterruptedException {
+        if (ForkJoinTask.inForkJoinPool()) {
+            ForkJoinTask.invokeAll(tasks);
+            return;
+        }
+
+        final ForkJoinPool pool = CraftingGridCache.getPlanningPool();
+        final ForkJoinTask<?> all = pool.submit(() -> {
+            ForkJoinTask.invokeAll(tasks);
+        });
+
+        try {
+            all.get();
+        } catch (final InterruptedException e) {
+            // the subtrees notice this in handlePausing
+            this.cancelled = true;
+            throw e;
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
     }
 
     void addTask(IAEItemStack what, final long crafts, final ICraftingPatternDetails details, final int depth) {
@@ -127,13 +202,28 @@ public class CraftingJob implements Runnable, ICraftingJob {
                 TickHandler.INSTANCE.registerCraftingSimulation(this.world, this);
                 this.handlePausing();
 
-                final MECraftingInventory craftingInventory = new MECraftingInventory(this.original, true, false, true);
-                craftingInventory.ignore(this.output);
+                for (int rebases = 0; ; rebases++) {
+                    final MECraftingInventory craftingInventory = new MECraftingInventory(this.original, true, false, true);
+                    craftingInventory.ignore(this.output);
+
+                    this.availableCheck = new MECraftingInventory(this.original, false, false, false);
+                    craftingTreeWatch.start();
+                    this.getTree().request(craftingInventory, this.output.getStackSize(), this.actionSrc);
+                    craftingTreeWatch.stop();
 
-                this.availableCheck = new MECraftingInventory(this.original, false, false, false);
-                craftingTreeWatch.start();
-                this.getTree().request(craftingInventory, this.output.getStackSize(), this.actionSrc);
-                craftingTreeWatch.stop();
+                    if (!this.isStale()) {
+                        break;
+                    }
+
+                    if (rebases == MAX_REBASES || this.snapshot.isInvalid()) {
+                        // the plan may use items which are gone, it can be looked at but not started
+                        AELog.crafting("Crafting calculation for %s is outdated, the network contents changed too much.", this.output);
+                        this.simulate = true;
+                        break;
+                    }
+
+                    this.rebase();
+                }
                 this.getTree().dive(this);
 
                 for (final String s : this.opsAndMultiplier.keySet()) {
@@ -196,6 +286,49 @@ public class CraftingJob implements Runnable, ICraftingJob {
         this.finish();
     }
 
+    /**
+     * @return true if the network no longer holds the items the plan takes from it
+     */
+    private boolean isStale() {
+        if (this.snapshot.isInvalid()) {
+            return true;
+        }
+
+        for (final IAEItemStack left : this.availableCheck.getTouchedItems()) {
+            final IAEItemStack start = this.original.getItemList().findPrecise(left);
+            final long used = (start == null ? 0 : start.getStackSize()) - left.getStackSize();
+
+            if (used > 0) {
+                final IAEItemStack stored = this.snapshot.findStored(left);
+                if ((stored == null ? 0 : stored.getStackSize()) + this.snapshot.getChange(left) < used) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Starts over on the snapshot with the changes the network recorded since it was taken.
+     */
+    private void rebase() {
+        this.original = new MECraftingInventory(this.snapshot.getList());
+
+        final IItemList<IAEItemStack> changes = this.snapshot.copyChanges(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList());
+        for (final IAEItemStack change : changes) {
+            if (change.getStackSize() > 0) {
+                this.original.injectItems(change, Actionable.MODULATE, this.actionSrc);
+            } else {
+                final IAEItemStack gone = change.copy();
+                gone.setStackSize(-change.getStackSize());
+                this.original.extractItems(gone, Actionable.MODULATE, this.actionSrc);
+            }
+        }
+
+        this.setTree(this.getCraftingTree(this.cc, this.output));
+    }
+
     void handlePausing() throws InterruptedException {
         if (!this.actionSrc.player().isPresent() && this.incTime > 100) {
             this.incTime = 0;
@@ -219,7 +352,7 @@ public class CraftingJob implements Runnable, ICraftingJob {
             }
         }
 
-        if (Thread.interrupted()) {
+        if (Thread.interrupted() || this.cancelled) {
             throw new InterruptedException();
         }
 
@@ -232,6 +365,7 @@ public class CraftingJob implements Runnable, ICraftingJob {
         }
 
         this.availableCheck = null;
+        this.snapshot.release();
 
         synchronized (this.monitor) {
             this.running = false;
@@ -0,0 +1,135 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.crafting;
+
+
+import appeng.api.networking.crafting.ICraftingPatternDetails;
+import appeng.api.storage.data.IAEItemStack;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+
+import java.util.List;
+
+
+/**
+ * The structure of a crafting tree for one output: which patterns can make each node and which inputs each pattern
+ * needs per craft. None of it depends on what is in storage, so jobs for the same output reuse it while the patterns of
+ * the network stay the same, and only the requests against storage are planned again.
+ *
+ * The structure is filled in lazily by the jobs walking it, possibly from several threads at once. Each part is
+ * published once, whoever comes second uses the published version.
+ */
+public class CraftingPlanTemplate {
+
+    private final int patternVersion;
+    private final Node root = new Node();
+
+    public CraftingPlanTemplate(final int patternVersion) {
+        this.patternVersion = patternVersion;
+    }
+
+    public int getPatternVersion() {
+        return this.patternVersion;
+    }
+
+    public Node getRoot() {
+        return this.root;
+    }
+
+    public static final class Node {
+
+        private volatile Process[] processes;
+
+        Process[] getProcesses() {
+            return this.processes;
+        }
+
+        synchronized Process[] setProcesses(final List<ICraftingPatternDetails> details) {
+            if (this.processes == null) {
+                final Process[] processes = new Process[details.size()];
+                for (int x = 0; x < processes.length; x++) {
+                    processes[x] = new Process(details.get(x));
+                }
+                this.processes = processes;
+            }
+
+            return this.processes;
+        }
+    }
+
+    public static final class Process {
+
+        private final ICraftingPatternDetails details;
+        private volatile Input[] inputs;
+
+        private Process(final ICraftingPatternDetails details) {
+            this.details = details;
+        }
+
+        ICraftingPatternDetails getDetails() {
+            return this.details;
+        }
+
+        Input[] getInputs() {
+            return this.inputs;
+        }
+
+        synchronized Input[] setInputs(final Object2LongMap<CraftingTreeNode> nodes) {
+            if (this.inputs == null) {
+                final Input[] inputs = new Input[nodes.size()];
+                int x = 0;
+                for (final Object2LongMap.Entry<CraftingTreeNode> entry : nodes.object2LongEntrySet()) {
+                    inputs[x++] = new Input(entry.getKey().getStack(entry.getLongValue()), entry.getKey().getSlot(), entry.getLongValue());
+                }
+                this.inputs = inputs;
+            }
+
+            return this.inputs;
+        }
+    }
+
+    public static final class Input {
+
+        private final IAEItemStack stack;
+        private final int slot;
+        private final long amount;
+        private final Node node = new Node();
+
+        private Input(final IAEItemStack stack, final int slot, final long amount) {
+            this.stack = stack;
+            this.slot = slot;
+            this.amount = amount;
+        }
+
+        IAEItemStack getStack() {
+            return this.stack.copy();
+        }
+
+        int getSlot() {
+            return this.slot;
+        }
+
+        long getAmount() {
+            return this.amount;
+        }
+
+        Node getNode() {
+            return this.node;
+        }
+    }
+}
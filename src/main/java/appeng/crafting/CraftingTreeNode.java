@@ -56,6 +56,8 @@ public class CraftingTreeNode {
     private final ArrayList<CraftingTreeProcess> nodes = new ArrayList<>();
     private final ICraftingGrid cc;
     private final int depth;
+    // shared structure of this node, null if it is discovered by this job alone
+    private final CraftingPlanTemplate.Node template;
     private int bytes = 0;
     private boolean canEmit = false;
     private long missing = 0;
@@ -63,6 +65,11 @@ public class CraftingTreeNode {
     private boolean exhausted = false;
 
     public CraftingTreeNode(final ICraftingGrid cc, final CraftingJob job, final IAEItemStack wat, final CraftingTreeProcess par, final int slot, final int depth) {
+        this(cc, job, wat, par, slot, depth, null);
+    }
+
+    CraftingTreeNode(final ICraftingGrid cc, final CraftingJob job, final IAEItemStack wat, final CraftingTreeProcess par, final int slot, final int depth, final CraftingPlanTemplate.Node template) {
+        this.template = template;
         this.what = wat;
         this.parent = par;
         this.slot = slot;
@@ -83,13 +90,39 @@ public class CraftingTreeNode {
             return; // if you can emit for something, you can't make it with patterns.
         }
 
+        if (this.template != null) {
+            for (final CraftingPlanTemplate.Process process : this.getProcessTemplates()) {
+                this.nodes.add(new CraftingTreeProcess(cc, job, process.getDetails(), this, depth + 1, process));
+            }
+            return;
+        }
+
+        for (final ICraftingPatternDetails details : this.getUsableDetails()) {
+            this.nodes.add(new CraftingTreeProcess(cc, job, details, this, depth + 1));
+        }
+    }
+
+    private CraftingPlanTemplate.Process[] getProcessTemplates() {
+        final CraftingPlanTemplate.Process[] processes = this.template.getProcesses();
+        if (processes != null) {
+            return processes;
+        }
+
+        return this.template.setProcesses(this.getUsableDetails());
+    }
+
+    private List<ICraftingPatternDetails> getUsableDetails() {
+        final List<ICraftingPatternDetails> usable = new ArrayList<>();
+
         for (final ICraftingPatternDetails details : cc.getCraftingFor(this.what, this.parent == null ? null : this.parent.details, slot, this.world))// in
         // order.
         {
             if (this.parent == null || notRecursive(details) && this.parent.details != details) {
-                this.nodes.add(new CraftingTreeProcess(cc, job, details, this, depth + 1));
+                usable.add(details);
             }
         }
+
+        return usable;
     }
 
     IAEItemStack request(final MECraftingInventory inv, long l, final IActionSource src) throws CraftBranchFailure, InterruptedException {
@@ -117,6 +150,7 @@ public class CraftingTreeNode {
 
             if (this.parent.details.canSubstitute()) {
                 for (IAEItemStack subs : this.parent.details.getSubstituteInputs(this.slot)) {
+                    inv.observe(subs);
                     if (damageableItem) {
                         itemList.addAll(inventoryList.findFuzzy(subs, FuzzyMode.IGNORE_ALL));
                     }
@@ -126,6 +160,7 @@ public class CraftingTreeNode {
                     }
                 }
             } else {
+                inv.observe(this.what);
                 if (damageableItem) {
                     itemList.addAll(inventoryList.findFuzzy(this.what, FuzzyMode.IGNORE_ALL));
                 } else {
@@ -255,6 +290,13 @@ public class CraftingTreeNode {
         throw new CraftBranchFailure(this.what, l);
     }
 
+    /**
+     * @return a node for the same request which has not been planned yet
+     */
+    CraftingTreeNode copyUnplanned() {
+        return new CraftingTreeNode(this.cc, this.job, this.what.copy(), this.parent, this.slot, this.depth, this.template);
+    }
+
     boolean notRecursive(ICraftingPatternDetails details) {
         if (this.parent == null) {
             return true;
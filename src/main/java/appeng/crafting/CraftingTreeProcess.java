@@ -37,9 +37,13 @@ import net.minecraft.world.World;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.RecursiveAction;
 
 
 public class CraftingTreeProcess {
+    // deeper subtrees are usually too small to be worth copying the inventory for
+    private static final int PARALLEL_DEPTH = 6;
+
     private final CraftingTreeNode parent;
     final ICraftingPatternDetails details;
     private final CraftingJob job;
@@ -47,11 +51,19 @@ public class CraftingTreeProcess {
     private final int depth;
     private final ICraftingGrid cc;
     private final World world;
+    // shared structure of this process, null if it is discovered by this job alone
+    private final CraftingPlanTemplate.Process template;
     boolean possible = true;
+    private boolean requested = false;
     private long crafts = 0;
     private long bytes = 0;
 
     public CraftingTreeProcess(final ICraftingGrid cc, final CraftingJob job, final ICraftingPatternDetails details, final CraftingTreeNode craftingTreeNode, final int depth) {
+        this(cc, job, details, craftingTreeNode, depth, null);
+    }
+
+    CraftingTreeProcess(final ICraftingGrid cc, final CraftingJob job, final ICraftingPatternDetails details, final CraftingTreeNode craftingTreeNode, final int depth, final CraftingPlanTemplate.Process template) {
+        this.template = template;
         this.parent = craftingTreeNode;
         this.details = details;
         this.job = job;
@@ -65,6 +77,11 @@ public class CraftingTreeProcess {
             return;
         }
 
+        if (this.template != null && this.template.getInputs() != null) {
+            this.addInputs(this.template.getInputs());
+            return;
+        }
+
         final IAEItemStack[] list = details.getInputs();
 
         // this is minor different then below, this slot uses the pattern, but kinda fudges it.
@@ -178,6 +195,19 @@ public class CraftingTreeProcess {
                 }
             }
         }
+
+        // with substitutes the inputs depend on what is in storage, so they cannot be shared.
+        if (this.template != null && !AEConfig.instance().getEnableCraftingSubstitutes()) {
+            this.addInputs(this.template.setInputs(this.nodes));
+        }
+    }
+
+    private void addInputs(final CraftingPlanTemplate.Input[] inputs) {
+        this.nodes.clear();
+
+        for (final CraftingPlanTemplate.Input input : inputs) {
+            this.nodes.put(new CraftingTreeNode(cc, job, input.getStack(), this, input.getSlot(), depth + 1, input.getNode()), input.getAmount());
+        }
     }
 
     boolean notRecursive(ICraftingPatternDetails details) {
@@ -201,9 +231,9 @@ public class CraftingTreeProcess {
         List<IAEItemStack> containerItems = null;
 
         // request and remove inputs...
-        for (final Entry<CraftingTreeNode, Long> entry : this.nodes.object2LongEntrySet()) {
-            final IAEItemStack stack = entry.getKey().request(inv, entry.getValue() * amountOfTimes, src);
+        final IAEItemStack[] requested = this.requestInputs(inv, amountOfTimes, src);
 
+        for (final IAEItemStack stack : requested) {
             if (this.details.isCraftable() && stack.getItem().hasContainerItem(stack.getDefinition())) {
                 final ItemStack is = Platform.getContainerItem(stack.createItemStack());
                 final IAEItemStack o = AEItemStack.fromItemStack(is);
@@ -235,6 +265,88 @@ public class CraftingTreeProcess {
         this.crafts += amountOfTimes;
     }
 
+    private IAEItemStack[] requestInputs(final MECraftingInventory inv, final long amountOfTimes, final IActionSource src) throws CraftBranchFailure, InterruptedException {
+        final IAEItemStack[] requested = new IAEItemStack[this.nodes.size()];
+        final boolean firstRequest = !this.requested;
+        this.requested = true;
+
+        if (firstRequest && this.nodes.size() > 1 && this.depth <= PARALLEL_DEPTH && this.job.canPlanInParallel()) {
+            if (this.requestInParallel(inv, amountOfTimes, src, requested)) {
+                return requested;
+            }
+        }
+
+        int x = 0;
+        for (final Entry<CraftingTreeNode, Long> entry : this.nodes.object2LongEntrySet()) {
+            requested[x++] = entry.getKey().request(inv, entry.getValue() * amountOfTimes, src);
+        }
+
+        return requested;
+    }
+
+    /**
+     * Plans the inputs on copies of the inventories at the same time. The result is only kept if no input depended on
+     * an item another one changed and all copies commit in order, which is exactly what planning them one after the
+     * other would have produced. Otherwise the inputs are replaced by unplanned ones and the caller plans them in
+     * order.
+     *
+     * @return true if the inputs were planned
+     */
+    private boolean requestInParallel(final MECraftingInventory inv, final long amountOfTimes, final IActionSource src, final IAEItemStack[] requested) throws InterruptedException {
+        final MECraftingInventory staging = new MECraftingInventory(inv, true, true, true);
+        final MECraftingInventory stagingCheck = new MECraftingInventory(this.job.getAvailableCheck(), true, true, false);
+
+        final List<CraftingTreeNode> unplanned = new ArrayList<>(this.nodes.size());
+        final List<SubtreeTask> tasks = new ArrayList<>(this.nodes.size());
+        for (final Entry<CraftingTreeNode, Long> entry : this.nodes.object2LongEntrySet()) {
+            unplanned.add(entry.getKey().copyUnplanned());
+            tasks.add(new SubtreeTask(this.job, entry.getKey(), entry.getValue() * amountOfTimes, staging, stagingCheck, src));
+        }
+
+        this.job.planInParallel(tasks);
+
+        boolean independent = true;
+        for (int x = 0; x < tasks.size() && independent; x++) {
+            final SubtreeTask task = tasks.get(x);
+
+            if (task.failure instanceof InterruptedException) {
+                throw (InterruptedException) task.failure;
+            }
+
+            independent = task.failure == null;
+            for (int y = 0; y < tasks.size() && independent; y++) {
+                independent = x == y || !task.footprint.dependsOn(tasks.get(y).footprint);
+            }
+        }
+
+        if (independent) {
+            for (final SubtreeTask task : tasks) {
+                if (!task.inventory.commit(src, false) || !task.availableCheck.commit(src, false)) {
+                    independent = false;
+                    break;
+                }
+            }
+        }
+
+        if (independent && staging.commit(src, false) && stagingCheck.commit(src, false)) {
+            final CraftingFootprint footprint = inv.getFootprint();
+            for (int x = 0; x < tasks.size(); x++) {
+                requested[x] = tasks.get(x).result;
+                if (footprint != null) {
+                    footprint.addAll(tasks.get(x).footprint);
+                }
+            }
+            return true;
+        }
+
+        final long[] amounts = this.nodes.values().toLongArray();
+        this.nodes.clear();
+        for (int x = 0; x < unplanned.size(); x++) {
+            this.nodes.put(unplanned.get(x), amounts[x]);
+        }
+        return false;
+    }
+
     void dive(final CraftingJob job) {
         job.addTask(this.getAmountCrafted(this.parent.getStack(1)), this.crafts, this.details, this.depth);
         for (final Entry<CraftingTreeNode, Long> entry : this.nodes.object2LongEntrySet()) {
@@ -293,4 +405,39 @@ public class CraftingTreeProcess {
             entry.getKey().getPlan(plan);
         }
     }
+
+    private static final class SubtreeTask extends RecursiveAction {
+        private final CraftingJob job;
+        private final CraftingTreeNode node;
+        private final long amount;
+        private final IActionSource src;
+        private final CraftingFootprint footprint = new CraftingFootprint();
+        private final MECraftingInventory inventory;
+        private final MECraftingInventory availableCheck;
+        private IAEItemStack result;
+        private Exception failure;
+
+        private SubtreeTask(final CraftingJob job, final CraftingTreeNode node, final long amount, final MECraftingInventory staging, final MECraftingInventory stagingCheck, final IActionSource src) {
+            this.job = job;
+            this.node = node;
+            this.amount = amount;
+            this.src = src;
+            this.inventory = new MECraftingInventory(staging, true, true, true);
+            this.inventory.setFootprint(this.footprint);
+            this.availableCheck = new MECraftingInventory(stagingCheck, true, true, false);
+            this.availableCheck.setFootprint(this.footprint);
+        }
+
+        @Override
+        protected void compute() {
+            final MECraftingInventory previous = this.job.enterFork(this.availableCheck);
+            try {
+                this.result = this.node.request(this.inventory, this.amount, this.src);
+            } catch (final CraftBranchFailure | InterruptedException e) {
+                this.failure = e;
+            } finally {
+                this.job.leaveFork(previous);
+            }
+        }
+    }
 }
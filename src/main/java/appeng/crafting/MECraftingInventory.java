@@ -31,6 +31,7 @@ import appeng.api.storage.data.IItemList;
 import appeng.core.sync.network.NetworkHandler;
 import appeng.core.sync.packets.PacketInformPlayer;
 import appeng.util.inv.ItemListIgnoreCrafting;
+import appeng.util.inv.ItemListOverlay;
 import net.minecraft.entity.player.EntityPlayerMP;
 
 import java.io.IOException;
@@ -52,6 +53,9 @@ public class MECraftingInventory implements IMEInventory<IAEItemStack> {
     private final boolean logMissing;
     private final IItemList<IAEItemStack> missingCache;
 
+    // set while a subtree is planned on this inventory in parallel to its siblings
+    private CraftingFootprint footprint;
+
     public MECraftingInventory() {
         this.localCache = new ItemListIgnoreCrafting<>(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList());
         this.extractedCache = null;
@@ -88,9 +92,10 @@ public class MECraftingInventory implements IMEInventory<IAEItemStack> {
             this.injectedCache = null;
         }
 
-        this.localCache = this.target.getAvailableItems(new ItemListIgnoreCrafting<>(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList()));
+        this.localCache = new ItemListOverlay<>(parent.localCache, new ItemListIgnoreCrafting<>(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList()));
 
         this.par = parent;
+        this.footprint = parent.footprint;
     }
 
     public MECraftingInventory(final IMEMonitor<IAEItemStack> target, final IActionSource src, final boolean logExtracted, final boolean logInjections, final boolean logMissing) {
@@ -149,12 +154,23 @@ public class MECraftingInventory implements IMEInventory<IAEItemStack> {
             this.injectedCache = null;
         }
 
-        this.localCache = target.getAvailableItems(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList());
         this.par = null;
+
+        if (target instanceof MECraftingInventory) {
+            // reads through to the other copy instead of copying all of it
+            this.localCache = new ItemListOverlay<>(((MECraftingInventory) target).localCache, AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList());
+            this.footprint = ((MECraftingInventory) target).footprint;
+        } else {
+            this.localCache = target.getAvailableItems(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList());
+        }
     }
 
+    /**
+     * @param itemList the stacks to start with, read through to without copying them, so it must not change while the
+     *                 inventory is in use
+     */
     public MECraftingInventory(final IItemList<IAEItemStack> itemList) {
-        this.localCache = new ItemListIgnoreCrafting<>(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList());
+        this.localCache = new ItemListOverlay<>(itemList, new ItemListIgnoreCrafting<>(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList()));
         this.target = null;
         this.logExtracted = false;
         this.logInjections = false;
@@ -162,11 +178,6 @@ public class MECraftingInventory implements IMEInventory<IAEItemStack> {
         this.missingCache = null;
         this.extractedCache = null;
         this.injectedCache = null;
-
-        for (IAEItemStack iaeItemStack : itemList) {
-            this.localCache.add(iaeItemStack);
-        }
-
         this.par = null;
     }
 
@@ -180,6 +191,9 @@ public class MECraftingInventory implements IMEInventory<IAEItemStack> {
             if (this.logInjections) {
                 this.injectedCache.add(input);
             }
+            if (this.footprint != null) {
+                this.footprint.change(input);
+            }
             this.localCache.add(input);
         }
 
@@ -193,6 +207,15 @@ public class MECraftingInventory implements IMEInventory<IAEItemStack> {
         }
 
         final IAEItemStack list = this.localCache.findPrecise(request);
+
+        if (this.footprint != null) {
+            if (mode == Actionable.MODULATE && list != null && list.getStackSize() >= request.getStackSize()) {
+                this.footprint.change(request);
+            } else {
+                this.footprint.observe(request);
+            }
+        }
+
         if (list == null || list.getStackSize() == 0) {
             return null;
         }
@@ -239,7 +262,43 @@ public class MECraftingInventory implements IMEInventory<IAEItemStack> {
         return this.localCache;
     }
 
+    /**
+     * @return the stacks which were looked up or changed since the inventory was created on top of another one, all of
+     * them if it was not
+     */
+    Iterable<IAEItemStack> getTouchedItems() {
+        if (this.localCache instanceof ItemListOverlay) {
+            return ((ItemListOverlay<IAEItemStack>) this.localCache).getLocal();
+        }
+
+        return this.localCache;
+    }
+
+    /**
+     * Has to be called before looking up the stack in {@link #getItemList()} while planning in parallel.
+     */
+    void observe(final IAEItemStack what) {
+        if (this.footprint != null) {
+            this.footprint.observe(what);
+        }
+    }
+
+    CraftingFootprint getFootprint() {
+        return this.footprint;
+    }
+
+    void setFootprint(final CraftingFootprint footprint) {
+        this.footprint = footprint;
+    }
+
     public boolean commit(final IActionSource src) {
+        return this.commit(src, true);
+    }
+
+    /**
+     * @param inform whether a player behind the source is told about items which could not be extracted
+     */
+    boolean commit(final IActionSource src, final boolean inform) {
         final IItemList<IAEItemStack> added = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
         final IItemList<IAEItemStack> pulled = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
         boolean failed = false;
@@ -270,7 +329,7 @@ public class MECraftingInventory implements IMEInventory<IAEItemStack> {
                 pulled.add(result = this.target.extractItems(extra, Actionable.MODULATE, src));
 
                 if (result == null || result.getStackSize() != extra.getStackSize()) {
-                    if (src.player().isPresent()) {
+                    if (inform && src.player().isPresent()) {
                         try {
                             if (result == null) {
                                 NetworkHandler.instance().sendTo(new PacketInformPlayer(extra, null, PacketInformPlayer.InfoType.NO_ITEMS_EXTRACTED), (EntityPlayerMP) src.player().get());
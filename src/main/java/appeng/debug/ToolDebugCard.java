@@ -22,6 +22,7 @@ package appeng.debug;
 import appeng.api.networking.IGridConnection;
 import appeng.api.networking.IGridHost;
 import appeng.api.networking.IGridNode;
+import appeng.api.networking.crafting.ICraftingGrid;
 import appeng.api.networking.energy.IAEPowerStorage;
 import appeng.api.networking.energy.IEnergyGrid;
 import appeng.api.networking.pathing.ControllerState;
@@ -34,6 +35,7 @@ import appeng.hooks.TickHandler;
 import appeng.items.AEBaseItem;
 import appeng.me.Grid;
 import appeng.me.GridNode;
+import appeng.me.cache.CraftingGridCache;
 import appeng.me.cache.TickManagerCache;
 import appeng.parts.p2p.PartP2PTunnel;
 import appeng.tile.networking.TileController;
@@ -120,6 +122,9 @@ public class ToolDebugCard extends AEBaseItem {
                     }
 
                     final TickManagerCache tmc = g.getCache(ITickManager.class);
+                    this.outputMsg(player, "Deferred Ticks: " + tmc.getLastDeferred() + " last tick, " + tmc.getTotalDeferred() + " total");
+                    final CraftingGridCache cgc = g.getCache(ICraftingGrid.class);
+                    this.outputMsg(player, "Crafting Plan Cache: " + cgc.getPlanTemplateHits() + " hits, " + cgc.getPlanTemplateMisses() + " misses");
                     for (final Class<? extends IGridHost> c : g.getMachineClasses()) {
                         int o = 0;
                         long nanos = 0;
@@ -34,6 +34,7 @@ import appeng.api.storage.channels.IFluidStorageChannel;
 import appeng.api.storage.data.IAEFluidStack;
 import appeng.api.storage.data.IItemList;
 import appeng.fluids.util.AEFluidStack;
+import appeng.fluids.util.FluidTankSnapshot;
 import appeng.me.GridAccessException;
 import appeng.me.helpers.IGridProxyable;
 import appeng.me.storage.ITickingMonitor;
@@ -85,6 +86,7 @@ public class FluidHandlerAdapter implements IMEInventory<IAEFluidStack>, IBaseMo
         }
 
         if (type == Actionable.MODULATE) {
+            this.cache.snapshot.clear();
             IAEFluidStack added = input.copy().setStackSize(input.getStackSize() - remaining);
             this.cache.currentlyCached.add(added);
             this.postDifference(Collections.singletonList(added));
@@ -114,6 +116,7 @@ public class FluidHandlerAdapter implements IMEInventory<IAEFluidStack>, IBaseMo
 
         IAEFluidStack gatheredAEFluidstack = AEFluidStack.fromFluidStack(gathered);
         if (mode == Actionable.MODULATE) {
+            this.cache.snapshot.clear();
             IAEFluidStack cachedStack = this.cache.currentlyCached.findPrecise(request);
             if (cachedStack != null) {
                 cachedStack.decStackSize(gatheredAEFluidstack.getStackSize());
@@ -180,6 +183,7 @@ public class FluidHandlerAdapter implements IMEInventory<IAEFluidStack>, IBaseMo
     private static class InventoryCache {
         private final IFluidHandler fluidHandler;
         private final StorageFilter mode;
+        private final FluidTankSnapshot snapshot = new FluidTankSnapshot();
         IItemList<IAEFluidStack> currentlyCached = AEApi.instance().storage().getStorageChannel(IFluidStorageChannel.class).createList();
 
         public InventoryCache(IFluidHandler fluidHandler, StorageFilter mode) {
@@ -188,8 +192,12 @@ public class FluidHandlerAdapter implements IMEInventory<IAEFluidStack>, IBaseMo
         }
 
         public List<IAEFluidStack> update() {
-            final List<IAEFluidStack> changes = new ArrayList<>();
             final IFluidTankProperties[] tankProperties = this.fluidHandler.getTankProperties();
+            if (!this.snapshot.update(tankProperties)) {
+                return Collections.emptyList();
+            }
+
+            final List<IAEFluidStack> changes = new ArrayList<>();
 
             IItemList<IAEFluidStack> currentlyOnStorage = AEApi.instance().storage().getStorageChannel(IFluidStorageChannel.class).createList();
 
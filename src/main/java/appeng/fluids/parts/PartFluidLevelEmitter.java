@@ -176,6 +176,12 @@ public class PartFluidLevelEmitter extends PartUpgradeable implements IStackWatc
         }
     }
 
+    @Override
+    public boolean requiresImmediateChanges() {
+        // redstone output has to follow the stored amount without lagging a tick behind
+        return true;
+    }
+
     private void updateState() {
         final boolean isOn = this.isLevelEmitterOn();
         if (this.prevState != isOn) {
@@ -246,6 +246,12 @@ public class PartFluidStorageBus extends PartUpgradeable implements IGridTickabl
         // not used here.
     }
 
+    @Override
+    public boolean requiresImmediateChanges() {
+        // changes are forwarded into our own network, which relies on seeing them while they happen
+        return true;
+    }
+
     @Override
     public void getBoxes(final IPartCollisionHelper bch) {
         bch.addBox(3, 3, 15, 13, 13, 16);
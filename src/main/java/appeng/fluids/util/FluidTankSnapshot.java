@@ -0,0 +1,63 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.fluids.util;
+
+
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.capability.IFluidTankProperties;
+
+
+/**
+ * The contents of the tanks of a fluid handler when they were last read, so tanks which did not change can be skipped
+ * without building a list of their contents.
+ */
+public class FluidTankSnapshot {
+
+    private FluidStack[] contents;
+
+    /**
+     * @return true if the contents differ from the previous call, or the snapshot was cleared since
+     */
+    public boolean update(final IFluidTankProperties[] tanks) {
+        boolean changed = this.contents == null || this.contents.length != tanks.length;
+
+        for (int i = 0; !changed && i < tanks.length; i++) {
+            final FluidStack current = tanks[i].getContents();
+            final FluidStack last = this.contents[i];
+            changed = current == null ? last != null : !current.isFluidStackIdentical(last);
+        }
+
+        if (changed) {
+            this.contents = new FluidStack[tanks.length];
+            for (int i = 0; i < tanks.length; i++) {
+                final FluidStack current = tanks[i].getContents();
+                this.contents[i] = current == null ? null : current.copy();
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Makes the next update report a change, for when the contents were changed without reading them.
+     */
+    public void clear() {
+        this.contents = null;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.helpers;
+
+
+import java.util.function.LongBinaryOperator;
+
+
+/**
+ * Sizes batches of processing crafts by what the target inventory accepts.
+ */
+public final class BatchSize {
+
+    private BatchSize() {
+    }
+
+    /**
+     * Every input is offered on its own, so inputs sharing the same slots of the target can still make the batch too
+     * large. The crafting cpu shrinks its batches when they are refused.
+     *
+     * @param perCraft the amount of every input one craft needs
+     * @param accepted how much of the input at the given index the target accepts out of the given amount
+     * @param max      the most crafts of a batch
+     * @return the most crafts, at least 1, whose inputs are all accepted
+     */
+    public static int fit(final long[] perCraft, final LongBinaryOperator accepted, final int max) {
+        long crafts = max;
+        for (int x = 0; x < perCraft.length && crafts > 1; x++) {
+            if (perCraft[x] > 0) {
+                crafts = Math.min(crafts, accepted.applyAsLong(x, perCraft[x] * crafts) / perCraft[x]);
+            }
+        }
+
+        return (int) Math.max(1, crafts);
+    }
+}
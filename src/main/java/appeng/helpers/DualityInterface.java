@@ -110,6 +110,11 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
     public static final int NUMBER_OF_PATTERN_SLOTS = 36;
 
     private static final Collection<Block> BAD_BLOCKS = new HashSet<>(100);
+
+    /**
+     * The most crafts of a processing pattern pushed into a machine at once.
+     */
+    private static final int MAX_BATCH_SIZE = 256;
     private final IAEItemStack[] requireWork = {null, null, null, null, null, null, null, null, null};
     private final MultiCraftingTracker craftingTracker;
     private final AENetworkProxy gridProxy;
@@ -944,6 +949,61 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 
     @Override
     public boolean pushPattern(final ICraftingPatternDetails patternDetails, final InventoryCrafting table) {
+        return this.pushPattern(patternDetails, table, false);
+    }
+
+    @Override
+    public int getMaxBatchSize(final ICraftingPatternDetails patternDetails) {
+        // a blocking interface waits for every craft to be done before sending the next one
+        if (patternDetails.isCraftable() || this.isBlocking()) {
+            return 1;
+        }
+
+        final IAEItemStack[] inputs = patternDetails.getCondensedInputs();
+        final long[] perCraft = new long[inputs.length];
+        for (int x = 0; x < inputs.length; x++) {
+            perCraft[x] = inputs[x].getStackSize();
+        }
+
+        final TileEntity tile = this.iHost.getTileEntity();
+        final World w = tile.getWorld();
+        int best = 1;
+        for (final EnumFacing s : this.iHost.getTargets()) {
+            final TileEntity te = w.getTileEntity(tile.getPos().offset(s));
+
+            // another network takes all it can store, crafting machines only take single crafts
+            if (te instanceof IInterfaceHost || (te instanceof TileCableBus && ((TileCableBus) te).getPart(s.getOpposite()) instanceof PartInterface)) {
+                return MAX_BATCH_SIZE;
+            }
+            if (te instanceof ICraftingMachine && ((ICraftingMachine) te).acceptsPlans()) {
+                continue;
+            }
+
+            final InventoryAdaptor ad = InventoryAdaptor.getAdaptor(te, s.getOpposite());
+            if (ad != null) {
+                best = Math.max(best, BatchSize.fit(perCraft, (x, amount) -> {
+                    final ItemStack offered = inputs[(int) x].copy().setStackSize(amount).createItemStack();
+                    return amount - ad.simulateAdd(offered).getCount();
+                }, MAX_BATCH_SIZE));
+            }
+        }
+
+        return best;
+    }
+
+    @Override
+    public boolean pushPatternBatch(final ICraftingPatternDetails patternDetails, final InventoryCrafting table, final int multiplier) {
+        if (multiplier == 1) {
+            return this.pushPattern(patternDetails, table, false);
+        }
+
+        return multiplier <= this.getMaxBatchSize(patternDetails) && this.pushPattern(patternDetails, table, true);
+    }
+
+    /**
+     * @param batch whether the table holds the inputs of several crafts, which crafting machines can not take
+     */
+    private boolean pushPattern(final ICraftingPatternDetails patternDetails, final InventoryCrafting table, final boolean batch) {
         if (this.hasItemsToSend() || this.hasItemsToSendFacing() || !this.gridProxy.isActive() || !this.craftingList.contains(patternDetails)) {
             return false;
         }
@@ -1009,6 +1069,9 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
             if (te instanceof ICraftingMachine) {
                 final ICraftingMachine cm = (ICraftingMachine) te;
                 if (cm.acceptsPlans()) {
+                    if (batch) {
+                        continue;
+                    }
                     visitedFaces.remove(s);
                     if (cm.pushPattern(patternDetails, table, s.getOpposite())) {
                         return true;
@@ -1399,7 +1462,7 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
     private class InterfaceInventory extends MEMonitorIInventory {
 
         public InterfaceInventory(final DualityInterface tileInterface) {
-            super(new AdaptorItemHandler(tileInterface.storage));
+            super(tileInterface.storage);
         }
 
         @Override
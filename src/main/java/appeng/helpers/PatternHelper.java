@@ -39,6 +39,7 @@ import net.minecraft.world.World;
 import net.minecraftforge.common.crafting.IShapedRecipe;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static appeng.helpers.ItemStackHelper.stackFromNBT;
 
@@ -53,6 +54,11 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
     public static final int CRAFTING_OUTPUT_LIMIT = 1;
     public static final int PROCESSING_OUTPUT_LIMIT = 6;
 
+    /**
+     * Items with tags can come in endless variants, so the cache of tested items stops growing at some point.
+     */
+    private static final int MAX_CACHED_TESTS = 1024;
+
     private final ItemStack patternItem;
     private final InventoryCrafting crafting;
     private final InventoryCrafting testFrame;
@@ -65,8 +71,8 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
     private final Map<Integer, List<IAEItemStack>> substituteInputs;
     private final boolean isCrafting;
     private final boolean canSubstitute;
-    private final Set<TestLookup> failCache = new HashSet<>();
-    private final Set<TestLookup> passCache = new HashSet<>();
+    // the results of testing items against the recipe, read without holding the lock
+    private final Map<TestLookup, Boolean> testCache = new ConcurrentHashMap<>();
     private final IAEItemStack pattern;
     private int priority = 0;
 
@@ -195,11 +201,11 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
     }
 
     private void markItemAs(final int slotIndex, final ItemStack i, final TestStatus b) {
-        if (b == TestStatus.TEST || i.hasTagCompound()) {
+        if (b == TestStatus.TEST || this.testCache.size() >= MAX_CACHED_TESTS) {
             return;
         }
 
-        (b == TestStatus.ACCEPT ? this.passCache : this.failCache).add(new TestLookup(slotIndex, i));
+        this.testCache.put(new TestLookup(slotIndex, i).copy(), b == TestStatus.ACCEPT);
     }
 
     @Override
@@ -208,7 +214,7 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
     }
 
     @Override
-    public synchronized boolean isValidItemForSlot(final int slotIndex, final ItemStack i, final World w) {
+    public boolean isValidItemForSlot(final int slotIndex, final ItemStack i, final World w) {
         if (!this.isCrafting) {
             throw new IllegalStateException("Only crafting recipes supported.");
         }
@@ -222,9 +228,14 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
                 return false;
             case TEST:
             default:
-                break;
+                return this.testItemForSlot(slotIndex, i, w);
         }
+    }
 
+    /**
+     * Matches the recipe with the item in the slot, the test frame is shared, so only one thread can do this at a time.
+     */
+    private synchronized boolean testItemForSlot(final int slotIndex, final ItemStack i, final World w) {
         for (int x = 0; x < this.crafting.getSizeInventory(); x++) {
             this.testFrame.setInventorySlotContents(x, this.crafting.getStackInSlot(x));
         }
@@ -402,16 +413,9 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
             return TestStatus.DECLINE;
         }
 
-        if (i.hasTagCompound()) {
-            return TestStatus.TEST;
-        }
-
-        if (this.passCache.contains(new TestLookup(slotIndex, i))) {
-            return TestStatus.ACCEPT;
-        }
-
-        if (this.failCache.contains(new TestLookup(slotIndex, i))) {
-            return TestStatus.DECLINE;
+        final Boolean cached = this.testCache.get(new TestLookup(slotIndex, i));
+        if (cached != null) {
+            return cached ? TestStatus.ACCEPT : TestStatus.DECLINE;
         }
 
         return TestStatus.TEST;
@@ -464,17 +468,33 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
 
         private final int slot;
         private final int ref;
+        private final NBTTagCompound tag;
         private final int hash;
 
         public TestLookup(final int slot, final ItemStack i) {
-            this(slot, i.getItem(), i.getItemDamage());
+            this(slot, i.getItem(), i.getItemDamage(), i.getTagCompound());
         }
 
-        public TestLookup(final int slot, final Item item, final int dmg) {
+        public TestLookup(final int slot, final Item item, final int dmg, final NBTTagCompound tag) {
             this.slot = slot;
             this.ref = (dmg << Platform.DEF_OFFSET) | (Item.getIdFromItem(item) & 0xffff);
+            this.tag = tag;
             final int offset = 3 * slot;
-            this.hash = (this.ref << offset) | (this.ref >> (offset + 32));
+            this.hash = 31 * ((this.ref << offset) | (this.ref >> (offset + 32))) + (tag == null ? 0 : tag.hashCode());
+        }
+
+        private TestLookup(final TestLookup lookup) {
+            this.slot = lookup.slot;
+            this.ref = lookup.ref;
+            this.tag = lookup.tag == null ? null : lookup.tag.copy();
+            this.hash = lookup.hash;
+        }
+
+        /**
+         * @return a lookup which keeps its own copy of the tag, so it can be stored
+         */
+        private TestLookup copy() {
+            return this.tag == null ? this : new TestLookup(this);
         }
 
         @Override
@@ -489,7 +509,7 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
             if (obj instanceof TestLookup) {
                 final TestLookup b = (TestLookup) obj;
 
-                equality = b.slot == this.slot && b.ref == this.ref;
+                equality = b.slot == this.slot && b.ref == this.ref && Objects.equals(b.tag, this.tag);
             } else {
                 equality = false;
             }
@@ -29,6 +29,7 @@ import appeng.core.AppEng;
 import appeng.core.sync.packets.PacketPaintedEntity;
 import appeng.crafting.CraftingJob;
 import appeng.me.Grid;
+import appeng.me.GridSplitter;
 import appeng.tile.AEBaseTile;
 import appeng.util.IWorldCallable;
 import appeng.util.Platform;
@@ -36,6 +37,7 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
 import net.minecraft.world.World;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
@@ -114,6 +116,7 @@ public class TickHandler {
     }
 
     public void shutdown() {
+        GridSplitter.reset();
         this.getRepo().clear();
     }
 
@@ -138,6 +141,14 @@ public class TickHandler {
         }
     }
 
+    @SubscribeEvent
+    public void unloadChunk(final ChunkEvent.Unload ev) {
+        // the tiles of the chunk are unloaded later in the world tick, their grids are split once all of them are gone
+        if (!ev.getWorld().isRemote) {
+            GridSplitter.defer();
+        }
+    }
+
     @SubscribeEvent
     public void onTick(final TickEvent ev) {
 
@@ -151,6 +162,9 @@ public class TickHandler {
         }
 
         if (ev.type == Type.WORLD && ev.phase == Phase.END) {
+            // after the chunks unloaded during the world tick
+            GridSplitter.flush();
+
             final WorldTickEvent wte = (WorldTickEvent) ev;
             synchronized (this.craftingJobs) {
                 final Collection<CraftingJob> jobSet = this.craftingJobs.get(wte.world);
@@ -167,6 +181,8 @@ public class TickHandler {
         // for no there is no reason to care about this on the client...
         else if (ev.type == Type.SERVER && ev.phase == Phase.END) {
             this.tickColors(this.srvPlayerColors);
+            GridSplitter.flush();
+
             // ready tiles.
             final HandlerRep repo = this.getRepo();
             while (!repo.tiles.isEmpty()) {
@@ -178,9 +194,7 @@ public class TickHandler {
 
             // tick networks.
             this.getRepo().updateNetworks();
-            for (final Grid g : this.getRepo().networks) {
-                g.update();
-            }
+            this.updateNetworks(this.getRepo());
 
             // cross world queue.
             this.processQueue(this.serverQueue, null);
@@ -194,6 +208,33 @@ public class TickHandler {
         }
     }
 
+    private void updateNetworks(final HandlerRep repo) {
+        final int microSecondsPerTick = AEConfig.instance().getGridTickBudgetPerTick();
+        final List<Grid> order = repo.tickOrder;
+        final int size = order.size();
+
+        if (microSecondsPerTick <= 0 || size == 0) {
+            for (final Grid g : order) {
+                g.update();
+            }
+            return;
+        }
+
+        final long deadline = System.nanoTime() + microSecondsPerTick * 1000L;
+        int firstDeferred = -1;
+
+        // round robin, the first network which could not finish goes first next tick.
+        for (int x = 0; x < size; x++) {
+            final int idx = (repo.nextToTick + x) % size;
+
+            if (!order.get(idx).update(deadline) && firstDeferred < 0) {
+                firstDeferred = idx;
+            }
+        }
+
+        repo.nextToTick = firstDeferred >= 0 ? firstDeferred : (repo.nextToTick + 1) % size;
+    }
+
     private void tickColors(final HashMap<Integer, PlayerColor> playerSet) {
         final Iterator<PlayerColor> i = playerSet.values().iterator();
         while (i.hasNext()) {
@@ -238,12 +279,16 @@ public class TickHandler {
         private Set<Grid> networks = new HashSet<>();
         private Set<Grid> toAdd = new HashSet<>();
         private Set<Grid> toRemove = new HashSet<>();
+        private List<Grid> tickOrder = new ArrayList<>();
+        private int nextToTick = 0;
 
         private void clear() {
             this.tiles = new ArrayDeque<>();
             this.networks = new HashSet<>();
             this.toAdd = new HashSet<>();
             this.toRemove = new HashSet<>();
+            this.tickOrder = new ArrayList<>();
+            this.nextToTick = 0;
         }
 
         private synchronized void addNetwork(Grid g) {
@@ -257,11 +302,21 @@ public class TickHandler {
         }
 
         private synchronized void updateNetworks() {
+            if (this.toRemove.isEmpty() && this.toAdd.isEmpty()) {
+                return;
+            }
+
+            final Grid resumeAt = this.nextToTick < this.tickOrder.size() ? this.tickOrder.get(this.nextToTick) : null;
+
             this.networks.removeAll(this.toRemove);
             this.toRemove.clear();
 
             this.networks.addAll(this.toAdd);
             this.toAdd.clear();
+
+            this.tickOrder = new ArrayList<>(this.networks);
+            final int idx = this.tickOrder.indexOf(resumeAt);
+            this.nextToTick = Math.max(idx, 0);
         }
     }
 
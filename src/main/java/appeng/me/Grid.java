@@ -23,9 +23,11 @@ import appeng.api.AEApi;
 import appeng.api.networking.*;
 import appeng.api.networking.events.MENetworkEvent;
 import appeng.api.networking.events.MENetworkPostCacheConstruction;
+import appeng.api.networking.ticking.ITickManager;
 import appeng.api.util.IReadOnlyCollection;
 import appeng.core.worlddata.WorldData;
 import appeng.hooks.TickHandler;
+import appeng.me.cache.TickManagerCache;
 import appeng.util.ReadOnlyCollection;
 
 import java.util.*;
@@ -194,6 +196,18 @@ public class Grid implements IGrid {
         return new ReadOnlyCollection<>(machineKeys);
     }
 
+    boolean contains(final GridNode node) {
+        final MachineSet nodes = this.machines.get(node.getMachineClass());
+        return nodes != null && nodes.contains(node);
+    }
+
+    /**
+     * @return the nodes of the given machine class, or null if none joined this grid yet
+     */
+    MachineSet getMachineSet(final Class<?> c) {
+        return this.machines.get(c);
+    }
+
     @Override
     public IMachineSet getMachines(final Class<? extends IGridHost> c) {
         final MachineSet s = this.machines.get(c);
@@ -223,12 +237,26 @@ public class Grid implements IGrid {
     }
 
     public void update() {
+        this.update(Long.MAX_VALUE);
+    }
+
+    /**
+     * Ticks all caches, ticking devices are only run until the given {@link System#nanoTime()} deadline.
+     *
+     * @return false if ticking devices had to be deferred to the next tick
+     */
+    public boolean update(final long deadline) {
+        final TickManagerCache tmc = this.getCache(ITickManager.class);
+        tmc.setTickDeadline(deadline);
+
         for (final IGridCache gc : this.caches.values()) {
             // are there any nodes left?
             if (this.pivot != null) {
                 gc.onUpdateTick();
             }
         }
+
+        return tmc.getLastDeferred() == 0;
     }
 
     void saveState() {
@@ -34,6 +34,7 @@ import appeng.api.util.IReadOnlyCollection;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.features.AEFeature;
+import appeng.me.cache.PathGridCache;
 import appeng.me.pathfinding.IPathItem;
 import appeng.util.Platform;
 import appeng.util.ReadOnlyCollection;
@@ -90,15 +91,21 @@ public class GridConnection implements IGridConnection, IPathItem {
 
     @Override
     public void destroy() {
+        this.remove();
+
+        GridSplitter.checkSplit(Arrays.asList(this.sideA, this.sideB));
+    }
+
+    /**
+     * Removes the connection without checking whether that split the grid.
+     */
+    void remove() {
         // a connection was destroyed RE-PATH!!
-        final IPathingGrid p = this.sideA.getInternalGrid().getCache(IPathingGrid.class);
-        p.repath();
+        final PathGridCache p = this.sideA.getInternalGrid().getCache(IPathingGrid.class);
+        p.connectionRemoved(this);
 
         this.sideA.removeConnection(this);
         this.sideB.removeConnection(this);
-
-        this.sideA.validateGrid();
-        this.sideB.validateGrid();
     }
 
     @Override
@@ -243,9 +250,9 @@ public class GridConnection implements IGridConnection, IPathItem {
             }
         }
 
-        // a connection was destroyed RE-PATH!!
-        final IPathingGrid p = connection.sideA.getInternalGrid().getCache(IPathingGrid.class);
-        p.repath();
+        // a connection was created RE-PATH!!
+        final PathGridCache p = connection.sideA.getInternalGrid().getCache(IPathingGrid.class);
+        p.connectionAdded(connection);
 
         connection.sideA.addConnection(connection);
         connection.sideB.addConnection(connection);
@@ -34,6 +34,7 @@ import appeng.core.AELog;
 import appeng.core.features.AEFeature;
 import appeng.core.worlddata.WorldData;
 import appeng.hooks.TickHandler;
+import appeng.me.cache.PathGridCache;
 import appeng.me.pathfinding.IPathItem;
 import appeng.util.IWorldCallable;
 import appeng.util.ReadOnlyCollection;
@@ -111,15 +112,6 @@ public class GridNode implements IGridNode, IPathItem {
         return false;
     }
 
-    void validateGrid() {
-        final GridSplitDetector gsd = new GridSplitDetector(this.getInternalGrid().getPivot());
-        this.beginVisit(gsd);
-        if (!gsd.isPivotFound()) {
-            final IGridVisitor gp = new GridPropagator(new Grid(this));
-            this.beginVisit(gp);
-        }
-    }
-
     public Grid getInternalGrid() {
         if (this.myGrid == null) {
             this.myGrid = new Grid(this);
@@ -224,6 +216,13 @@ public class GridNode implements IGridNode, IPathItem {
 
     @Override
     public void destroy() {
+        final List<GridNode> neighbours = new ArrayList<>(this.connections.size());
+
+        if (this.myGrid != null) {
+            final PathGridCache p = this.myGrid.getCache(IPathingGrid.class);
+            p.nodeDestroyed(this);
+        }
+
         while (!this.connections.isEmpty()) {
             // not part of this network for real anymore.
             if (this.connections.size() == 1) {
@@ -233,12 +232,16 @@ public class GridNode implements IGridNode, IPathItem {
             final IGridConnection c = this.connections.listIterator().next();
             final GridNode otherSide = (GridNode) c.getOtherSide(this);
             otherSide.getInternalGrid().setPivot(otherSide);
-            c.destroy();
+            ((GridConnection) c).remove();
+            neighbours.add(otherSide);
         }
 
         if (this.myGrid != null) {
             this.myGrid.remove(this);
         }
+
+        // the neighbours are checked together, this node is gone
+        GridSplitter.checkSplit(neighbours);
     }
 
     @Override
@@ -338,7 +341,7 @@ public class GridNode implements IGridNode, IPathItem {
         }
     }
 
-    private int getUsedChannels() {
+    public int getUsedChannels() {
         return this.usedChannels;
     }
 
@@ -530,7 +533,7 @@ public class GridNode implements IGridNode, IPathItem {
         return this.getUsedChannels() < this.getMaxChannels();
     }
 
-    private int getMaxChannels() {
+    public int getMaxChannels() {
         return CHANNEL_COUNT[this.compressedData & 0x3];
     }
 
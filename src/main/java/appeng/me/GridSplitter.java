@@ -0,0 +1,283 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me;
+
+
+import appeng.api.networking.IGridConnection;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+
+/**
+ * Finds the grids split apart by removed connections, and gives every part which got cut off a grid of its own.
+ * <p>
+ * The nodes left at the ends of the removed connections are searched from in turns, one node at a time. Searches which
+ * meet are in the same part, so searching stops once all of them met, or all but one ran out of nodes. Only the parts
+ * which got cut off are walked completely, the remaining part keeps the grid and gets its pivot if needed.
+ * <p>
+ * Chunk unloads destroy many nodes at once, the removals they cause are collected and checked together by
+ * {@link #flush()}. All of this runs on the server thread.
+ */
+public final class GridSplitter {
+
+    private static final Set<GridNode> PENDING = new LinkedHashSet<>();
+    private static boolean deferred = false;
+
+    private GridSplitter() {
+    }
+
+    /**
+     * Collects the removals until the next {@link #flush()} instead of checking them right away.
+     */
+    public static void defer() {
+        deferred = true;
+    }
+
+    /**
+     * Checks the removals collected since {@link #defer()}.
+     */
+    public static void flush() {
+        deferred = false;
+
+        if (!PENDING.isEmpty()) {
+            final List<GridNode> ends = new ArrayList<>(PENDING);
+            PENDING.clear();
+            split(ends);
+        }
+    }
+
+    /**
+     * Drops the collected removals, their grids are gone with the server.
+     */
+    public static void reset() {
+        deferred = false;
+        PENDING.clear();
+    }
+
+    /**
+     * @param ends the nodes which lost connections
+     */
+    static void checkSplit(final Collection<GridNode> ends) {
+        if (deferred) {
+            PENDING.addAll(ends);
+        } else {
+            split(ends);
+        }
+    }
+
+    private static void split(final Collection<GridNode> ends) {
+        final Map<Grid, List<GridNode>> byGrid = new LinkedHashMap<>();
+        for (final GridNode end : ends) {
+            final Grid grid = end.getMyGrid();
+
+            // destroyed since
+            if (grid != null && grid.contains(end)) {
+                final List<GridNode> gridEnds = byGrid.computeIfAbsent(grid, k -> new ArrayList<>());
+                if (!gridEnds.contains(end)) {
+                    gridEnds.add(end);
+                }
+            }
+        }
+
+        for (final Map.Entry<Grid, List<GridNode>> e : byGrid.entrySet()) {
+            // a single end can not tell parts apart, every part has one
+            if (e.getValue().size() > 1) {
+                split(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    private static void split(final Grid grid, final List<GridNode> ends) {
+        final Cut<GridNode> cut = new Cut<>(ends, GridSplitter::visitNeighbours, grid.getPivot());
+
+        if (cut.getPivot() != null) {
+            grid.setPivot(cut.getPivot());
+        }
+
+        for (final GridNode root : cut.getCutOff()) {
+            root.beginVisit(new GridPropagator(new Grid(root)));
+        }
+    }
+
+    private static void visitNeighbours(final GridNode node, final Consumer<GridNode> visitor) {
+        for (final IGridConnection gc : node.getConnections()) {
+            visitor.accept((GridNode) gc.getOtherSide(node));
+        }
+    }
+
+    /**
+     * The parts of a graph found by searching from the ends of removed edges.
+     *
+     * @param <N> the nodes of the graph
+     */
+    static final class Cut<N> {
+
+        private final Map<N, Search> reached = new HashMap<>();
+        private final List<Search> searches;
+        private final BiConsumer<N, Consumer<N>> neighbours;
+        private final List<N> cutOff = new ArrayList<>();
+        private N pivot;
+
+        /**
+         * @param ends       the nodes which lost edges
+         * @param neighbours visits the nodes connected to a node
+         * @param pivot      a node of the part which keeps the grid, unless the search finds that part cut off
+         */
+        Cut(final List<N> ends, final BiConsumer<N, Consumer<N>> neighbours, final N pivot) {
+            this.neighbours = neighbours;
+            this.searches = new ArrayList<>(ends.size());
+            for (final N end : ends) {
+                final Search search = new Search(end);
+                this.searches.add(search);
+                this.reached.put(end, search);
+            }
+
+            this.search(pivot);
+        }
+
+        /**
+         * @return one node of every part which got cut off
+         */
+        List<N> getCutOff() {
+            return this.cutOff;
+        }
+
+        /**
+         * @return the new pivot of the part which keeps the grid, or null if the pivot stays
+         */
+        N getPivot() {
+            return this.pivot;
+        }
+
+        private void search(final N pivot) {
+            int round = 0;
+            while (this.countParts(++round) > 1 && this.countOpenParts() > 1) {
+                for (final Search search : this.searches) {
+                    final N node = search.frontier.poll();
+                    if (node != null) {
+                        this.neighbours.accept(node, search.visitor);
+                    }
+                }
+            }
+
+            if (this.countParts(++round) == 1) {
+                return;
+            }
+            this.countOpenParts();
+
+            // the part still open holds the rest of the grid, so it keeps the grid
+            Search keep = null;
+            for (final Search search : this.searches) {
+                if (search.find().open) {
+                    keep = search.find();
+                }
+            }
+
+            final Search pivotPart = this.reached.get(pivot);
+            if (keep == null) {
+                keep = pivotPart != null ? pivotPart.find() : this.searches.get(0).find();
+            }
+
+            // nodes no search reached are in the open part
+            if (pivotPart != null ? pivotPart.find() != keep : !keep.open) {
+                this.pivot = keep.root;
+            }
+
+            for (final Search search : this.searches) {
+                final Search part = search.find();
+                if (part != keep && !part.moved) {
+                    part.moved = true;
+                    this.cutOff.add(part.root);
+                }
+            }
+        }
+
+        private int countParts(final int round) {
+            int parts = 0;
+            for (final Search search : this.searches) {
+                final Search part = search.find();
+                if (part.round != round) {
+                    part.round = round;
+                    part.open = false;
+                    parts++;
+                }
+            }
+
+            return parts;
+        }
+
+        /**
+         * Only valid right after {@link #countParts(int)}.
+         */
+        private int countOpenParts() {
+            int open = 0;
+            for (final Search search : this.searches) {
+                final Search part = search.find();
+                if (!search.frontier.isEmpty() && !part.open) {
+                    part.open = true;
+                    open++;
+                }
+            }
+
+            return open;
+        }
+
+        /**
+         * A search from one end, searches which met form a part and share the root of a union-find tree.
+         */
+        private final class Search {
+
+            private final N root;
+            private final Deque<N> frontier = new ArrayDeque<>();
+            private final Consumer<N> visitor = this::reach;
+            private Search parent = this;
+            private int round;
+            private boolean open;
+            private boolean moved;
+
+            private Search(final N end) {
+                this.root = end;
+                this.frontier.add(end);
+            }
+
+            private void reach(final N next) {
+                final Search other = Cut.this.reached.get(next);
+
+                if (other == null) {
+                    Cut.this.reached.put(next, this);
+                    this.frontier.add(next);
+                } else {
+                    other.find().parent = this.find();
+                }
+            }
+
+            private Search find() {
+                Search s = this;
+                while (s.parent != s) {
+                    s = s.parent;
+                }
+
+                this.parent = s;
+                return s;
+            }
+        }
+    }
+}
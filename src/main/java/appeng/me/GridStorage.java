@@ -58,18 +58,17 @@ public class GridStorage implements IGridStorage {
     /**
      * for use with world settings
      *
-     * @param input array of bytes string
+     * @param input compressed NBT data, or null for an empty storage
      * @param id    ID of grid storage
      * @param gss   grid storage search
      */
-    public GridStorage(final String input, final long id, final GridStorageSearch gss) {
+    public GridStorage(final byte[] input, final long id, final GridStorageSearch gss) {
         this.myID = id;
         this.mySearchEntry = gss;
         NBTTagCompound myTag = null;
 
         try {
-            final byte[] byteData = javax.xml.bind.DatatypeConverter.parseBase64Binary(input);
-            myTag = CompressedStreamTools.readCompressed(new ByteArrayInputStream(byteData));
+            myTag = input == null ? new NBTTagCompound() : CompressedStreamTools.readCompressed(new ByteArrayInputStream(input));
         } catch (final Throwable t) {
             myTag = new NBTTagCompound();
         }
@@ -86,7 +85,10 @@ public class GridStorage implements IGridStorage {
         this.data = new NBTTagCompound();
     }
 
-    public String getValue() {
+    /**
+     * @return the compressed NBT data, or null if it could not be written
+     */
+    public byte[] getValue() {
         final Grid currentGrid = (Grid) this.getGrid();
         if (currentGrid != null) {
             currentGrid.saveState();
@@ -95,12 +97,12 @@ public class GridStorage implements IGridStorage {
         try {
             final ByteArrayOutputStream out = new ByteArrayOutputStream();
             CompressedStreamTools.writeCompressed(this.data, out);
-            return javax.xml.bind.DatatypeConverter.printBase64Binary(out.toByteArray());
+            return out.toByteArray();
         } catch (final IOException e) {
             AELog.debug(e);
         }
 
-        return "";
+        return null;
     }
 
     public IGrid getGrid() {
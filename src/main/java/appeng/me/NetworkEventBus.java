@@ -20,21 +20,40 @@ package appeng.me;
 
 
 import appeng.api.networking.IGridNode;
-import appeng.api.networking.IMachineSet;
 import appeng.api.networking.events.MENetworkEvent;
 import appeng.api.networking.events.MENetworkEventSubscribe;
 import appeng.core.AELog;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.Map.Entry;
 
 
+/**
+ * Passes network events to the grid caches and machines subscribed to them.
+ * <p>
+ * Subscriber methods are turned into method handles once per class. Every grid keeps a table of the caches and machine
+ * sets each event class reaches, which is rebuilt when a new kind of machine joins the grid.
+ */
 public class NetworkEventBus {
     private static final Collection<Class> READ_CLASSES = new HashSet<>();
     private static final Map<Class<? extends MENetworkEvent>, Map<Class, MENetworkEventInfo>> EVENTS = new HashMap<>();
+    private static final MethodType SUBSCRIBER_TYPE = MethodType.methodType(void.class, Object.class, MENetworkEvent.class);
+    private static final Dispatch[] NO_DISPATCH = new Dispatch[0];
+
+    private final Map<Class<? extends MENetworkEvent>, Dispatch[]> dispatchTables = new HashMap<>();
+
+    // the nodes being visited, one buffer for every event posted while another one is still being delivered
+    private final List<IGridNode[]> snapshots = new ArrayList<>();
+    private int depth = 0;
 
     void readClass(final Class listAs, final Class c) {
+        // the grid has a new cache or kind of machine
+        this.dispatchTables.clear();
+
         if (READ_CLASSES.contains(c)) {
             return;
         }
@@ -76,35 +95,41 @@ public class NetworkEventBus {
     }
 
     MENetworkEvent postEvent(final Grid g, final MENetworkEvent e) {
-        final Map<Class, MENetworkEventInfo> subscribers = EVENTS.get(e.getClass());
+        final Dispatch[] table = this.getDispatchTable(g, e.getClass());
         int x = 0;
 
+        this.depth++;
         try {
-            if (subscribers != null) {
-                for (final Entry<Class, MENetworkEventInfo> subscriber : subscribers.entrySet()) {
-                    final MENetworkEventInfo target = subscriber.getValue();
-                    final GridCacheWrapper cache = g.getCaches().get(subscriber.getKey());
-                    if (cache != null) {
-                        x++;
-                        target.invoke(cache.getCache(), e);
-                    }
+            for (final Dispatch dispatch : table) {
+                if (dispatch.cache != null) {
+                    x++;
+                    dispatch.target.invoke(dispatch.cache.getCache(), e);
+                }
 
+                if (dispatch.machines != null) {
                     // events may create or remove grid nodes in rare cases
-                    final IMachineSet machines = g.getMachines(subscriber.getKey());
-                    final List<IGridNode> work = new ArrayList<>(machines.size());
-                    machines.forEach(work::add);
-
-                    for (final IGridNode obj : work) {
-                        // stil part of grid?
-                        if (machines.contains(obj)) {
-                            x++;
-                            target.invoke(obj.getMachine(), e);
+                    final int size = dispatch.machines.size();
+                    final IGridNode[] work = this.snapshot(dispatch.machines);
+
+                    try {
+                        for (int i = 0; i < size; i++) {
+                            final IGridNode obj = work[i];
+
+                            // stil part of grid?
+                            if (dispatch.machines.contains(obj)) {
+                                x++;
+                                dispatch.target.invoke(obj.getMachine(), e);
+                            }
                         }
+                    } finally {
+                        Arrays.fill(work, 0, size, null);
                     }
                 }
             }
         } catch (final NetworkEventDone done) {
             // Early out.
+        } finally {
+            this.depth--;
         }
 
         e.setVisitedObjects(x);
@@ -131,26 +156,87 @@ public class NetworkEventBus {
         return e;
     }
 
+    private Dispatch[] getDispatchTable(final Grid g, final Class<? extends MENetworkEvent> event) {
+        Dispatch[] table = this.dispatchTables.get(event);
+        if (table != null) {
+            return table;
+        }
+
+        final Map<Class, MENetworkEventInfo> subscribers = EVENTS.get(event);
+        final List<Dispatch> dispatches = new ArrayList<>();
+        if (subscribers != null) {
+            for (final Entry<Class, MENetworkEventInfo> subscriber : subscribers.entrySet()) {
+                final GridCacheWrapper cache = g.getCaches().get(subscriber.getKey());
+                final MachineSet machines = g.getMachineSet(subscriber.getKey());
+                if (cache != null || machines != null) {
+                    dispatches.add(new Dispatch(subscriber.getValue(), cache, machines));
+                }
+            }
+        }
+
+        table = dispatches.isEmpty() ? NO_DISPATCH : dispatches.toArray(new Dispatch[0]);
+        this.dispatchTables.put(event, table);
+        return table;
+    }
+
+    /**
+     * @return the nodes of the set, in a buffer which is reused by the next event posted at the same depth
+     */
+    private IGridNode[] snapshot(final MachineSet machines) {
+        while (this.snapshots.size() < this.depth) {
+            this.snapshots.add(new IGridNode[16]);
+        }
+
+        IGridNode[] buffer = this.snapshots.get(this.depth - 1);
+        if (buffer.length < machines.size()) {
+            buffer = new IGridNode[Math.max(machines.size(), buffer.length * 2)];
+            this.snapshots.set(this.depth - 1, buffer);
+        }
+
+        int i = 0;
+        for (final IGridNode node : machines) {
+            buffer[i++] = node;
+        }
+
+        return buffer;
+    }
+
     private static class NetworkEventDone extends Throwable {
 
         private static final long serialVersionUID = -3079021487019171205L;
     }
 
-    private class EventMethod {
+    private static class Dispatch {
+
+        private final MENetworkEventInfo target;
+        private final GridCacheWrapper cache;
+        private final MachineSet machines;
+
+        private Dispatch(final MENetworkEventInfo target, final GridCacheWrapper cache, final MachineSet machines) {
+            this.target = target;
+            this.cache = cache;
+            this.machines = machines;
+        }
+    }
+
+    private static class EventMethod {
 
         private final Class objClass;
-        private final Method objMethod;
+        private final MethodHandle objMethod;
         private final Class objEvent;
 
-        public EventMethod(final Class Event, final Class ObjClass, final Method ObjMethod) {
+        public EventMethod(final Class Event, final Class ObjClass, final Method ObjMethod) throws IllegalAccessException {
             this.objClass = ObjClass;
-            this.objMethod = ObjMethod;
             this.objEvent = Event;
+
+            // public methods of classes which are not public need the access check turned off
+            ObjMethod.setAccessible(true);
+            this.objMethod = MethodHandles.lookup().unreflect(ObjMethod).asType(SUBSCRIBER_TYPE);
         }
 
         private void invoke(final Object obj, final MENetworkEvent e) throws NetworkEventDone {
             try {
-                this.objMethod.invoke(obj, e);
+                this.objMethod.invokeExact(obj, e);
             } catch (final Throwable e1) {
                 AELog.error("[AppEng] Network Event caused exception:");
                 AELog.error("Class: %1s, Object: %2s", obj.getClass().getName(), obj.toString());
@@ -164,12 +250,13 @@ public class NetworkEventBus {
         }
     }
 
-    private class MENetworkEventInfo {
+    private static class MENetworkEventInfo {
 
-        private final List<EventMethod> methods = new ArrayList<>();
+        private EventMethod[] methods = new EventMethod[0];
 
-        private void Add(final Class Event, final Class ObjClass, final Method ObjMethod) {
-            this.methods.add(new EventMethod(Event, ObjClass, ObjMethod));
+        private void Add(final Class Event, final Class ObjClass, final Method ObjMethod) throws IllegalAccessException {
+            this.methods = Arrays.copyOf(this.methods, this.methods.length + 1);
+            this.methods[this.methods.length - 1] = new EventMethod(Event, ObjClass, ObjMethod);
         }
 
         private void invoke(final Object obj, final MENetworkEvent e) throws NetworkEventDone {
@@ -41,9 +41,11 @@ import appeng.api.storage.channels.IItemStorageChannel;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
 import appeng.crafting.CraftingJob;
 import appeng.crafting.CraftingLink;
 import appeng.crafting.CraftingLinkNexus;
+import appeng.crafting.CraftingPlanTemplate;
 import appeng.crafting.CraftingWatcher;
 import appeng.me.cluster.implementations.CraftingCPUCluster;
 import appeng.me.helpers.BaseActionSource;
@@ -57,23 +59,53 @@ import it.unimi.dsi.fastutil.objects.ObjectRBTreeSet;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
 import net.minecraft.world.World;
 
+import javax.annotation.Nullable;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 
 public class CraftingGridCache implements ICraftingGrid, ICraftingProviderHelper, ICellProvider, IMEInventoryHandler<IAEItemStack> {
 
     private static final ExecutorService CRAFTING_POOL;
+    private static final ForkJoinPool PLANNING_POOL;
+    private static final int MAX_PLAN_TEMPLATES = 128;
     private static final Comparator<ICraftingPatternDetails> COMPARATOR = (firstDetail, nextDetail) -> nextDetail.getPriority() - firstDetail.getPriority();
 
     static {
         final ThreadFactory factory = ar -> new Thread(ar, "AE Crafting Calculator");
+        final int jobs = AEConfig.instance().getCraftingCalculationJobs();
+
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(jobs, jobs, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory);
+        pool.allowCoreThreadTimeOut(true);
+        CRAFTING_POOL = pool;
+
+        final int threads = AEConfig.instance().getCraftingCalculationThreads();
+        if (threads > 1) {
+            PLANNING_POOL = new ForkJoinPool(threads, fjp -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(fjp);
+                thread.setName("AE Crafting Planner " + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        } else {
+            PLANNING_POOL = null;
+        }
+    }
 
-        CRAFTING_POOL = Executors.newCachedThreadPool(factory);
+    /**
+     * @return the pool crafting calculations use to plan independent subtrees in parallel, null if disabled.
+     */
+    @Nullable
+    public static ForkJoinPool getPlanningPool() {
+        return PLANNING_POOL;
     }
 
     private final Set<CraftingCPUCluster> craftingCPUClusters = new HashSet<>();
@@ -86,6 +118,16 @@ public class CraftingGridCache implements ICraftingGrid, ICraftingProviderHelper
     private final Map<String, CraftingLinkNexus> craftingLinks = new HashMap<>();
     private final Multimap<IAEStack, CraftingWatcher> interests = HashMultimap.create();
     private final GenericInterestManager<CraftingWatcher> interestManager = new GenericInterestManager<>(this.interests);
+    // structure of recently requested crafting trees, see CraftingPlanTemplate
+    private final Map<IAEItemStack, CraftingPlanTemplate> planTemplates = new LinkedHashMap<IAEItemStack, CraftingPlanTemplate>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<IAEItemStack, CraftingPlanTemplate> eldest) {
+            return this.size() > MAX_PLAN_TEMPLATES;
+        }
+    };
+    private int patternVersion = 0;
+    private long planTemplateHits = 0;
+    private long planTemplateMisses = 0;
     private IStorageGrid storageGrid;
     private IEnergyGrid energyGrid;
     int i;
@@ -205,6 +247,11 @@ public class CraftingGridCache implements ICraftingGrid, ICraftingProviderHelper
         final Object2ObjectMap<IAEItemStack, ImmutableList<ICraftingPatternDetails>> oldItems = new Object2ObjectOpenHashMap<>(this.craftableItems);
         final Set<IAEItemStack> oldEmitableItems = new HashSet<>(this.emitableItems);
 
+        synchronized (this.planTemplates) {
+            this.patternVersion++;
+            this.planTemplates.clear();
+        }
+
         // erase list.
         this.craftingMethods.clear();
         this.craftableItems.clear();
@@ -430,6 +477,37 @@ public class CraftingGridCache implements ICraftingGrid, ICraftingProviderHelper
         return res;
     }
 
+    /**
+     * @return the shared structure of crafting trees for the output, for the current patterns of this grid
+     */
+    public CraftingPlanTemplate getPlanTemplate(final IAEItemStack output) {
+        synchronized (this.planTemplates) {
+            CraftingPlanTemplate template = this.planTemplates.get(output);
+
+            if (template != null && template.getPatternVersion() == this.patternVersion) {
+                this.planTemplateHits++;
+                return template;
+            }
+
+            this.planTemplateMisses++;
+            template = new CraftingPlanTemplate(this.patternVersion);
+            this.planTemplates.put(output.copy(), template);
+            return template;
+        }
+    }
+
+    public long getPlanTemplateHits() {
+        synchronized (this.planTemplates) {
+            return this.planTemplateHits;
+        }
+    }
+
+    public long getPlanTemplateMisses() {
+        synchronized (this.planTemplates) {
+            return this.planTemplateMisses;
+        }
+    }
+
     @Override
     public Future<ICraftingJob> beginCraftingJob(final World world, final IGrid grid, final IActionSource actionSrc, final IAEItemStack slotItem, final ICraftingCallback cb) {
         if (world == null || grid == null || actionSrc == null || slotItem == null) {
@@ -32,6 +32,9 @@ import appeng.api.storage.channels.IFluidStorageChannel;
 import appeng.api.storage.channels.IItemStorageChannel;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
+import appeng.me.cache.helpers.BroadcastDiff;
+import appeng.me.cache.helpers.NestingContext;
+import appeng.me.cache.helpers.StorageSnapshot;
 import appeng.me.storage.ItemWatcher;
 import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
@@ -40,12 +43,12 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
-    @Nonnull
-    private static final HashMap<IActionSource, LinkedList<NetworkMonitor<?>>> src2MonitorsMap = new HashMap<>();
-    private static final Set<IActionSource> nestingSources = new HashSet<>();
+    // distinct stacks a snapshot records changes for before it is given up
+    private static final int MAX_SNAPSHOT_CHANGES = 4096;
 
     protected boolean wasNested = false;
     protected boolean isNested = false;
@@ -59,6 +62,23 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     @Nonnull
     private final Object2ObjectMap<IMEMonitorHandlerReceiver<T>, Object> listeners;
 
+    // changes since the last tick, merged per stack, for watchers and listeners which accept them once per tick
+    @Nonnull
+    private IItemList<T> journal;
+    private boolean journalDirty = false;
+    @Nullable
+    private IActionSource journalSource;
+    private boolean journalMixedSources = false;
+
+    // the last full copy of the contents, it keeps recording changes so later snapshots can be layered over it
+    @Nullable
+    private StorageSnapshot<T> base;
+    // the snapshot handed out for the current contents, dropped on the first change
+    @Nullable
+    private StorageSnapshot<T> snapshot;
+    @Nonnull
+    private final Set<StorageSnapshot<T>> openSnapshots = ConcurrentHashMap.newKeySet();
+
     private boolean sendEvent = false;
     private long gridItemCount;
     private long gridFluidCount;
@@ -69,6 +89,7 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         this.myChannel = chan;
         this.cachedList = chan.createList();
         this.listeners = new Object2ObjectOpenHashMap<>();
+        this.journal = chan.createList();
     }
 
     @Override
@@ -163,7 +184,7 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         return this.listeners.entrySet().iterator();
     }
 
-    private void notifyListenersOfChange(final Iterable<T> diff, final IActionSource src) {
+    private void notifyListenersOfChange(final Iterable<T> diff, final IActionSource src, final boolean immediate) {
         final Iterator<Entry<IMEMonitorHandlerReceiver<T>, Object>> i = this.getListeners();
 
         while (i.hasNext()) {
@@ -171,13 +192,123 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
             final IMEMonitorHandlerReceiver<T> receiver = o.getKey();
 
             if (receiver.isValid(o.getValue())) {
-                receiver.postChange(this, diff, src);
+                if (receiver.requiresImmediateChanges() == immediate) {
+                    receiver.postChange(this, diff, src);
+                }
             } else {
                 i.remove();
             }
         }
     }
 
+    private void notifyWatchersOfChange(final T change, final IActionSource src, final boolean immediate) {
+        if (this.myGridCache.getInterestManager().containsKey(change)) {
+            final Collection<ItemWatcher> list = this.myGridCache.getInterestManager().get(change);
+
+            if (!list.isEmpty()) {
+                IAEStack<T> fullStack = this.getStorageList().findPrecise(change);
+
+                if (fullStack == null) {
+                    fullStack = change.copy();
+                    fullStack.setStackSize(0);
+                }
+
+                this.myGridCache.getInterestManager().enableTransactions();
+
+                for (final ItemWatcher iw : list) {
+                    if (iw.getHost().requiresImmediateChanges() == immediate) {
+                        iw.getHost().onStackChange(this.getStorageList(), fullStack, change, src, this.getChannel());
+                    }
+                }
+
+                this.myGridCache.getInterestManager().disableTransactions();
+            }
+        }
+    }
+
+    private void recordChange(final T change, final IActionSource src) {
+        this.journal.addStorage(change);
+
+        if (!this.journalDirty) {
+            this.journalDirty = true;
+            this.journalSource = src;
+        } else if (this.journalSource != src) {
+            this.journalMixedSources = true;
+        }
+    }
+
+    /**
+     * Passes the changes collected since the last tick to the watchers and listeners which did not ask for them
+     * immediately. Changes which cancelled each other out are dropped. All listeners get the same {@link BroadcastDiff}.
+     */
+    private void flushJournal() {
+        if (!this.journalDirty) {
+            return;
+        }
+
+        final IItemList<T> changes = this.journal;
+        final IActionSource src = this.journalMixedSources ? null : this.journalSource;
+
+        this.journal = this.myChannel.createList();
+        this.journalDirty = false;
+        this.journalSource = null;
+        this.journalMixedSources = false;
+
+        final List<T> diff = new ArrayList<>();
+        for (final T change : changes) {
+            if (change.getStackSize() != 0) {
+                diff.add(change);
+                this.notifyWatchersOfChange(change, src, false);
+            }
+        }
+
+        if (!diff.isEmpty()) {
+            this.notifyListenersOfChange(new BroadcastDiff<>(diff), src, false);
+        }
+    }
+
+    /**
+     * Hands out a frozen copy of the stored stacks, shared with everyone else who asked since the last change. It has
+     * to be released once it is no longer used.
+     */
+    public StorageSnapshot<T> openSnapshot() {
+        if (this.snapshot == null) {
+            if (this.base == null || this.base.isInvalid()) {
+                this.base = new StorageSnapshot<>(this.myChannel, this.cachedList, MAX_SNAPSHOT_CHANGES);
+                this.openSnapshots.add(this.base);
+                this.snapshot = this.base;
+            } else {
+                this.snapshot = this.base.layer();
+            }
+        }
+
+        this.snapshot.retain();
+        this.openSnapshots.add(this.snapshot);
+        return this.snapshot;
+    }
+
+    private void recordSnapshotChange(final T change) {
+        final Iterator<StorageSnapshot<T>> i = this.openSnapshots.iterator();
+        while (i.hasNext()) {
+            final StorageSnapshot<T> s = i.next();
+            if (s.isInvalid() || (s.isReleased() && s != this.base)) {
+                i.remove();
+            } else {
+                s.recordChange(change);
+            }
+        }
+    }
+
+    private void invalidateSnapshots() {
+        this.base = null;
+        this.snapshot = null;
+
+        for (final StorageSnapshot<T> s : this.openSnapshots) {
+            s.invalidate();
+        }
+        this.openSnapshots.clear();
+    }
+
     protected void updateCraftables(Iterable<T> input, IActionSource src) {
         for (final T changedItem : input) {
             if (changedItem.isCraftable()) {
@@ -191,14 +322,41 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     }
 
     protected void postChange(final boolean add, final Iterable<T> changes, final IActionSource src) {
-        src2MonitorsMap.putIfAbsent(src, new LinkedList<>());
-        if (src2MonitorsMap.get(src).contains(this)) {
-            nestingSources.add(src);
+        final NestingContext context = NestingContext.current();
+        final int frame = context.enter(src, this);
+        if (frame < 0) {
             return;
         }
-        src2MonitorsMap.get(src).add(this);
 
+        try {
+            this.applyChange(add, changes, src);
+
+            if (context.isRoot(frame)) {
+                final boolean nested = context.isNested(frame);
+
+                for (int i = frame; i < context.getEnd(); i++) {
+                    final NetworkMonitor<?> networkMonitor = (NetworkMonitor<?>) context.getMember(frame, i);
+
+                    if (networkMonitor != null) {
+                        networkMonitor.isNested = nested;
+
+                        if (networkMonitor.isNested != networkMonitor.wasNested) {
+                            networkMonitor.wasNested = networkMonitor.isNested;
+                            networkMonitor.setForceUpdate(true);
+                        }
+                    }
+                }
+            }
+        } finally {
+            if (context.isRoot(frame)) {
+                context.leave(frame);
+            }
+        }
+    }
+
+    private void applyChange(final boolean add, final Iterable<T> changes, final IActionSource src) {
         this.sendEvent = true;
+        this.snapshot = null;
 
         for (final T change : changes) {
             //T change = changed;
@@ -209,44 +367,14 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
             incGridCurrentCount(change.getStackSize());
             this.cachedList.addStorage(change);
-
-            if (this.myGridCache.getInterestManager().containsKey(change)) {
-                final Collection<ItemWatcher> list = this.myGridCache.getInterestManager().get(change);
-
-                if (!list.isEmpty()) {
-                    IAEStack<T> fullStack = this.getStorageList().findPrecise(change);
-
-                    if (fullStack == null) {
-                        fullStack = change.copy();
-                        fullStack.setStackSize(0);
-                    }
-
-                    this.myGridCache.getInterestManager().enableTransactions();
-
-                    for (final ItemWatcher iw : list) {
-                        iw.getHost().onStackChange(this.getStorageList(), fullStack, change, src, this.getChannel());
-                    }
-
-                    this.myGridCache.getInterestManager().disableTransactions();
-                }
+            this.recordChange(change, src);
+            if (!this.openSnapshots.isEmpty()) {
+                this.recordSnapshotChange(change);
             }
+            this.notifyWatchersOfChange(change, src, true);
         }
 
-        this.notifyListenersOfChange(changes, src);
-
-        if (src2MonitorsMap.get(src).getFirst() == this) {
-            boolean nested = nestingSources.contains(src);
-            src2MonitorsMap.get(src).forEach(networkMonitor -> networkMonitor.isNested = nested);
-
-            src2MonitorsMap.get(src).forEach(networkMonitor -> {
-                if (networkMonitor.isNested != networkMonitor.wasNested) {
-                    networkMonitor.wasNested = networkMonitor.isNested;
-                    networkMonitor.setForceUpdate(true);
-                }
-            });
-            src2MonitorsMap.remove(src);
-            nestingSources.remove(src);
-        }
+        this.notifyListenersOfChange(changes, src, true);
     }
 
     public void setForceUpdate(boolean forceUpdate) {
@@ -255,6 +383,7 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
     void forceUpdate() {
         forceUpdate = false;
+        this.invalidateSnapshots();
         this.cachedList.resetStatus();
         this.getAvailableItems(this.cachedList);
 
@@ -304,6 +433,8 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     }
 
     void onTick() {
+        this.flushJournal();
+
         if (forceUpdate) {
             forceUpdate();
         }
@@ -30,6 +30,7 @@ import appeng.api.networking.pathing.IPathingGrid;
 import appeng.api.util.AEPartLocation;
 import appeng.api.util.DimensionalCoord;
 import appeng.core.AEConfig;
+import appeng.core.AELog;
 import appeng.core.AppEng;
 import appeng.core.features.AEFeature;
 import appeng.core.stats.IAdvancementTrigger;
@@ -41,11 +42,27 @@ import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 
 public class PathGridCache implements IPathingGrid {
 
-    private final List<PathSegment> active = new ArrayList<>();
+    private static final ExecutorService PATHING_POOL;
+
+    static {
+        final ThreadFactory factory = ar -> {
+            final Thread t = new Thread(ar, "AE Channel Pathfinder");
+            t.setDaemon(true);
+            return t;
+        };
+
+        PATHING_POOL = Executors.newSingleThreadExecutor(factory);
+    }
+
     private final Set<TileController> controllers = new HashSet<>();
     private final Set<IGridNode> requireChannels = new HashSet<>();
     private final Set<IGridNode> blockDense = new HashSet<>();
@@ -60,6 +77,12 @@ public class PathGridCache implements IPathingGrid {
     private int ticksUntilReady = 20;
     private int lastChannels = 0;
     private HashSet<IPathItem> semiOpen = new HashSet<>();
+    private int topologyGeneration = 0;
+    private boolean pathingRequested = false;
+    private ChannelPathfinder pathfinder;
+    private Future<ChannelPathfinder> pathing;
+    private final IncrementalPathing pendingChanges = new IncrementalPathing();
+    private int unassignedChannels = 0;
 
     public PathGridCache(final IGrid g) {
         this.myGrid = g;
@@ -71,6 +94,18 @@ public class PathGridCache implements IPathingGrid {
             this.recalcController();
         }
 
+        if (!this.pendingChanges.isEmpty()) {
+            final int unassigned = this.canUpdateIncrementally() ? this.pendingChanges.apply(this, this.myGrid, this.unassignedChannels) : -1;
+
+            if (unassigned >= 0) {
+                this.unassignedChannels = unassigned;
+                this.setChannelPowerUsage(this.getChannelsByBlocks() / 128.0);
+                this.achievementPost();
+            } else {
+                this.repath();
+            }
+        }
+
         if (this.updateNetwork) {
             if (!this.booting) {
                 this.myGrid.postEvent(new MENetworkBootingStatusChange());
@@ -101,40 +136,25 @@ public class PathGridCache implements IPathingGrid {
             } else {
                 final int nodes = this.myGrid.getNodes().size();
                 this.ticksUntilReady = 20 + Math.max(0, nodes / 100 - 20);
-                final HashSet<IPathItem> closedList = new HashSet<>();
-                this.semiOpen = new HashSet<>();
-
-                // myGrid.getPivot().beginVisit( new AdHocChannelUpdater( 0 )
-                // );
-                for (final IGridNode node : this.myGrid.getMachines(TileController.class)) {
-                    closedList.add((IPathItem) node);
-                    for (final IGridConnection gcc : node.getConnections()) {
-                        final GridConnection gc = (GridConnection) gcc;
-                        if (!(gc.getOtherSide(node).getMachine() instanceof TileController)) {
-                            final List<IPathItem> open = new ArrayList<>();
-                            closedList.add(gc);
-                            open.add(gc);
-                            gc.setControllerRoute((GridNode) node, true);
-                            this.active.add(new PathSegment(this, open, this.semiOpen, closedList));
-                        }
-                    }
-                }
+                this.pathingRequested = true;
             }
         }
 
-        if (!this.active.isEmpty() || this.ticksUntilReady > 0) {
-            final Iterator<PathSegment> i = this.active.iterator();
-            while (i.hasNext()) {
-                final PathSegment pat = i.next();
-                if (pat.step()) {
-                    pat.setDead(true);
-                    i.remove();
-                }
-            }
+        // only one search per grid at a time, any number of repaths while it runs result in a single new search.
+        if (this.pathingRequested && this.pathing == null) {
+            this.pathingRequested = false;
+            this.pathfinder = new ChannelPathfinder(this.topologyGeneration, this.myGrid.getNodes(), this.myGrid.getMachines(TileController.class));
+            this.pathing = PATHING_POOL.submit(this.pathfinder);
+        }
 
+        if (this.pathing != null && this.pathing.isDone()) {
+            this.finishPathing();
+        }
+
+        if (this.pathing != null || this.pathingRequested || this.ticksUntilReady > 0) {
             this.ticksUntilReady--;
 
-            if (this.active.isEmpty() && this.ticksUntilReady <= 0) {
+            if (this.pathing == null && !this.pathingRequested && this.ticksUntilReady <= 0) {
                 if (this.controllerState == ControllerState.CONTROLLER_ONLINE) {
                     final Iterator<TileController> controllerIterator = this.controllers.iterator();
                     if (controllerIterator.hasNext()) {
@@ -143,6 +163,8 @@ public class PathGridCache implements IPathingGrid {
                     }
                 }
 
+                this.unassignedChannels = this.countUnassignedChannels();
+
                 // check for achievements
                 this.achievementPost();
 
@@ -153,6 +175,32 @@ public class PathGridCache implements IPathingGrid {
         }
     }
 
+    private void finishPathing() {
+        final ChannelPathfinder finished = this.pathfinder;
+        ChannelPathfinder result;
+
+        try {
+            result = this.pathing.get();
+        } catch (final InterruptedException | ExecutionException e) {
+            AELog.warn(e, "Channel pathfinding failed, retrying on the server thread.");
+            result = null;
+        }
+
+        this.pathing = null;
+        this.pathfinder = null;
+
+        // stale results are dropped, the topology changed and a new search was already requested.
+        if (finished.getGeneration() != this.topologyGeneration || this.controllerState != ControllerState.CONTROLLER_ONLINE) {
+            return;
+        }
+
+        if (result == null) {
+            result = new ChannelPathfinder(this.topologyGeneration, this.myGrid.getNodes(), this.myGrid.getMachines(TileController.class)).call();
+        }
+
+        result.apply(this);
+    }
+
     @Override
     public void removeNode(final IGridNode gridNode, final IGridHost machine) {
         if (machine instanceof TileController) {
@@ -170,7 +218,18 @@ public class PathGridCache implements IPathingGrid {
             this.blockDense.remove(gridNode);
         }
 
-        this.repath();
+        if (!this.canUpdateIncrementally() || !this.pendingChanges.nodeRemoved(gridNode)) {
+            this.repath();
+        }
+    }
+
+    /**
+     * A node of this grid is destroyed, has to be called before it loses its connections.
+     */
+    public void nodeDestroyed(final GridNode node) {
+        if (!this.canUpdateIncrementally() || !this.pendingChanges.nodeDestroyed(node, node.getUsedChannels())) {
+            this.repath();
+        }
     }
 
     @Override
@@ -190,7 +249,44 @@ public class PathGridCache implements IPathingGrid {
             this.blockDense.add(gridNode);
         }
 
-        this.repath();
+        if (!this.canUpdateIncrementally() || !this.pendingChanges.nodeAdded(gridNode)) {
+            this.repath();
+        }
+    }
+
+    /**
+     * A connection of this grid was created, has to be called before it is added to its nodes.
+     */
+    public void connectionAdded(final GridConnection gc) {
+        if (!this.canUpdateIncrementally() || !this.pendingChanges.connectionAdded(gc)) {
+            this.repath();
+        }
+    }
+
+    /**
+     * A connection of this grid was destroyed, has to be called before it is removed from its nodes.
+     */
+    public void connectionRemoved(final GridConnection gc) {
+        if (!this.canUpdateIncrementally() || !this.pendingChanges.connectionRemoved(gc)) {
+            this.repath();
+        }
+    }
+
+    /**
+     * Changes to a fully routed controller network can be applied to the existing routes, without rebooting it.
+     */
+    private boolean canUpdateIncrementally() {
+        return AEConfig.instance().isIncrementalChannelUpdates() && this.controllerState == ControllerState.CONTROLLER_ONLINE && !this.recalculateControllerNextTick && !this.updateNetwork && !this.booting && this.pathing == null && !this.pathingRequested;
+    }
+
+    private int countUnassignedChannels() {
+        int unassigned = 0;
+        for (final IGridNode n : this.requireChannels) {
+            if (((GridNode) n).getUsedChannels() == 0) {
+                unassigned++;
+            }
+        }
+        return unassigned;
     }
 
     @Override
@@ -313,7 +409,7 @@ public class PathGridCache implements IPathingGrid {
 
     @Override
     public boolean isNetworkBooting() {
-        return !this.booting && !this.active.isEmpty();
+        return !this.booting && (this.pathing != null || this.pathingRequested);
     }
 
     @Override
@@ -324,7 +420,12 @@ public class PathGridCache implements IPathingGrid {
     @Override
     public void repath() {
         // clean up...
-        this.active.clear();
+        this.topologyGeneration++;
+        this.pathingRequested = false;
+        this.pendingChanges.clear();
+        if (this.pathfinder != null) {
+            this.pathfinder.cancel();
+        }
 
         this.setChannelsByBlocks(0);
         this.updateNetwork = true;
@@ -28,40 +28,56 @@ import appeng.api.networking.ticking.ITickManager;
 import appeng.api.networking.ticking.TickRateModulation;
 import appeng.api.networking.ticking.TickingRequest;
 import appeng.me.cache.helpers.TickTracker;
+import appeng.me.cache.helpers.TickWheel;
 import com.google.common.base.Preconditions;
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
 import net.minecraft.util.ReportedException;
 
 import java.util.HashMap;
-import java.util.PriorityQueue;
 
 
 public class TickManagerCache implements ITickManager {
 
     private final IGrid myGrid;
-    private final HashMap<IGridNode, TickTracker> alertable = new HashMap<>();
-    private final HashMap<IGridNode, TickTracker> sleeping = new HashMap<>();
-    private final HashMap<IGridNode, TickTracker> awake = new HashMap<>();
-    private final HashMap<IGridNode, TickTracker> laterTicker = new HashMap<>();
-    private final PriorityQueue<TickTracker> upcomingTicks = new PriorityQueue<>();
+    private final HashMap<IGridNode, TickTracker> trackers = new HashMap<>();
+    private final TickWheel upcomingTicks;
 
     private long currentTick = 0;
+    private long tickDeadline = Long.MAX_VALUE;
+    private int lastDeferred = 0;
+    private long totalDeferred = 0;
 
     public TickManagerCache(final IGrid g) {
         this.myGrid = g;
+        this.upcomingTicks = new TickWheel(this.currentTick + 1);
     }
 
     public long getCurrentTick() {
         return this.currentTick;
     }
 
-    public long getAvgNanoTime(final IGridNode node) {
-        TickTracker tt = this.awake.get(node);
+    /**
+     * Limits the next {@link #onUpdateTick()} to the given {@link System#nanoTime()}, due devices which did not get a
+     * turn are deferred to the next tick. {@link Long#MAX_VALUE} disables the limit.
+     */
+    public void setTickDeadline(final long deadline) {
+        this.tickDeadline = deadline;
+    }
 
-        if (tt == null) {
-            tt = this.sleeping.get(node);
-        }
+    /**
+     * @return number of devices deferred to the next tick during the last update
+     */
+    public int getLastDeferred() {
+        return this.lastDeferred;
+    }
+
+    public long getTotalDeferred() {
+        return this.totalDeferred;
+    }
+
+    public long getAvgNanoTime(final IGridNode node) {
+        final TickTracker tt = this.trackers.get(node);
 
         if (tt == null) {
             return -1;
@@ -76,17 +92,27 @@ public class TickManagerCache implements ITickManager {
 
         try {
             this.currentTick++;
-
-            while (!this.upcomingTicks.isEmpty()) {
-                tt = this.upcomingTicks.peek();
-
-                // Stop once it reaches a TickTracker running at a later tick
-                if (tt.getNextTick() > this.currentTick) {
+            this.upcomingTicks.startTick(this.currentTick);
+            this.lastDeferred = 0;
+
+            final boolean budgeted = this.tickDeadline != Long.MAX_VALUE;
+            int ticked = 0;
+
+            while (true) {
+                // always let one device through so a grid past the deadline still makes progress
+                if (budgeted && ticked > 0 && System.nanoTime() > this.tickDeadline) {
+                    tt = null;
+                    this.lastDeferred = this.upcomingTicks.deferRemaining();
+                    this.totalDeferred += this.lastDeferred;
                     break;
                 }
 
-                this.upcomingTicks.poll();
+                tt = this.upcomingTicks.poll();
+                if (tt == null) {
+                    break;
+                }
 
+                ticked++;
                 final int diff = (int) (this.currentTick - tt.getLastTick());
                 final TickRateModulation mod = tt.getGridTickable().tickingRequest(tt.getNode(), diff);
 
@@ -112,10 +138,12 @@ public class TickManagerCache implements ITickManager {
                         break;
                 }
 
-                if (this.awake.containsKey(tt.getNode())) {
+                if (tt.isAwake()) {
                     this.addToQueue(tt);
                 }
             }
+
+            this.upcomingTicks.endTick();
         } catch (final Throwable t) {
             final CrashReport crashreport = CrashReport.makeCrashReport(t, "Ticking GridNode");
             final CrashReportCategory crashreportcategory = crashreport.makeCategory(tt.getGridTickable().getClass().getSimpleName() + " being ticked.");
@@ -126,15 +154,18 @@ public class TickManagerCache implements ITickManager {
 
     private void addToQueue(final TickTracker tt) {
         tt.setLastTick(this.currentTick);
-        this.upcomingTicks.add(tt);
+        this.upcomingTicks.schedule(tt);
     }
 
     @Override
     public void removeNode(final IGridNode gridNode, final IGridHost machine) {
         if (machine instanceof IGridTickable) {
-            this.alertable.remove(gridNode);
-            this.sleeping.remove(gridNode);
-            this.awake.remove(gridNode);
+            final TickTracker tt = this.trackers.remove(gridNode);
+
+            if (tt != null) {
+                tt.setAwake(false);
+                this.upcomingTicks.remove(tt);
+            }
         }
     }
 
@@ -148,14 +179,10 @@ public class TickManagerCache implements ITickManager {
 
             final TickTracker tt = new TickTracker(tr, gridNode, (IGridTickable) machine, this.currentTick, this);
 
-            if (tr.canBeAlerted) {
-                this.alertable.put(gridNode, tt);
-            }
+            this.trackers.put(gridNode, tt);
 
-            if (tr.isSleeping) {
-                this.sleeping.put(gridNode, tt);
-            } else {
-                this.awake.put(gridNode, tt);
+            if (!tr.isSleeping) {
+                tt.setAwake(true);
                 this.addToQueue(tt);
             }
         }
@@ -180,24 +207,22 @@ public class TickManagerCache implements ITickManager {
     public boolean alertDevice(final IGridNode node) {
         Preconditions.checkNotNull(node);
 
-        final TickTracker tt = this.alertable.get(node);
-        if (tt == null) {
+        final TickTracker tt = this.trackers.get(node);
+        if (tt == null || !tt.isAlertable()) {
             return false;
         }
         // throw new RuntimeException(
         // "Invalid alerted device, this node is not marked as alertable, or part of this grid." );
 
         // set to awake, this is for sanity.
-        this.sleeping.remove(node);
-        this.awake.put(node, tt);
+        tt.setAwake(true);
 
         // configure sort.
         tt.setLastTick(tt.getLastTick() - tt.getRequest().maxTickRate);
         tt.setCurrentRate(tt.getRequest().minTickRate);
 
         // prevent dupes and tick build up.
-        this.upcomingTicks.remove(tt);
-        this.upcomingTicks.add(tt);
+        this.upcomingTicks.schedule(tt);
 
         return true;
     }
@@ -206,10 +231,10 @@ public class TickManagerCache implements ITickManager {
     public boolean sleepDevice(final IGridNode node) {
         Preconditions.checkNotNull(node);
 
-        if (this.awake.containsKey(node)) {
-            final TickTracker gt = this.awake.get(node);
-            this.awake.remove(node);
-            this.sleeping.put(node, gt);
+        final TickTracker tt = this.trackers.get(node);
+        if (tt != null && tt.isAwake()) {
+            tt.setAwake(false);
+            this.upcomingTicks.remove(tt);
 
             return true;
         }
@@ -221,12 +246,10 @@ public class TickManagerCache implements ITickManager {
     public boolean wakeDevice(final IGridNode node) {
         Preconditions.checkNotNull(node);
 
-        if (this.sleeping.containsKey(node)) {
-            final TickTracker gt = this.sleeping.get(node);
-            this.sleeping.remove(node);
-            this.awake.put(node, gt);
-            this.upcomingTicks.remove(gt);
-            this.addToQueue(gt);
+        final TickTracker tt = this.trackers.get(node);
+        if (tt != null && !tt.isAwake()) {
+            tt.setAwake(true);
+            this.addToQueue(tt);
 
             return true;
         }
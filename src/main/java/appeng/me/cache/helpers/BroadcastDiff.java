@@ -0,0 +1,65 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+
+import appeng.api.storage.data.IAEStack;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * The changes a network passes to all of its listeners at the end of a tick. Every listener receives the same
+ * instance, so listeners which turn the changes into the same thing, like terminals encoding them into an update
+ * packet, can do it once and share the result.
+ */
+public final class BroadcastDiff<T extends IAEStack<T>> implements Iterable<T> {
+
+    private final List<T> changes;
+    private Object encoded;
+
+    public BroadcastDiff(final List<T> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this.changes.iterator();
+    }
+
+    /**
+     * @return the result of the encoder, which only runs for the first caller
+     */
+    @SuppressWarnings("unchecked")
+    public <E> E getEncoded(final Encoder<T, E> encoder) throws IOException {
+        if (this.encoded == null) {
+            this.encoded = encoder.encode(this.changes);
+        }
+
+        return (E) this.encoded;
+    }
+
+    @FunctionalInterface
+    public interface Encoder<T extends IAEStack<T>, E> {
+        E encode(List<T> changes) throws IOException;
+    }
+}
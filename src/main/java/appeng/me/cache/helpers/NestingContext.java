@@ -0,0 +1,151 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+
+import java.util.Arrays;
+import java.util.Objects;
+
+
+/**
+ * Tracks which monitors took part in the change operations currently running on this thread, to find storage bus
+ * loops between networks.
+ *
+ * An operation belongs to one action source and starts at the first monitor which receives a change from it, its root.
+ * Every monitor reached by the same source afterwards joins the operation, a monitor which is reached a second time
+ * marks the operation as nested. Operations of different sources nest like the calls which run them, so sources are
+ * kept as a stack and members in one flat array, both reused between operations.
+ */
+public final class NestingContext {
+
+    private static final ThreadLocal<NestingContext> CURRENT = ThreadLocal.withInitial(NestingContext::new);
+
+    private Object[] sources = new Object[4];
+    private int[] roots = new int[4];
+    private boolean[] nested = new boolean[4];
+    private int sourceCount;
+
+    private Object[] members = new Object[16];
+    private int[] memberSources = new int[16];
+    private int memberCount;
+
+    public static NestingContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Adds the member to the running operation of the source, or starts a new one.
+     *
+     * @return the frame of the member, or -1 if it already took part in the operation, which is then nested.
+     */
+    public int enter(final Object source, final Object member) {
+        int s = this.indexOfSource(source);
+
+        if (s < 0) {
+            s = this.pushSource(source);
+        } else {
+            for (int i = this.roots[s]; i < this.memberCount; i++) {
+                if (this.memberSources[i] == s && this.members[i] == member) {
+                    this.nested[s] = true;
+                    return -1;
+                }
+            }
+        }
+
+        if (this.memberCount == this.members.length) {
+            this.members = Arrays.copyOf(this.members, this.memberCount * 2);
+            this.memberSources = Arrays.copyOf(this.memberSources, this.memberCount * 2);
+        }
+
+        this.members[this.memberCount] = member;
+        this.memberSources[this.memberCount] = s;
+        return this.memberCount++;
+    }
+
+    /**
+     * @return true if the frame started its operation
+     */
+    public boolean isRoot(final int frame) {
+        return this.roots[this.memberSources[frame]] == frame;
+    }
+
+    public boolean isNested(final int frame) {
+        return this.nested[this.memberSources[frame]];
+    }
+
+    /**
+     * @return the end of the frames which can belong to the operation, see {@link #getMember(int, int)}
+     */
+    public int getEnd() {
+        return this.memberCount;
+    }
+
+    /**
+     * @return the member at the other frame if it belongs to the same operation as the frame, otherwise null
+     */
+    public Object getMember(final int frame, final int other) {
+        return this.memberSources[other] == this.memberSources[frame] ? this.members[other] : null;
+    }
+
+    /**
+     * Ends the operation started by the given root frame.
+     */
+    public void leave(final int frame) {
+        final int s = this.memberSources[frame];
+
+        int kept = frame;
+        for (int i = frame; i < this.memberCount; i++) {
+            if (this.memberSources[i] != s) {
+                this.members[kept] = this.members[i];
+                this.memberSources[kept] = this.memberSources[i];
+                kept++;
+            }
+        }
+
+        Arrays.fill(this.members, kept, this.memberCount, null);
+        this.memberCount = kept;
+
+        // operations end in the reverse order they started in
+        this.sourceCount = s;
+        this.sources[s] = null;
+        this.nested[s] = false;
+    }
+
+    private int indexOfSource(final Object source) {
+        for (int s = this.sourceCount - 1; s >= 0; s--) {
+            if (Objects.equals(this.sources[s], source)) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    private int pushSource(final Object source) {
+        if (this.sourceCount == this.sources.length) {
+            this.sources = Arrays.copyOf(this.sources, this.sourceCount * 2);
+            this.roots = Arrays.copyOf(this.roots, this.sourceCount * 2);
+            this.nested = Arrays.copyOf(this.nested, this.sourceCount * 2);
+        }
+
+        this.sources[this.sourceCount] = source;
+        this.roots[this.sourceCount] = this.memberCount;
+        this.nested[this.sourceCount] = false;
+        return this.sourceCount++;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+
+import appeng.api.storage.IStorageChannel;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IItemList;
+import appeng.util.inv.ItemListOverlay;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A frozen copy of the storage list of a network, which crafting calculations read from their own threads.
+ *
+ * The copy only holds stored stacks and is never modified, so it can be shared by every calculation started while the
+ * network contents stay the same. While it is in use, the network records the changes made to its contents since the
+ * copy was taken, which lets a calculation find out whether it planned with items which are gone by now.
+ *
+ * Once the contents changed, the next snapshot is layered over the same copy and only holds the stacks which changed
+ * since, so the whole list is only copied again when too many stacks changed.
+ */
+public final class StorageSnapshot<T extends IAEStack<T>> {
+
+    private final IItemList<T> base;
+    @Nullable
+    private final IItemList<T> layer;
+    private final IItemList<T> list;
+    private final IStorageChannel<T> channel;
+    private final IItemList<T> changes;
+    private final int maxChanges;
+    private final AtomicInteger users = new AtomicInteger();
+    private int changeCount;
+    private volatile boolean invalid = false;
+
+    public StorageSnapshot(final IStorageChannel<T> channel, final IItemList<T> source, final int maxChanges) {
+        this.base = channel.createList();
+        this.layer = null;
+        this.list = this.base;
+        this.channel = channel;
+        this.changes = channel.createList();
+        this.maxChanges = maxChanges;
+
+        for (final T stack : source) {
+            if (stack.getStackSize() > 0) {
+                this.base.add(stored(stack));
+            }
+        }
+    }
+
+    private StorageSnapshot(final StorageSnapshot<T> below) {
+        this.base = below.base;
+        this.layer = below.channel.createList();
+        this.channel = below.channel;
+        this.changes = below.channel.createList();
+        this.maxChanges = below.maxChanges;
+
+        final ItemListOverlay<T> overlay = new ItemListOverlay<>(this.base, this.layer);
+        synchronized (below) {
+            for (final T change : below.changes) {
+                overlay.addStorage(stored(change));
+
+                final T stack = overlay.findPrecise(change);
+                if (stack.getStackSize() < 0) {
+                    stack.setStackSize(0);
+                }
+            }
+        }
+        this.list = overlay;
+    }
+
+    private static <T extends IAEStack<T>> T stored(final T stack) {
+        final T copy = stack.copy();
+        copy.setCraftable(false);
+        copy.setCountRequestable(0);
+        return copy;
+    }
+
+    /**
+     * Only valid for a snapshot which is not layered over another one and still valid.
+     *
+     * @return a snapshot of the current contents, layered over the copy of this one
+     */
+    public StorageSnapshot<T> layer() {
+        return new StorageSnapshot<>(this);
+    }
+
+    /**
+     * @return the stored stacks at the time the snapshot was taken, must not be modified, only read through an
+     * {@link ItemListOverlay}
+     */
+    public IItemList<T> getList() {
+        return this.list;
+    }
+
+    /**
+     * @return the stored stack at the time the snapshot was taken, must not be modified
+     */
+    @Nullable
+    public T findStored(final T stack) {
+        final T changed = this.layer != null ? this.layer.findPrecise(stack) : null;
+        return changed != null ? changed : this.base.findPrecise(stack);
+    }
+
+    public void retain() {
+        this.users.incrementAndGet();
+    }
+
+    public void release() {
+        this.users.decrementAndGet();
+    }
+
+    public boolean isReleased() {
+        return this.users.get() <= 0;
+    }
+
+    /**
+     * Records a change of the network contents, a snapshot which collected too many of them is invalidated instead.
+     */
+    public synchronized void recordChange(final T change) {
+        if (this.invalid) {
+            return;
+        }
+
+        if (this.changes.findPrecise(change) == null && ++this.changeCount > this.maxChanges) {
+            this.invalidate();
+            return;
+        }
+
+        this.changes.addStorage(change);
+    }
+
+    /**
+     * @return the net change of the stack since the snapshot was taken
+     */
+    public synchronized long getChange(final T stack) {
+        final T change = this.changes.findPrecise(stack);
+        return change != null ? change.getStackSize() : 0;
+    }
+
+    /**
+     * @return a copy of the net changes since the snapshot was taken
+     */
+    public synchronized IItemList<T> copyChanges(final IItemList<T> out) {
+        for (final T change : this.changes) {
+            if (change.getStackSize() != 0) {
+                out.add(change);
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * Marks the snapshot as unusable, for changes which can not be recorded one by one.
+     */
+    public synchronized void invalidate() {
+        this.invalid = true;
+        this.changes.resetStatus();
+    }
+
+    public boolean isInvalid() {
+        return this.invalid;
+    }
+}
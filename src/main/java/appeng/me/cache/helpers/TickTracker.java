@@ -40,6 +40,12 @@ public class TickTracker implements Comparable<TickTracker> {
 
     private long lastTick;
     private int currentRate;
+    private boolean awake;
+
+    // links for the TickWheel bucket this tracker is currently scheduled in
+    TickWheel.Bucket bucket;
+    TickTracker wheelPrev;
+    TickTracker wheelNext;
 
     public TickTracker(final TickingRequest req, final IGridNode node, final IGridTickable gt, final long currentTick, final TickManagerCache tickManagerCache) {
         this.request = req;
@@ -110,6 +116,18 @@ public class TickTracker implements Comparable<TickTracker> {
         this.lastTick = lastTick;
     }
 
+    public boolean isAwake() {
+        return this.awake;
+    }
+
+    public void setAwake(final boolean awake) {
+        this.awake = awake;
+    }
+
+    public boolean isAlertable() {
+        return this.request.canBeAlerted;
+    }
+
     public IGridNode getNode() {
         return this.node;
     }
@@ -0,0 +1,219 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+
+/**
+ * Hierarchical timing wheel for {@link TickTracker}s.
+ *
+ * The near wheel has one bucket per tick for the next 64 ticks, the far wheel one bucket per 64 ticks for the next
+ * 4096 ticks, anything further away waits in an overflow bucket. Far buckets are cascaded into the near wheel when the
+ * cursor enters their range, so scheduling, removal and polling are all O(1) for the tick rates devices actually use.
+ *
+ * Buckets are intrusive linked lists threaded through the trackers themselves, no allocation happens while ticking.
+ */
+public class TickWheel {
+
+    private static final int BITS = 6;
+    private static final int SIZE = 1 << BITS;
+    private static final int MASK = SIZE - 1;
+    private static final long FAR_SPAN = (long) SIZE * SIZE;
+
+    private final Bucket[] near = new Bucket[SIZE];
+    private final Bucket[] far = new Bucket[SIZE];
+    private final Bucket overflow = new Bucket();
+
+    /**
+     * The earliest tick which can still be drained, either the tick currently being processed or the next one.
+     */
+    private long cursor;
+    private int size;
+
+    public TickWheel(final long firstTick) {
+        for (int x = 0; x < SIZE; x++) {
+            this.near[x] = new Bucket();
+            this.far[x] = new Bucket();
+        }
+        this.cursor = firstTick;
+    }
+
+    /**
+     * Schedules the tracker for {@link TickTracker#getNextTick()}, overdue trackers are scheduled for the current
+     * tick. A tracker which is already scheduled is moved.
+     */
+    public void schedule(final TickTracker tt) {
+        if (tt.bucket != null) {
+            this.remove(tt);
+        }
+
+        final long due = Math.max(tt.getNextTick(), this.cursor);
+        final long delta = due - this.cursor;
+
+        final Bucket target;
+        if (delta < SIZE) {
+            target = this.near[(int) (due & MASK)];
+        } else if (delta < FAR_SPAN) {
+            target = this.far[(int) ((due >> BITS) & MASK)];
+        } else {
+            target = this.overflow;
+        }
+
+        target.append(tt);
+        this.size++;
+    }
+
+    /**
+     * @return true if the tracker was scheduled
+     */
+    public boolean remove(final TickTracker tt) {
+        if (tt.bucket == null) {
+            return false;
+        }
+
+        tt.bucket.unlink(tt);
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Moves the cursor to the given tick, which must be the tick following the last one passed to
+     * {@link #endTick()}, and cascades far buckets which start at this tick.
+     */
+    public void startTick(final long tick) {
+        this.cursor = tick;
+
+        if ((tick & MASK) == 0) {
+            if (tick % FAR_SPAN == 0) {
+                this.cascade(this.overflow);
+            }
+            this.cascade(this.far[(int) ((tick >> BITS) & MASK)]);
+        }
+    }
+
+    /**
+     * @return the next tracker due at the current tick, or null once the tick is drained. Trackers scheduled for the
+     * current tick while draining are returned by the same pass.
+     */
+    public TickTracker poll() {
+        final Bucket current = this.near[(int) (this.cursor & MASK)];
+        final TickTracker tt = current.head;
+
+        if (tt != null) {
+            current.unlink(tt);
+            this.size--;
+        }
+
+        return tt;
+    }
+
+    /**
+     * Moves every tracker still waiting in the current tick to the front of the next tick, so work deferred because
+     * of the tick budget is picked up first next time.
+     *
+     * @return number of deferred trackers
+     */
+    public int deferRemaining() {
+        final Bucket current = this.near[(int) (this.cursor & MASK)];
+        final Bucket next = this.near[(int) ((this.cursor + 1) & MASK)];
+
+        if (current.head == null) {
+            return 0;
+        }
+
+        int deferred = 0;
+        for (TickTracker tt = current.head; tt != null; tt = tt.wheelNext) {
+            tt.bucket = next;
+            deferred++;
+        }
+
+        current.tail.wheelNext = next.head;
+        if (next.head == null) {
+            next.tail = current.tail;
+        } else {
+            next.head.wheelPrev = current.tail;
+        }
+        next.head = current.head;
+
+        current.head = null;
+        current.tail = null;
+
+        return deferred;
+    }
+
+    public void endTick() {
+        this.cursor++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private void cascade(final Bucket bucket) {
+        TickTracker tt = bucket.head;
+        bucket.head = null;
+        bucket.tail = null;
+
+        while (tt != null) {
+            final TickTracker next = tt.wheelNext;
+            tt.wheelPrev = null;
+            tt.wheelNext = null;
+            tt.bucket = null;
+            this.size--;
+            this.schedule(tt);
+            tt = next;
+        }
+    }
+
+    static final class Bucket {
+
+        private TickTracker head;
+        private TickTracker tail;
+
+        private void append(final TickTracker tt) {
+            tt.bucket = this;
+            tt.wheelPrev = this.tail;
+            tt.wheelNext = null;
+
+            if (this.tail == null) {
+                this.head = tt;
+            } else {
+                this.tail.wheelNext = tt;
+            }
+            this.tail = tt;
+        }
+
+        private void unlink(final TickTracker tt) {
+            if (tt.wheelPrev == null) {
+                this.head = tt.wheelNext;
+            } else {
+                tt.wheelPrev.wheelNext = tt.wheelNext;
+            }
+
+            if (tt.wheelNext == null) {
+                this.tail = tt.wheelPrev;
+            } else {
+                tt.wheelNext.wheelPrev = tt.wheelPrev;
+            }
+
+            tt.wheelPrev = null;
+            tt.wheelNext = null;
+            tt.bucket = null;
+        }
+    }
+}
@@ -52,6 +52,7 @@ import appeng.util.item.AEItemStack;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -70,6 +71,12 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
     private final WorldCoord max;
     private final int[] usedOps = new int[3];
     private final Map<ICraftingPatternDetails, TaskProgress> tasks = new HashMap<>();
+    // the tasks which are tried each tick, the others wait until one of their inputs arrives
+    private final Set<ICraftingPatternDetails> readyTasks = new LinkedHashSet<>();
+    private final Map<Item, Set<ICraftingPatternDetails>> blockedTasks = new HashMap<>();
+    private int busyTasks;
+    // the largest batches to try after the mediums refused larger ones
+    private final Map<ICraftingPatternDetails, Integer> batchLimits = new HashMap<>();
     // INSTANCE sate
     private final List<TileCraftingTile> tiles = new ArrayList<>();
     private final List<TileCraftingTile> storage = new ArrayList<>();
@@ -272,6 +279,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                     }
 
                     // 2000
+                    this.wakeTasks(what);
                     return this.inventory.injectItems(what, type, src);
                 }
 
@@ -302,6 +310,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                     return leftover; // ignore it.
                 }
 
+                this.wakeTasks(insert);
                 this.inventory.injectItems(insert, type, src);
                 this.markDirty();
 
@@ -507,7 +516,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
         this.isComplete = true;
         this.myLastLink = null;
-        this.tasks.clear();
+        this.clearTasks();
 
         // final ImmutableSet<IAEItemStack> items = ImmutableSet.copyOf( this.waitingFor );
         final List<IAEItemStack> items = new ArrayList<>(this.waitingFor.size());
@@ -571,20 +580,24 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
     }
 
     private void executeCrafting(final IEnergyGrid eg, final CraftingGridCache cc) {
-        final Iterator<Entry<ICraftingPatternDetails, TaskProgress>> i = this.tasks.entrySet().iterator();
+        this.busyTasks = 0;
 
-        while (i.hasNext()) {
-            final Entry<ICraftingPatternDetails, TaskProgress> e = i.next();
+        // pushing a pattern can insert items into this cpu, which wakes up tasks
+        for (final ICraftingPatternDetails details : this.readyTasks.toArray(new ICraftingPatternDetails[0])) {
+            final TaskProgress progress = this.tasks.get(details);
 
-            if (e.getValue().value <= 0) {
-                i.remove();
+            if (progress == null || progress.value <= 0) {
+                this.tasks.remove(details);
+                this.readyTasks.remove(details);
                 continue;
             }
 
-            final ICraftingPatternDetails details = e.getKey();
-
-            if (this.canCraft(details, details.getCondensedInputs())) {
+            if (!this.canCraft(details, details.getCondensedInputs())) {
+                this.blockTask(details);
+            } else {
+                final long crafts = progress.value;
                 InventoryCrafting ic = null;
+                int multiplier = 1;
 
                 if (!visitedMediums.containsKey(details) || visitedMediums.get(details).isEmpty()) {
                     visitedMediums.put(details, new ArrayDeque<>(cc.getMediums(details).stream().filter(Objects::nonNull).collect(Collectors.toList())));
@@ -594,18 +607,24 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
                     ICraftingMedium m = visitedMediums.get(details).poll();
 
-                    if (e.getValue().value <= 0) {
+                    if (progress.value <= 0) {
                         continue;
                     }
 
                     if (m != null && !m.isBusy()) {
+                        // the inputs were taken out for a batch this medium can not take
+                        if (ic != null && multiplier > m.getMaxBatchSize(details)) {
+                            continue;
+                        }
+
                         if (ic == null) {
                             final IAEItemStack[] input = details.getInputs();
+                            multiplier = this.getBatchMultiplier(m, details, progress.value);
                             double sum = 0;
 
                             for (final IAEItemStack anInput : input) {
                                 if (anInput != null) {
-                                    sum += anInput.getStackSize();
+                                    sum += anInput.getStackSize() * multiplier;
                                 }
                             }
 
@@ -663,13 +682,14 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                                             }
                                         }
                                     } else {
-                                        final IAEItemStack ais = this.inventory.extractItems(input[x].copy(), Actionable.MODULATE, this.machineSrc);
+                                        final IAEItemStack wanted = input[x].copy().setStackSize(input[x].getStackSize() * multiplier);
+                                        final IAEItemStack ais = this.inventory.extractItems(wanted.copy(), Actionable.MODULATE, this.machineSrc);
                                         final ItemStack is = ais == null ? ItemStack.EMPTY : ais.createItemStack();
 
                                         if (!is.isEmpty()) {
-                                            this.postChange(input[x], this.machineSrc);
+                                            this.postChange(wanted, this.machineSrc);
                                             ic.setInventorySlotContents(x, is);
-                                            if (is.getCount() == input[x].getStackSize()) {
+                                            if (is.getCount() == wanted.getStackSize()) {
                                                 found = true;
                                                 continue;
                                             }
@@ -695,14 +715,15 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                             }
                         }
 
-                        if (m.pushPattern(details, ic)) {
+                        if (multiplier == 1 ? m.pushPattern(details, ic) : m.pushPatternBatch(details, ic, multiplier)) {
                             this.somethingChanged = true;
-                            this.remainingOperations--;
+                            this.remainingOperations -= multiplier;
 
                             for (final IAEItemStack out : details.getCondensedOutputs()) {
-                                this.postChange(out, this.machineSrc);
-                                this.waitingFor.add(out.copy());
-                                this.postCraftingStatusChange(out.copy());
+                                final IAEItemStack expected = out.copy().setStackSize(out.getStackSize() * multiplier);
+                                this.postChange(expected, this.machineSrc);
+                                this.waitingFor.add(expected.copy());
+                                this.postCraftingStatusChange(expected.copy());
                             }
 
                             if (details.isCraftable()) {
@@ -720,8 +741,17 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                             ic = null; // hand off complete!
                             this.markDirty();
 
-                            e.getValue().value--;
-                            if (e.getValue().value <= 0) {
+                            final Integer limit = this.batchLimits.get(details);
+                            if (limit != null && multiplier >= limit) {
+                                if (limit * 2 >= m.getMaxBatchSize(details)) {
+                                    this.batchLimits.remove(details);
+                                } else {
+                                    this.batchLimits.put(details, limit * 2);
+                                }
+                            }
+
+                            progress.value -= multiplier;
+                            if (progress.value <= 0) {
                                 continue;
                             }
 
@@ -740,11 +770,83 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                             this.inventory.injectItems(AEItemStack.fromItemStack(is), Actionable.MODULATE, this.machineSrc);
                         }
                     }
+
+                    // no medium took the whole batch, so try a smaller one next time
+                    if (multiplier > 1) {
+                        this.batchLimits.put(details, multiplier / 2);
+                    }
+                }
+
+                if (progress.value == crafts) {
+                    this.busyTasks++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops trying the task until an item it could use as an input arrives.
+     */
+    private void blockTask(final ICraftingPatternDetails details) {
+        this.readyTasks.remove(details);
+
+        final IAEItemStack[] inputs = details.getInputs();
+        for (int x = 0; x < inputs.length; x++) {
+            if (inputs[x] != null) {
+                this.blockedTasks.computeIfAbsent(inputs[x].getItem(), k -> new HashSet<>()).add(details);
+            }
+
+            if (details.isCraftable() && details.canSubstitute()) {
+                for (final IAEItemStack substitute : details.getSubstituteInputs(x)) {
+                    this.blockedTasks.computeIfAbsent(substitute.getItem(), k -> new HashSet<>()).add(details);
+                }
+            }
+        }
+    }
+
+    private void wakeTasks(final IAEItemStack arrived) {
+        final Set<ICraftingPatternDetails> waiting = this.blockedTasks.remove(arrived.getItem());
+        if (waiting != null) {
+            for (final ICraftingPatternDetails details : waiting) {
+                if (this.tasks.containsKey(details)) {
+                    this.readyTasks.add(details);
                 }
             }
         }
     }
 
+    private void clearTasks() {
+        this.tasks.clear();
+        this.readyTasks.clear();
+        this.blockedTasks.clear();
+        this.batchLimits.clear();
+        this.busyTasks = 0;
+    }
+
+    /**
+     * @return how many crafts of a processing pattern can be pushed to the medium at once, limited by the crafts left,
+     * the operations left this tick, the inputs stored in the cpu and the batches refused before
+     */
+    private int getBatchMultiplier(final ICraftingMedium m, final ICraftingPatternDetails details, final long remaining) {
+        if (details.isCraftable()) {
+            return 1;
+        }
+
+        long multiplier = Math.min(Math.min(remaining, this.remainingOperations), m.getMaxBatchSize(details));
+        multiplier = Math.min(multiplier, this.batchLimits.getOrDefault(details, Integer.MAX_VALUE));
+        for (final IAEItemStack input : details.getCondensedInputs()) {
+            if (multiplier <= 1) {
+                break;
+            }
+
+            final IAEItemStack wanted = input.copy().setStackSize(input.getStackSize() * multiplier);
+            final IAEItemStack ais = this.inventory.extractItems(wanted, Actionable.SIMULATE, this.machineSrc);
+            multiplier = Math.min(multiplier, ais == null ? 0 : ais.getStackSize() / input.getStackSize());
+        }
+
+        return (int) Math.max(1, multiplier);
+    }
+
     private void storeItems() {
         Preconditions.checkState(isComplete, "CPU should be complete to prevent re-insertion when dumping items");
         final IGrid g = this.getGrid();
@@ -826,11 +928,11 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
                 return whatLink;
             } else {
-                this.tasks.clear();
+                this.clearTasks();
                 this.inventory.getItemList().resetStatus();
             }
         } catch (final CraftBranchFailure e) {
-            this.tasks.clear();
+            this.clearTasks();
             this.inventory.getItemList().resetStatus();
             // AELog.error( e );
         }
@@ -842,6 +944,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
     public boolean isBusy() {
 
         this.tasks.entrySet().removeIf(taskProgressEntry -> taskProgressEntry.getValue().value <= 0);
+        this.readyTasks.retainAll(this.tasks.keySet());
 
         if (!this.waitingFor.isEmpty() || !this.tasks.isEmpty()) {
             this.updateElapsedTime();
@@ -865,6 +968,27 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         return this.accelerator;
     }
 
+    /**
+     * @return the number of tasks which could be pushed last tick
+     */
+    public int getReadyTaskCount() {
+        return Math.max(0, this.readyTasks.size() - this.busyTasks);
+    }
+
+    /**
+     * @return the number of tasks waiting for their inputs
+     */
+    public int getBlockedTaskCount() {
+        return Math.max(0, this.tasks.size() - this.readyTasks.size());
+    }
+
+    /**
+     * @return the number of tasks which had their inputs last tick, but no machine to push them to
+     */
+    public int getBusyTaskCount() {
+        return this.busyTasks;
+    }
+
     @Override
     public String getName() {
         return this.myName;
@@ -967,6 +1091,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         }
 
         i.value += crafts;
+        this.readyTasks.add(details);
     }
 
     public IAEItemStack getItemStack(final IAEItemStack what, final CraftingItemList storage2) {
@@ -1094,6 +1219,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                     final TaskProgress tp = new TaskProgress();
                     tp.value = item.getLong("craftingProgress");
                     this.tasks.put(details, tp);
+                    this.readyTasks.add(details);
                 }
             }
         }
@@ -0,0 +1,366 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.pathfinding;
+
+
+import appeng.api.networking.GridFlags;
+import appeng.api.networking.IGridBlock;
+import appeng.api.networking.IGridConnection;
+import appeng.api.networking.IGridMultiblock;
+import appeng.api.networking.IGridNode;
+import appeng.me.GridConnection;
+import appeng.me.GridNode;
+import appeng.me.cache.PathGridCache;
+import appeng.tile.networking.TileController;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+
+/**
+ * Controller channel assignment on a snapshot of the grid topology.
+ *
+ * The snapshot is taken on the server thread, {@link #call()} runs the same breadth first search the path segments
+ * used to run one layer per tick, but only on the snapshot's id arrays so it is safe to run on a worker thread.
+ * {@link #apply(PathGridCache)} then replays the resulting routes and channel counts onto the real nodes and
+ * connections, which has to happen on the server thread again.
+ */
+public class ChannelPathfinder implements Callable<ChannelPathfinder> {
+
+    private static final int REQUIRE_CHANNEL = 1;
+    private static final int COMPRESSED_CHANNEL = 1 << 1;
+    private static final int MULTIBLOCK = 1 << 2;
+    private static final int CANNOT_CARRY = 1 << 3;
+    private static final int CANNOT_CARRY_COMPRESSED = 1 << 4;
+
+    private static final int CONNECTION_MAX_CHANNELS = 128;
+
+    private final int generation;
+
+    // ids [0, nodeCount) are nodes, [nodeCount, items.length) are connections
+    private final IPathItem[] items;
+    private final int nodeCount;
+    private final int[] flags;
+    private final int[] maxChannels;
+    private final int[][] nodeConnections;
+    private final int[][] multiblockNodes;
+    private final int[] connectionA;
+    private final int[] connectionB;
+    private final int[] controllers;
+    private final boolean[] isController;
+
+    private final int[] used;
+    private final boolean[] closed;
+    private final boolean[] semiOpen;
+    private final IntArrayList routeLog = new IntArrayList();
+    private int channelsInUse;
+    private int channelsByBlocks;
+
+    private volatile boolean cancelled;
+
+    public ChannelPathfinder(final int generation, final Iterable<IGridNode> gridNodes, final Iterable<IGridNode> controllerNodes) {
+        this.generation = generation;
+
+        final Reference2IntMap<IPathItem> ids = new Reference2IntOpenHashMap<>();
+        ids.defaultReturnValue(-1);
+
+        final List<IPathItem> nodes = new ArrayList<>();
+        final List<IPathItem> connections = new ArrayList<>();
+
+        for (final IGridNode n : gridNodes) {
+            ids.put((IPathItem) n, nodes.size());
+            nodes.add((IPathItem) n);
+        }
+
+        this.nodeCount = nodes.size();
+
+        for (final IPathItem n : nodes) {
+            for (final IGridConnection gc : ((IGridNode) n).getConnections()) {
+                if (!ids.containsKey(gc)) {
+                    ids.put((IPathItem) gc, this.nodeCount + connections.size());
+                    connections.add((IPathItem) gc);
+                }
+            }
+        }
+
+        final int size = this.nodeCount + connections.size();
+        this.items = new IPathItem[size];
+        this.flags = new int[size];
+        this.maxChannels = new int[size];
+        this.nodeConnections = new int[this.nodeCount][];
+        this.multiblockNodes = new int[this.nodeCount][];
+        this.isController = new boolean[this.nodeCount];
+        this.connectionA = new int[connections.size()];
+        this.connectionB = new int[connections.size()];
+        this.used = new int[size];
+        this.closed = new boolean[size];
+        this.semiOpen = new boolean[size];
+
+        for (int id = 0; id < this.nodeCount; id++) {
+            final GridNode gn = (GridNode) nodes.get(id);
+            final IGridBlock gb = gn.getGridBlock();
+            final EnumSet<GridFlags> gf = gn.getFlags();
+
+            this.items[id] = gn;
+            this.flags[id] = getFlagBits(gf);
+            this.maxChannels[id] = gn.getMaxChannels();
+            this.isController[id] = gn.getMachine() instanceof TileController;
+
+            final int[] conns = new int[gn.getConnections().size()];
+            int x = 0;
+            for (final IGridConnection gc : gn.getConnections()) {
+                conns[x++] = ids.getInt(gc);
+            }
+            this.nodeConnections[id] = conns;
+
+            if (gf.contains(GridFlags.MULTIBLOCK) && gb instanceof IGridMultiblock) {
+                final IntArrayList others = new IntArrayList();
+                final Iterator<IGridNode> i = ((IGridMultiblock) gb).getMultiblockNodes();
+                while (i.hasNext()) {
+                    final int other = ids.getInt(i.next());
+                    if (other >= 0 && other != id) {
+                        others.add(other);
+                    }
+                }
+                this.multiblockNodes[id] = others.toIntArray();
+            }
+        }
+
+        for (int x = 0; x < connections.size(); x++) {
+            final GridConnection gc = (GridConnection) connections.get(x);
+            final int id = this.nodeCount + x;
+
+            this.items[id] = gc;
+            this.maxChannels[id] = CONNECTION_MAX_CHANNELS;
+            this.connectionA[x] = ids.getInt(gc.a());
+            this.connectionB[x] = ids.getInt(gc.b());
+        }
+
+        final IntArrayList ctrl = new IntArrayList();
+        for (final IGridNode n : controllerNodes) {
+            ctrl.add(ids.getInt(n));
+        }
+        this.controllers = ctrl.toIntArray();
+    }
+
+    private static int getFlagBits(final EnumSet<GridFlags> gf) {
+        int bits = 0;
+        if (gf.contains(GridFlags.REQUIRE_CHANNEL)) {
+            bits |= REQUIRE_CHANNEL;
+        }
+        if (gf.contains(GridFlags.COMPRESSED_CHANNEL)) {
+            bits |= COMPRESSED_CHANNEL;
+        }
+        if (gf.contains(GridFlags.MULTIBLOCK)) {
+            bits |= MULTIBLOCK;
+        }
+        if (gf.contains(GridFlags.CANNOT_CARRY)) {
+            bits |= CANNOT_CARRY;
+        }
+        if (gf.contains(GridFlags.CANNOT_CARRY_COMPRESSED)) {
+            bits |= CANNOT_CARRY_COMPRESSED;
+        }
+        return bits;
+    }
+
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Asks a running search to stop early, its result will be discarded anyway.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    @Override
+    public ChannelPathfinder call() {
+        final List<IntArrayList> active = new ArrayList<>();
+
+        for (final int node : this.controllers) {
+            this.closed[node] = true;
+            for (final int gc : this.nodeConnections[node]) {
+                if (!this.isController[this.otherSide(gc, node)]) {
+                    this.closed[gc] = true;
+                    this.setControllerRoute(gc, node);
+
+                    final IntArrayList open = new IntArrayList();
+                    open.add(gc);
+                    active.add(open);
+                }
+            }
+        }
+
+        // segments advance one layer each in turn, exactly like they did when stepped once per tick.
+        while (!active.isEmpty() && !this.cancelled) {
+            for (int x = 0; x < active.size(); ) {
+                final IntArrayList open = this.step(active.get(x));
+                if (open.isEmpty()) {
+                    active.remove(x);
+                } else {
+                    active.set(x, open);
+                    x++;
+                }
+            }
+        }
+
+        return this;
+    }
+
+    private IntArrayList step(final IntArrayList oldOpen) {
+        final IntArrayList open = new IntArrayList();
+
+        for (int o = 0; o < oldOpen.size(); o++) {
+            final int i = oldOpen.getInt(o);
+
+            if (i < this.nodeCount) {
+                final int[] options = this.nodeConnections[i];
+                for (int x = 0; x < options.length; x++) {
+                    this.visit(i, options[x], open);
+                }
+            } else {
+                final int a = this.connectionA[i - this.nodeCount];
+                final int b = this.connectionB[i - this.nodeCount];
+                this.visit(i, a, open);
+                this.visit(i, b, open);
+            }
+        }
+
+        return open;
+    }
+
+    private void visit(final int from, final int pi, final IntArrayList open) {
+        if (this.closed[pi]) {
+            return;
+        }
+
+        this.setControllerRoute(pi, from);
+
+        final int f = this.flags[pi];
+        if ((f & REQUIRE_CHANNEL) != 0) {
+            // close the semi open.
+            if (!this.semiOpen[pi]) {
+                final boolean worked = this.useChannel(pi, (f & COMPRESSED_CHANNEL) != 0);
+
+                if (worked && (f & MULTIBLOCK) != 0 && this.multiblockNodes[pi] != null) {
+                    for (final int other : this.multiblockNodes[pi]) {
+                        this.semiOpen[other] = true;
+                    }
+                }
+            } else {
+                this.used[pi]++; // give a channel.
+                this.semiOpen[pi] = false;
+            }
+        }
+
+        this.closed[pi] = true;
+        open.add(pi);
+    }
+
+    private boolean useChannel(final int start, final boolean dense) {
+        int pi = start;
+        while (pi >= 0) {
+            if (this.used[pi] >= this.maxChannels[pi] || (dense && (this.flags[pi] & CANNOT_CARRY_COMPRESSED) != 0)) {
+                return false;
+            }
+
+            pi = this.getControllerRoute(pi);
+        }
+
+        pi = start;
+        while (pi >= 0) {
+            this.channelsByBlocks++;
+            this.used[pi]++;
+            pi = this.getControllerRoute(pi);
+        }
+
+        this.channelsInUse++;
+        return true;
+    }
+
+    private int getControllerRoute(final int id) {
+        if (id < this.nodeCount) {
+            final int[] conns = this.nodeConnections[id];
+            if (conns.length == 0 || (this.flags[id] & CANNOT_CARRY) != 0) {
+                return -1;
+            }
+            return conns[0];
+        }
+
+        final int a = this.connectionA[id - this.nodeCount];
+        if ((this.flags[a] & CANNOT_CARRY) != 0) {
+            return -1;
+        }
+        return a;
+    }
+
+    private void setControllerRoute(final int id, final int fast) {
+        this.used[id] = 0;
+        this.routeLog.add(id);
+        this.routeLog.add(fast);
+
+        if (id < this.nodeCount) {
+            final int[] conns = this.nodeConnections[id];
+            for (int x = 1; x < conns.length; x++) {
+                if (conns[x] == fast) {
+                    System.arraycopy(conns, 0, conns, 1, x);
+                    conns[0] = fast;
+                    break;
+                }
+            }
+        } else {
+            final int c = id - this.nodeCount;
+            if (this.connectionB[c] == fast) {
+                this.connectionB[c] = this.connectionA[c];
+                this.connectionA[c] = fast;
+            }
+        }
+    }
+
+    private int otherSide(final int connection, final int node) {
+        final int c = connection - this.nodeCount;
+        return this.connectionA[c] == node ? this.connectionB[c] : this.connectionA[c];
+    }
+
+    /**
+     * Replays the routes and channel counts onto the grid, must be called on the server thread and only if the
+     * topology did not change since the snapshot was taken.
+     */
+    public void apply(final PathGridCache pgc) {
+        for (int x = 0; x < this.routeLog.size(); x += 2) {
+            this.items[this.routeLog.getInt(x)].setControllerRoute(this.items[this.routeLog.getInt(x + 1)], true);
+        }
+
+        for (int id = 0; id < this.items.length; id++) {
+            if (this.used[id] > 0) {
+                this.items[id].incrementChannelCount(this.used[id]);
+            }
+        }
+
+        pgc.setChannelsInUse(pgc.getChannelsInUse() + this.channelsInUse);
+        pgc.setChannelsByBlocks(pgc.getChannelsByBlocks() + this.channelsByBlocks);
+    }
+}
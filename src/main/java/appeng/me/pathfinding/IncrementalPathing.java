@@ -0,0 +1,329 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.pathfinding;
+
+
+import appeng.api.networking.GridFlags;
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridConnection;
+import appeng.api.networking.IGridNode;
+import appeng.me.GridConnection;
+import appeng.me.GridNode;
+import appeng.me.cache.PathGridCache;
+import appeng.tile.networking.TileController;
+
+import java.util.*;
+
+
+/**
+ * Collects topology changes of a routed controller network between two ticks and tries to apply them to the existing
+ * channel routes, instead of rebooting the whole network.
+ *
+ * Only changes at the edge of the routing tree are handled: new nodes which hang off exactly one already routed node,
+ * and removed nodes whose subtree is detached completely. Anything else, like a second path to the controller, a split
+ * or a multiblock, is rejected and the caller falls back to a full repath.
+ */
+public class IncrementalPathing {
+
+    private final Set<IGridNode> addedNodes = new HashSet<>();
+    // the destroyed nodes and the channels they used, nodes which only left for another grid are not in here
+    private final Map<IGridNode, Integer> removedNodes = new HashMap<>();
+    private final Set<GridConnection> addedConnections = new LinkedHashSet<>();
+    private final Map<IPathItem, RemovedConnection> removedConnections = new LinkedHashMap<>();
+    // the controller route of routed nodes before a new connection was sorted into their connection list
+    private final Map<GridNode, IPathItem> previousRoutes = new HashMap<>();
+
+    public boolean isEmpty() {
+        return this.addedNodes.isEmpty() && this.removedNodes.isEmpty() && this.addedConnections.isEmpty() && this.removedConnections.isEmpty();
+    }
+
+    public void clear() {
+        this.addedNodes.clear();
+        this.removedNodes.clear();
+        this.addedConnections.clear();
+        this.removedConnections.clear();
+        this.previousRoutes.clear();
+    }
+
+    /**
+     * @return false if the change can never be handled incrementally
+     */
+    public boolean nodeAdded(final IGridNode node) {
+        if (node.getMachine() instanceof TileController || this.removedNodes.containsKey(node)) {
+            return false;
+        }
+
+        this.addedNodes.add(node);
+        return true;
+    }
+
+    /**
+     * Has to be called before the node loses its connections and its grid storage, which resets its channels.
+     */
+    public boolean nodeDestroyed(final IGridNode node, final int usedChannels) {
+        if (node.getMachine() instanceof TileController || this.addedNodes.contains(node)) {
+            return false;
+        }
+
+        this.removedNodes.put(node, usedChannels);
+        return true;
+    }
+
+    /**
+     * @return false unless the node left the grid because it was destroyed, a node moved to another grid by a split
+     * takes its routes with it
+     */
+    public boolean nodeRemoved(final IGridNode node) {
+        return this.removedNodes.containsKey(node);
+    }
+
+    /**
+     * Has to be called before the connection is added to its nodes.
+     */
+    public boolean connectionAdded(final GridConnection gc) {
+        this.rememberRoute((GridNode) gc.a());
+        this.rememberRoute((GridNode) gc.b());
+        this.addedConnections.add(gc);
+        return true;
+    }
+
+    /**
+     * Has to be called before the connection is removed from its nodes.
+     */
+    public boolean connectionRemoved(final GridConnection gc) {
+        if (this.addedConnections.contains(gc)) {
+            return false;
+        }
+
+        // the side routed through the connection is below it
+        final boolean aRouted = ((GridNode) gc.a()).getControllerRoute() == gc;
+        final GridNode upstream = (GridNode) (aRouted ? gc.b() : gc.a());
+        final GridNode downstream = (GridNode) (aRouted ? gc.a() : gc.b());
+        this.connectionRemoved(gc, upstream, downstream, downstream.getControllerRoute() == gc, gc.getUsedChannels());
+        return true;
+    }
+
+    void connectionRemoved(final IPathItem connection, final IPathItem upstream, final IGridNode downstream, final boolean downstreamRouted, final int channels) {
+        this.removedConnections.put(connection, new RemovedConnection(upstream, downstream, downstreamRouted, channels));
+    }
+
+    private void rememberRoute(final GridNode node) {
+        if (!this.previousRoutes.containsKey(node) && !this.addedNodes.contains(node)) {
+            final IPathItem route = node.getControllerRoute();
+            if (route != null) {
+                this.previousRoutes.put(node, route);
+            }
+        }
+    }
+
+    /**
+     * Applies the collected changes to the routes and channel counts of the grid.
+     *
+     * @param unassigned number of nodes which require a channel but did not get one
+     * @return the new number of unassigned nodes, or -1 if the changes could not be applied incrementally, in which
+     * case nothing was modified.
+     */
+    public int apply(final PathGridCache pgc, final IGrid grid, final int unassigned) {
+        if (!this.canRemove(unassigned)) {
+            return -1;
+        }
+
+        final List<IPathItem> order = new ArrayList<>();
+        final Map<IPathItem, IPathItem> from = new HashMap<>();
+        if (!this.canAdd(grid, order, from)) {
+            return -1;
+        }
+
+        final Set<IPathItem> touched = new LinkedHashSet<>();
+
+        // removals, hand the channels of the detached subtrees back to the route above them.
+        int channelsByBlocks = pgc.getChannelsByBlocks();
+        int channelsInUse = pgc.getChannelsInUse();
+
+        for (final int channels : this.removedNodes.values()) {
+            channelsByBlocks -= channels;
+        }
+
+        for (final RemovedConnection rc : this.removedConnections.values()) {
+            channelsByBlocks -= rc.channels;
+
+            if (rc.channels > 0 && !this.removedNodes.containsKey(rc.upstream)) {
+                channelsInUse -= rc.channels;
+
+                IPathItem pi = rc.upstream;
+                while (pi != null) {
+                    pi.incrementChannelCount(-rc.channels);
+                    channelsByBlocks -= rc.channels;
+                    touched.add(pi);
+                    pi = pi.getControllerRoute();
+                }
+            }
+        }
+
+        pgc.setChannelsByBlocks(channelsByBlocks);
+        pgc.setChannelsInUse(channelsInUse);
+
+        // additions, new connections may have been sorted in front of the route of the node they attach to.
+        for (final Map.Entry<GridNode, IPathItem> e : this.previousRoutes.entrySet()) {
+            if (e.getKey().getGrid() == grid) {
+                e.getKey().setControllerRoute(e.getValue(), false);
+            }
+        }
+
+        int stillUnassigned = unassigned;
+        for (final IPathItem pi : order) {
+            pi.setControllerRoute(from.get(pi), true);
+            touched.add(pi);
+
+            final EnumSet<GridFlags> flags = pi.getFlags();
+            if (flags.contains(GridFlags.REQUIRE_CHANNEL)) {
+                if (!this.useChannel(pgc, pi, flags.contains(GridFlags.COMPRESSED_CHANNEL), touched)) {
+                    stillUnassigned++;
+                }
+            }
+        }
+
+        for (final IPathItem pi : touched) {
+            pi.finalizeChannels();
+        }
+
+        this.clear();
+        return stillUnassigned;
+    }
+
+    private boolean canRemove(final int unassigned) {
+        for (final IGridNode n : this.removedNodes.keySet()) {
+            if (!n.getConnections().isEmpty() || n.hasFlag(GridFlags.MULTIBLOCK)) {
+                return false;
+            }
+        }
+
+        for (final RemovedConnection rc : this.removedConnections.values()) {
+            // only a dead end link may disappear below a node that stays, nodes cut off by it left through a split
+            if (!this.removedNodes.containsKey(rc.downstream) && (rc.downstreamRouted || rc.channels > 0)) {
+                return false;
+            }
+
+            // freed channels belong to whoever is waiting for one, that needs the full search.
+            if (rc.channels > 0 && unassigned > 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean canAdd(final IGrid grid, final List<IPathItem> order, final Map<IPathItem, IPathItem> from) {
+        for (final IGridNode n : this.addedNodes) {
+            if (n.getGrid() != grid || n.hasFlag(GridFlags.MULTIBLOCK)) {
+                return false;
+            }
+
+            for (final IGridConnection gc : n.getConnections()) {
+                if (!this.addedConnections.contains(gc)) {
+                    return false;
+                }
+            }
+        }
+
+        final Set<IPathItem> visited = new HashSet<>();
+        final Deque<IPathItem> open = new ArrayDeque<>();
+
+        for (final GridConnection gc : this.addedConnections) {
+            final boolean aNew = this.addedNodes.contains(gc.a());
+            final boolean bNew = this.addedNodes.contains(gc.b());
+
+            if (!aNew && !bNew) {
+                // joins two routed nodes, creates a loop or merges networks.
+                return false;
+            }
+
+            if (aNew != bNew) {
+                final GridNode routed = (GridNode) (aNew ? gc.b() : gc.a());
+                if (routed.getGrid() != grid || this.removedNodes.containsKey(routed)) {
+                    return false;
+                }
+
+                visited.add(gc);
+                from.put(gc, routed);
+                order.add(gc);
+                open.add(gc);
+            }
+        }
+
+        while (!open.isEmpty()) {
+            final IPathItem i = open.poll();
+
+            for (final IPathItem pi : i.getPossibleOptions()) {
+                if (pi == from.get(i)) {
+                    continue;
+                }
+
+                if (visited.contains(pi) || !this.addedNodes.contains(pi) && !this.addedConnections.contains(pi)) {
+                    // a second way back into the routed tree
+                    return false;
+                }
+
+                visited.add(pi);
+                from.put(pi, i);
+                order.add(pi);
+                open.add(pi);
+            }
+        }
+
+        return visited.size() == this.addedNodes.size() + this.addedConnections.size();
+    }
+
+    private boolean useChannel(final PathGridCache pgc, final IPathItem start, final boolean dense, final Set<IPathItem> touched) {
+        IPathItem pi = start;
+        while (pi != null) {
+            if (!pi.canSupportMoreChannels() || (dense && pi.getFlags().contains(GridFlags.CANNOT_CARRY_COMPRESSED))) {
+                return false;
+            }
+
+            pi = pi.getControllerRoute();
+        }
+
+        pi = start;
+        while (pi != null) {
+            pgc.setChannelsByBlocks(pgc.getChannelsByBlocks() + 1);
+            pi.incrementChannelCount(1);
+            touched.add(pi);
+            pi = pi.getControllerRoute();
+        }
+
+        pgc.setChannelsInUse(pgc.getChannelsInUse() + 1);
+        return true;
+    }
+
+    private static class RemovedConnection {
+
+        private final IPathItem upstream;
+        private final IGridNode downstream;
+        private final boolean downstreamRouted;
+        private final int channels;
+
+        private RemovedConnection(final IPathItem upstream, final IGridNode downstream, final boolean downstreamRouted, final int channels) {
+            this.upstream = upstream;
+            this.downstream = downstream;
+            this.downstreamRouted = downstreamRouted;
+            this.channels = channels;
+        }
+    }
+}
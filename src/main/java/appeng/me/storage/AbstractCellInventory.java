@@ -26,12 +26,22 @@ import appeng.api.storage.ISaveProvider;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
 import appeng.util.Platform;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.items.IItemHandler;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 
 /**
+ * Cells are written to NBT lazily, the first time their item stack is read after a change, which is usually when the
+ * chunk holding them is saved. Every stored type keeps the NBT slot it was first written to, so only the types changed
+ * since the last write are looked at again, and types which only changed their amount just get a new count.
+ *
  * @author DrummerMC
  * @version rv6 - 2018-01-17
  * @since rv6 2018-01-17
@@ -59,6 +69,11 @@ public abstract class AbstractCellInventory<T extends IAEStack<T>> implements IC
     protected final int itemsPerByte;
     private boolean isPersisted = true;
 
+    // the type written to each NBT slot, null until all types were written once after loading
+    private List<T> slotItems;
+    private final Object2IntOpenHashMap<T> slotIndex = new Object2IntOpenHashMap<>();
+    private final Set<T> changedItems = new ObjectOpenHashSet<>();
+
     static {
         for (int x = 0; x < MAX_ITEM_TYPES; x++) {
             ITEM_SLOT_KEYS[x] = ITEM_SLOT + x;
@@ -84,6 +99,7 @@ public abstract class AbstractCellInventory<T extends IAEStack<T>> implements IC
         this.storedItems = this.tagCompound.getShort(ITEM_TYPE_TAG);
         this.storedItemCount = this.tagCompound.getInteger(ITEM_COUNT_TAG);
         this.cellItems = null;
+        this.slotIndex.defaultReturnValue(-1);
     }
 
     protected IItemList<T> getCellItems() {
@@ -101,47 +117,122 @@ public abstract class AbstractCellInventory<T extends IAEStack<T>> implements IC
             return;
         }
 
-        int itemCount = 0;
-
-        // add new pretty stuff...
-        int x = 0;
-        for (final T v : this.cellItems) {
-            itemCount += v.getStackSize();
-
-            final NBTTagCompound g = new NBTTagCompound();
-            v.writeToNBT(g);
-            this.tagCompound.setTag(ITEM_SLOT_KEYS[x], g);
-            this.tagCompound.setInteger(ITEM_SLOT_COUNT_KEYS[x], (int) v.getStackSize());
-
-            x++;
+        if (this.slotItems == null) {
+            this.persistAll();
+        } else {
+            this.persistChanged();
         }
 
-        final short oldStoredItems = this.storedItems;
-
-        this.storedItems = (short) this.cellItems.size();
-        if (this.cellItems.isEmpty()) {
+        this.storedItems = (short) this.slotItems.size();
+        if (this.slotItems.isEmpty()) {
             this.tagCompound.removeTag(ITEM_TYPE_TAG);
         } else {
             this.tagCompound.setShort(ITEM_TYPE_TAG, this.storedItems);
         }
 
-        this.storedItemCount = itemCount;
-        if (itemCount == 0) {
+        if (this.storedItemCount == 0) {
             this.tagCompound.removeTag(ITEM_COUNT_TAG);
         } else {
-            this.tagCompound.setInteger(ITEM_COUNT_TAG, itemCount);
+            this.tagCompound.setInteger(ITEM_COUNT_TAG, this.storedItemCount);
         }
 
+        this.changedItems.clear();
+        this.isPersisted = true;
+    }
+
+    private void persistAll() {
+        final int oldStoredItems = this.tagCompound.getShort(ITEM_TYPE_TAG);
+
+        this.slotItems = new ArrayList<>();
+        this.slotIndex.clear();
+
+        int itemCount = 0;
+
+        // add new pretty stuff...
+        for (final T v : this.cellItems) {
+            itemCount += v.getStackSize();
+            this.writeSlot(this.slotItems.size(), v);
+            this.slotIndex.put(v, this.slotItems.size());
+            this.slotItems.add(v);
+        }
+
+        this.storedItemCount = itemCount;
+
         // clean any old crusty stuff...
-        for (; x >= oldStoredItems && x < this.maxItemTypes; x++) {
+        for (int x = this.slotItems.size(); x < oldStoredItems && x < MAX_ITEM_TYPES; x++) {
             this.tagCompound.removeTag(ITEM_SLOT_KEYS[x]);
             this.tagCompound.removeTag(ITEM_SLOT_COUNT_KEYS[x]);
         }
+    }
 
-        this.isPersisted = true;
+    private void persistChanged() {
+        for (final T changed : this.changedItems) {
+            final T stored = this.cellItems.findPrecise(changed);
+            final long amount = stored == null ? 0 : stored.getStackSize();
+            final int slot = this.slotIndex.getInt(changed);
+
+            if (slot < 0) {
+                if (amount > 0) {
+                    this.writeSlot(this.slotItems.size(), stored);
+                    this.slotIndex.put(stored, this.slotItems.size());
+                    this.slotItems.add(stored);
+                }
+            } else if (amount > 0) {
+                // the type is already written, only its amount changed
+                this.tagCompound.setInteger(ITEM_SLOT_COUNT_KEYS[slot], (int) amount);
+            } else {
+                this.removeSlot(slot);
+            }
+        }
+    }
+
+    private void writeSlot(final int slot, final T v) {
+        final NBTTagCompound g = new NBTTagCompound();
+        v.writeToNBT(g);
+        this.tagCompound.setTag(ITEM_SLOT_KEYS[slot], g);
+        this.tagCompound.setInteger(ITEM_SLOT_COUNT_KEYS[slot], (int) v.getStackSize());
+    }
+
+    /**
+     * Slots have to stay contiguous, so the type in the last slot is moved into the freed one.
+     */
+    private void removeSlot(final int slot) {
+        final int last = this.slotItems.size() - 1;
+        this.slotIndex.removeInt(this.slotItems.get(slot));
+
+        if (slot != last) {
+            final T moved = this.slotItems.get(last);
+            this.tagCompound.setTag(ITEM_SLOT_KEYS[slot], this.tagCompound.getTag(ITEM_SLOT_KEYS[last]));
+            this.tagCompound.setInteger(ITEM_SLOT_COUNT_KEYS[slot], this.tagCompound.getInteger(ITEM_SLOT_COUNT_KEYS[last]));
+            this.slotItems.set(slot, moved);
+            this.slotIndex.put(moved, slot);
+        }
+
+        this.slotItems.remove(last);
+        this.tagCompound.removeTag(ITEM_SLOT_KEYS[last]);
+        this.tagCompound.removeTag(ITEM_SLOT_COUNT_KEYS[last]);
+    }
+
+    /**
+     * Like {@link #saveChanges()}, but only the given type has to be written again.
+     */
+    protected void saveChanges(final T changed) {
+        if (this.slotItems != null && !this.changedItems.contains(changed)) {
+            this.changedItems.add(changed.copy());
+        }
+
+        this.markDirty();
     }
 
+    /**
+     * Saves the cell after any of its types changed, all of them are written again.
+     */
     protected void saveChanges() {
+        this.slotItems = null;
+        this.markDirty();
+    }
+
+    private void markDirty() {
         // recalculate values
         this.storedItems = (short) this.cellItems.size();
         this.storedItemCount = 0;
@@ -126,13 +126,13 @@ public class BasicCellInventory<T extends IAEStack<T>> extends AbstractCellInven
                 r.setStackSize(r.getStackSize() - remainingItemCount);
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() + remainingItemCount);
-                    this.saveChanges();
+                    this.saveChanges(l);
                 }
                 return r;
             } else {
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() + input.getStackSize());
-                    this.saveChanges();
+                    this.saveChanges(l);
                 }
                 return null;
             }
@@ -150,14 +150,14 @@ public class BasicCellInventory<T extends IAEStack<T>> extends AbstractCellInven
                         toWrite.setStackSize(remainingItemCount);
 
                         this.cellItems.add(toWrite);
-                        this.saveChanges();
+                        this.saveChanges(toWrite);
                     }
                     return toReturn;
                 }
 
                 if (mode == Actionable.MODULATE) {
                     this.cellItems.add(input);
-                    this.saveChanges();
+                    this.saveChanges(input);
                 }
 
                 return null;
@@ -185,13 +185,13 @@ public class BasicCellInventory<T extends IAEStack<T>> extends AbstractCellInven
                 Results.setStackSize(l.getStackSize());
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(0);
-                    this.saveChanges();
+                    this.saveChanges(l);
                 }
             } else {
                 Results.setStackSize(size);
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() - size);
-                    this.saveChanges();
+                    this.saveChanges(l);
                 }
             }
         }
@@ -32,6 +32,7 @@ import appeng.api.storage.channels.IFluidStorageChannel;
 import appeng.api.storage.data.IAEFluidStack;
 import appeng.api.storage.data.IItemList;
 import appeng.fluids.util.AEFluidStack;
+import appeng.fluids.util.FluidTankSnapshot;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.capability.IFluidHandler;
 import net.minecraftforge.fluids.capability.IFluidTankProperties;
@@ -42,6 +43,7 @@ import java.util.Map.Entry;
 
 public class MEMonitorIFluidHandler implements IMEMonitor<IAEFluidStack>, ITickingMonitor {
     private final IFluidHandler handler;
+    private final FluidTankSnapshot snapshot = new FluidTankSnapshot();
     private IItemList<IAEFluidStack> cache = AEApi.instance().storage().getStorageChannel(IFluidStorageChannel.class).createList();
     private final HashMap<IMEMonitorHandlerReceiver<IAEFluidStack>, Object> listeners = new HashMap<>();
     private IActionSource mySource;
@@ -77,6 +79,7 @@ public class MEMonitorIFluidHandler implements IMEMonitor<IAEFluidStack>, ITicki
         o.setStackSize(input.getStackSize() - filled);
 
         if (type == Actionable.MODULATE) {
+            this.snapshot.clear();
             IAEFluidStack added = o.copy();
             this.cache.add(added);
             this.postDifference(Collections.singletonList(added));
@@ -98,6 +101,7 @@ public class MEMonitorIFluidHandler implements IMEMonitor<IAEFluidStack>, ITicki
         o.setStackSize(removed.amount);
 
         if (type == Actionable.MODULATE) {
+            this.snapshot.clear();
             IAEFluidStack cachedStack = this.cache.findPrecise(request);
             if (cachedStack != null) {
                 cachedStack.decStackSize(o.getStackSize());
@@ -116,8 +120,12 @@ public class MEMonitorIFluidHandler implements IMEMonitor<IAEFluidStack>, ITicki
     public TickRateModulation onTick() {
         boolean changed = false;
 
-        final List<IAEFluidStack> changes = new ArrayList<>();
         final IFluidTankProperties[] tankProperties = this.handler.getTankProperties();
+        if (!this.snapshot.update(tankProperties)) {
+            return TickRateModulation.SLOWER;
+        }
+
+        final List<IAEFluidStack> changes = new ArrayList<>();
 
         IItemList<IAEFluidStack> currentlyOnStorage = AEApi.instance().storage().getStorageChannel(IFluidStorageChannel.class).createList();
 
@@ -217,6 +225,7 @@ public class MEMonitorIFluidHandler implements IMEMonitor<IAEFluidStack>, ITicki
 
     public void setMode(final StorageFilter mode) {
         this.mode = mode;
+        this.snapshot.clear();
     }
 
     private IActionSource getActionSource() {
@@ -32,8 +32,11 @@ import appeng.api.storage.channels.IItemStorageChannel;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IItemList;
 import appeng.util.InventoryAdaptor;
+import appeng.util.inv.AdaptorItemHandler;
 import appeng.util.inv.ItemSlot;
+import appeng.util.inv.ItemSlotTracker;
 import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
 
 import java.util.*;
 import java.util.Map.Entry;
@@ -42,6 +45,8 @@ import java.util.Map.Entry;
 public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMonitor {
 
     private final InventoryAdaptor adaptor;
+    // only known for item handlers, other inventories are read completely every tick
+    private final ItemSlotTracker tracker;
     private IItemList<IAEItemStack> cache = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
 
     private final HashMap<IMEMonitorHandlerReceiver<IAEItemStack>, Object> listeners = new HashMap<>();
@@ -50,6 +55,12 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
 
     public MEMonitorIInventory(final InventoryAdaptor adaptor) {
         this.adaptor = adaptor;
+        this.tracker = null;
+    }
+
+    public MEMonitorIInventory(final IItemHandler itemHandler) {
+        this.adaptor = new AdaptorItemHandler(itemHandler);
+        this.tracker = new ItemSlotTracker(itemHandler, null, this.mode == StorageFilter.EXTRACTABLE_ONLY);
     }
 
     @Override
@@ -84,6 +95,9 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
             IAEItemStack added = o.copy();
             this.cache.add(added);
             this.postDifference(Collections.singletonList(added));
+            if (this.tracker != null) {
+                this.tracker.touch(added);
+            }
             this.onTick();
         }
 
@@ -114,6 +128,9 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
                 cachedStack.decStackSize(o.getStackSize());
                 this.postDifference(Collections.singletonList(o.copy().setStackSize(-o.getStackSize())));
             }
+            if (this.tracker != null) {
+                this.tracker.touch(request);
+            }
             this.onTick();
         }
 
@@ -131,6 +148,15 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
 
         final List<IAEItemStack> changes = new ArrayList<>();
 
+        if (this.tracker != null) {
+            this.tracker.update(this.cache, changes);
+            if (!changes.isEmpty()) {
+                this.postDifference(changes);
+                return TickRateModulation.URGENT;
+            }
+            return TickRateModulation.SLOWER;
+        }
+
         IItemList<IAEItemStack> currentlyOnStorage = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
 
         for (final ItemSlot is : adaptor) {
@@ -229,6 +255,9 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
 
     public void setMode(final StorageFilter mode) {
         this.mode = mode;
+        if (this.tracker != null) {
+            this.tracker.setExtractableOnly(mode == StorageFilter.EXTRACTABLE_ONLY);
+        }
     }
 
     private IActionSource getActionSource() {
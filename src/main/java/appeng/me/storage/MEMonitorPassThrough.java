@@ -137,6 +137,12 @@ public class MEMonitorPassThrough<T extends IAEStack<T>> extends MEPassThrough<T
         }
     }
 
+    @Override
+    public boolean requiresImmediateChanges() {
+        // the listeners behind this pass through are unknown, so never delay them
+        return true;
+    }
+
     private IActionSource getChangeSource() {
         return this.changeSource;
     }
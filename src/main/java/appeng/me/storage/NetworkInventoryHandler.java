@@ -21,6 +21,7 @@ package appeng.me.storage;
 
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
+import appeng.api.config.IncludeExclude;
 import appeng.api.config.SecurityPermissions;
 import appeng.api.networking.IGrid;
 import appeng.api.networking.IGridNode;
@@ -31,10 +32,22 @@ import appeng.api.storage.IStorageChannel;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
 import appeng.me.cache.SecurityCache;
+import appeng.util.prioritylist.IPartitionList;
+import appeng.util.prioritylist.PrecisePriorityList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import java.util.*;
 
 
+/**
+ * The storage of a network, made of the cell inventories of its cell providers. It is rebuilt whenever the cells of the
+ * network change, so the handlers of every priority are indexed when they are added:
+ * <ul>
+ * <li>Handlers partitioned to a precise list of stacks are only asked about the stacks on their list.</li>
+ * <li>For priorities where only handlers which already contain a stack take it in the first pass, the handler which
+ * last took a stack is asked first, so usually no other handler of that priority has to be asked.</li>
+ * </ul>
+ */
 public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInventoryHandler<T> {
 
     private static final ThreadLocal<Deque> DEPTH_MOD = new ThreadLocal<>();
@@ -44,7 +57,7 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
     private static int currentPass = 0;
     private final IStorageChannel<T> myChannel;
     private final SecurityCache security;
-    private final NavigableMap<Integer, List<IMEInventoryHandler<T>>> priorityInventory;
+    private final NavigableMap<Integer, PriorityBucket<T>> priorityInventory;
     private int myPass = 0;
 
     public NetworkInventoryHandler(final IStorageChannel<T> chan, final SecurityCache security) {
@@ -55,12 +68,12 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
 
     public void addNewStorage(final IMEInventoryHandler<T> h) {
         final int priority = h.getPriority();
-        List<IMEInventoryHandler<T>> list = this.priorityInventory.get(priority);
-        if (list == null) {
-            this.priorityInventory.put(priority, list = new ArrayList<>());
+        PriorityBucket<T> bucket = this.priorityInventory.get(priority);
+        if (bucket == null) {
+            this.priorityInventory.put(priority, bucket = new PriorityBucket<>());
         }
 
-        list.add(h);
+        bucket.add(h);
     }
 
     @Override
@@ -74,14 +87,37 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
             return input;
         }
 
-        for (final List<IMEInventoryHandler<T>> invList : this.priorityInventory.values()) {
-            Iterator<IMEInventoryHandler<T>> ii = invList.iterator();
-            while (ii.hasNext() && input != null) {
-                final IMEInventoryHandler<T> inv = ii.next();
+        for (final PriorityBucket<T> bucket : this.priorityInventory.values()) {
+            if (input == null) {
+                break;
+            }
+
+            final IntArrayList listed = bucket.getListed(input);
+
+            // Only handlers containing the stack take it in the first pass, so the one which took it last can go first
+            if (bucket.plain && listed.isEmpty()) {
+                final IMEInventoryHandler<T> inv = bucket.hints.get(input);
+                if (inv != null && inv.validForPass(1) && inv
+                        .canAccept(input) && (inv.isPrioritized(input) || inv.extractItems(input, Actionable.SIMULATE, src) != null)) {
+                    input = this.inject(bucket, inv, input, type, src);
+                }
+            }
+
+            int unindexed = 0;
+            int partitioned = 0;
+            while (input != null && (unindexed < bucket.unindexed.size() || partitioned < listed.size())) {
+                final int position = nextPosition(bucket.unindexed, unindexed, listed, partitioned);
+                if (unindexed < bucket.unindexed.size() && bucket.unindexed.getInt(unindexed) == position) {
+                    unindexed++;
+                } else {
+                    partitioned++;
+                }
+
+                final IMEInventoryHandler<T> inv = bucket.handlers.get(position);
 
                 if (inv.validForPass(1) && inv
                         .canAccept(input) && (inv.isPrioritized(input) || inv.extractItems(input, Actionable.SIMULATE, src) != null)) {
-                    input = inv.injectItems(input, type, src);
+                    input = this.inject(bucket, inv, input, type, src);
                 }
             }
 
@@ -89,12 +125,20 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
             // during the first pass, they will do so in the second, but as this is stateless we will just report twice
             // the amount of storable items.
             // ignores craftingcache on the second pass.
-            ii = invList.iterator();
-            while (ii.hasNext() && input != null) {
-                final IMEInventoryHandler<T> inv = ii.next();
+            unindexed = 0;
+            partitioned = 0;
+            while (input != null && (unindexed < bucket.unindexed.size() || partitioned < listed.size())) {
+                final int position = nextPosition(bucket.unindexed, unindexed, listed, partitioned);
+                if (unindexed < bucket.unindexed.size() && bucket.unindexed.getInt(unindexed) == position) {
+                    unindexed++;
+                } else {
+                    partitioned++;
+                }
+
+                final IMEInventoryHandler<T> inv = bucket.handlers.get(position);
 
                 if (inv.validForPass(2) && inv.canAccept(input) && !inv.isPrioritized(input)) {
-                    input = inv.injectItems(input, type, src);
+                    input = this.inject(bucket, inv, input, type, src);
                 }
             }
         }
@@ -104,6 +148,31 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
         return input;
     }
 
+    private T inject(final PriorityBucket<T> bucket, final IMEInventoryHandler<T> inv, final T input, final Actionable type, final IActionSource src) {
+        final T remainder = inv.injectItems(input, type, src);
+
+        if (type == Actionable.MODULATE && bucket.plain && (remainder == null || remainder.getStackSize() != input.getStackSize())) {
+            if (bucket.hints.get(input) != inv) {
+                bucket.hints.put(input.copy(), inv);
+            }
+        }
+
+        return remainder;
+    }
+
+    /**
+     * @return the lower of the next positions of two ascending lists
+     */
+    private static int nextPosition(final IntArrayList a, final int i, final IntArrayList b, final int j) {
+        if (i >= a.size()) {
+            return b.getInt(j);
+        }
+        if (j >= b.size()) {
+            return a.getInt(i);
+        }
+        return Math.min(a.getInt(i), b.getInt(j));
+    }
+
     private boolean diveList(final NetworkInventoryHandler<T> networkInventoryHandler, final Actionable type) {
         final Deque cDepth = this.getDepth(type);
         if (cDepth.contains(networkInventoryHandler)) {
@@ -167,7 +236,7 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
             return null;
         }
 
-        final Iterator<List<IMEInventoryHandler<T>>> i = this.priorityInventory.descendingMap().values().iterator();// priorityInventory.asMap().descendingMap().entrySet().iterator();
+        final Iterator<PriorityBucket<T>> i = this.priorityInventory.descendingMap().values().iterator();// priorityInventory.asMap().descendingMap().entrySet().iterator();
 
         final T output = request.copy();
         request = request.copy();
@@ -175,7 +244,7 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
         final long req = request.getStackSize();
 
         while (i.hasNext()) {
-            final List<IMEInventoryHandler<T>> invList = i.next();
+            final List<IMEInventoryHandler<T>> invList = i.next().handlers;
 
             final Iterator<IMEInventoryHandler<T>> ii = invList.iterator();
             while (ii.hasNext() && output.getStackSize() < req) {
@@ -202,8 +271,8 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
         }
 
         // for (Entry<Integer, IMEInventoryHandler<T>> h : priorityInventory.entries())
-        for (final List<IMEInventoryHandler<T>> i : this.priorityInventory.values()) {
-            for (final IMEInventoryHandler<T> j : i) {
+        for (final PriorityBucket<T> i : this.priorityInventory.values()) {
+            for (final IMEInventoryHandler<T> j : i.handlers) {
                 out = j.getAvailableItems(out);
             }
         }
@@ -264,4 +333,99 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
     public boolean validForPass(final int i) {
         return true;
     }
+
+    /**
+     * The handlers of one priority, in the order they were added.
+     */
+    private static class PriorityBucket<T extends IAEStack<T>> {
+        private static final IntArrayList NONE = new IntArrayList(0);
+
+        private final List<IMEInventoryHandler<T>> handlers = new ArrayList<>();
+
+        // positions of the handlers which have to be asked about every stack
+        private final IntArrayList unindexed = new IntArrayList();
+
+        // positions of the handlers partitioned to precise lists, by the stacks on their list
+        private final Map<T, IntArrayList> listed = new HashMap<>();
+
+        // whether no handler takes a stack in the first pass just because it is partitioned to it
+        private boolean plain = true;
+
+        // the handler which last took each stack, only kept while plain
+        private final Map<T, IMEInventoryHandler<T>> hints = new HashMap<>();
+
+        private void add(final IMEInventoryHandler<T> h) {
+            final int position = this.handlers.size();
+            this.handlers.add(h);
+
+            final Iterable<T> partition = getPrecisePartition(h);
+            if (partition != null) {
+                for (final T stack : partition) {
+                    final IntArrayList positions = this.listed.computeIfAbsent(stack, k -> new IntArrayList());
+                    if (positions.isEmpty() || positions.getInt(positions.size() - 1) != position) {
+                        positions.add(position);
+                    }
+                }
+            } else {
+                this.unindexed.add(position);
+                this.plain &= isUnpartitioned(h);
+            }
+        }
+
+        private IntArrayList getListed(final T input) {
+            if (this.listed.isEmpty()) {
+                return NONE;
+            }
+
+            final IntArrayList positions = this.listed.get(input);
+            return positions == null ? NONE : positions;
+        }
+
+        /**
+         * @return the stacks the handler accepts at most, or null if it is not limited to a precise list
+         */
+        private static <T extends IAEStack<T>> Iterable<T> getPrecisePartition(IMEInventoryHandler<T> h) {
+            while (h instanceof MEInventoryHandler) {
+                final MEInventoryHandler<T> handler = (MEInventoryHandler<T>) h;
+                final IPartitionList<T> partition = handler.getPartitionList();
+
+                if (!partition.isEmpty()) {
+                    if (handler.getWhitelist() == IncludeExclude.WHITELIST && partition instanceof PrecisePriorityList) {
+                        return partition.getItems();
+                    }
+                    return null;
+                }
+
+                if (!(handler.getInternal() instanceof IMEInventoryHandler)) {
+                    return null;
+                }
+                h = (IMEInventoryHandler<T>) handler.getInternal();
+            }
+
+            return null;
+        }
+
+        /**
+         * @return true if neither the handler nor any handler it wraps is partitioned
+         */
+        private static <T extends IAEStack<T>> boolean isUnpartitioned(IMEInventoryHandler<T> h) {
+            if (!(h instanceof MEInventoryHandler)) {
+                return false;
+            }
+
+            while (h instanceof MEInventoryHandler) {
+                final MEInventoryHandler<T> handler = (MEInventoryHandler<T>) h;
+                if (!handler.getPartitionList().isEmpty()) {
+                    return false;
+                }
+
+                if (!(handler.getInternal() instanceof IMEInventoryHandler)) {
+                    return true;
+                }
+                h = (IMEInventoryHandler<T>) handler.getInternal();
+            }
+
+            return true;
+        }
+    }
 }
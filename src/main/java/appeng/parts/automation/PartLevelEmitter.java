@@ -338,6 +338,12 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
         }
     }
 
+    @Override
+    public boolean requiresImmediateChanges() {
+        // redstone output has to follow the stored amount without lagging a tick behind
+        return true;
+    }
+
     @Override
     public AECableType getCableConnectionType(final AEPartLocation dir) {
         return AECableType.SMART;
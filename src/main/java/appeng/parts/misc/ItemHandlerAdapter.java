@@ -27,6 +27,7 @@ import appeng.api.config.StorageFilter;
 import appeng.api.networking.security.IActionSource;
 import appeng.api.networking.storage.IBaseMonitor;
 import appeng.api.networking.ticking.TickRateModulation;
+import appeng.api.storage.IInventoryChangeCounter;
 import appeng.api.storage.IMEInventory;
 import appeng.api.storage.IMEMonitorHandlerReceiver;
 import appeng.api.storage.channels.IItemStorageChannel;
@@ -36,8 +37,7 @@ import appeng.core.AELog;
 import appeng.me.GridAccessException;
 import appeng.me.helpers.IGridProxyable;
 import appeng.me.storage.ITickingMonitor;
-import appeng.util.inv.ItemHandlerIterator;
-import appeng.util.inv.ItemSlot;
+import appeng.util.inv.ItemSlotTracker;
 import appeng.util.item.AEItemStack;
 import com.google.common.primitives.Ints;
 import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
@@ -60,7 +60,10 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
     private StorageFilter mode;
     private AccessRestriction access;
 
-    ItemHandlerAdapter(IItemHandler itemHandler, IGridProxyable proxy) {
+    /**
+     * @param changeCounter the change counter of the inventory behind the handler, if it has one
+     */
+    ItemHandlerAdapter(IItemHandler itemHandler, IInventoryChangeCounter changeCounter, IGridProxyable proxy) {
         this.itemHandler = itemHandler;
         this.proxyable = proxy;
         if (this.proxyable instanceof PartStorageBus) {
@@ -68,7 +71,7 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
             this.mode = ((StorageFilter) partStorageBus.getConfigManager().getSetting(Settings.STORAGE_FILTER));
             this.access = ((AccessRestriction) partStorageBus.getConfigManager().getSetting(Settings.ACCESS));
         }
-        this.cache = new InventoryCache(this.itemHandler, this.mode);
+        this.cache = new InventoryCache(this.itemHandler, changeCounter, this.mode);
         this.cache.update();
     }
 
@@ -102,6 +105,7 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
         if (type == Actionable.MODULATE) {
             IAEItemStack added = iox.copy().setStackSize(iox.getStackSize() - remaining.getCount());
             this.cache.currentlyCached.add(added);
+            this.cache.tracker.touch(added);
             this.postDifference(Collections.singletonList(added));
             try {
                 this.proxyable.getProxy().getTick().alertDevice(this.proxyable.getProxy().getNode());
@@ -183,6 +187,7 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
                     cachedStack.decStackSize(gatheredAEItemStack.getStackSize());
                     this.postDifference(Collections.singletonList(gatheredAEItemStack.copy().setStackSize(-gatheredAEItemStack.getStackSize())));
                 }
+                this.cache.tracker.touch(request);
                 try {
                     this.proxyable.getProxy().getTick().alertDevice(this.proxyable.getProxy().getNode());
                 } catch (GridAccessException ex) {
@@ -245,14 +250,12 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
         }
     }
 
-    private static class InventoryCache implements Iterable<ItemSlot> {
-        private final IItemHandler itemHandler;
-        private final StorageFilter mode;
+    private static class InventoryCache {
+        private final ItemSlotTracker tracker;
         IItemList<IAEItemStack> currentlyCached = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
 
-        public InventoryCache(IItemHandler itemHandler, StorageFilter mode) {
-            this.mode = mode;
-            this.itemHandler = itemHandler;
+        public InventoryCache(IItemHandler itemHandler, IInventoryChangeCounter changeCounter, StorageFilter mode) {
+            this.tracker = new ItemSlotTracker(itemHandler, changeCounter, mode == StorageFilter.EXTRACTABLE_ONLY);
         }
 
         public IItemList<IAEItemStack> getAvailableItems(IItemList<IAEItemStack> out) {
@@ -260,45 +263,10 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
             return out;
         }
 
-        private StorageFilter getMode() {
-            return this.mode;
-        }
-
         public List<IAEItemStack> update() {
             final List<IAEItemStack> changes = new ArrayList<>();
-
-            IItemList<IAEItemStack> currentlyOnStorage = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
-
-            for (final ItemSlot is : this) {
-                if (this.mode == StorageFilter.EXTRACTABLE_ONLY && !is.isExtractable()) {
-                    continue;
-                }
-                currentlyOnStorage.add(is.getAEItemStack());
-            }
-
-            for (final IAEItemStack is : currentlyCached) {
-                is.setStackSize(-is.getStackSize());
-            }
-
-            for (final IAEItemStack is : currentlyOnStorage) {
-                currentlyCached.add(is);
-            }
-
-            for (final IAEItemStack is : currentlyCached) {
-                if (is.getStackSize() != 0) {
-                    changes.add(is);
-                }
-            }
-
-            currentlyCached = currentlyOnStorage;
-
+            this.tracker.update(this.currentlyCached, changes);
             return changes;
         }
-
-        @Override
-        public Iterator<ItemSlot> iterator() {
-            return new ItemHandlerIterator(this.itemHandler);
-        }
-
     }
 }
@@ -246,6 +246,12 @@ public class PartStorageBus extends PartUpgradeable implements IGridTickable, IC
         // not used here.
     }
 
+    @Override
+    public boolean requiresImmediateChanges() {
+        // changes are forwarded into our own network, which relies on seeing them while they happen
+        return true;
+    }
+
     @Override
     public void getBoxes(final IPartCollisionHelper bch) {
         bch.addBox(3, 3, 15, 13, 13, 16);
@@ -385,7 +391,8 @@ public class PartStorageBus extends PartUpgradeable implements IGridTickable, IC
         // Check via cap for IItemHandler
         IItemHandler handlerExt = target.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, targetSide);
         if (handlerExt != null) {
-            return new ItemHandlerAdapter(handlerExt, this);
+            final IInventoryChangeCounter changeCounter = Capabilities.INVENTORY_CHANGE_COUNTER != null ? target.getCapability(Capabilities.INVENTORY_CHANGE_COUNTER, targetSide) : null;
+            return new ItemHandlerAdapter(handlerExt, changeCounter, this);
         }
 
         return null;
@@ -18,6 +18,14 @@ public class AppEngCellInventory implements IItemHandlerModifiable {
         this.handlerForSlot = new ICellInventoryHandler[slots];
     }
 
+    /**
+     * Persists the cells handled for the slots of an existing inventory whenever their item stacks are accessed.
+     */
+    public AppEngCellInventory(final AppEngInternalInventory inv) {
+        this.inv = inv;
+        this.handlerForSlot = new ICellInventoryHandler[inv.getSlots()];
+    }
+
     public void setHandler(final int slot, final ICellInventoryHandler handler) {
         this.handlerForSlot[slot] = handler;
     }
@@ -51,6 +51,7 @@ import appeng.me.helpers.MEMonitorHandler;
 import appeng.me.helpers.MachineSource;
 import appeng.me.storage.MEInventoryHandler;
 import appeng.tile.grid.AENetworkPowerTile;
+import appeng.tile.inventory.AppEngCellInventory;
 import appeng.tile.inventory.AppEngInternalInventory;
 import appeng.util.ConfigManager;
 import appeng.util.IConfigManagerHost;
@@ -85,7 +86,8 @@ import java.util.List;
 public class TileChest extends AENetworkPowerTile implements IMEChest, ITerminalHost, IPriorityHost, IConfigManagerHost, IColorableTile, ITickable {
     private final AppEngInternalInventory inputInventory = new AppEngInternalInventory(this, 1);
     private final AppEngInternalInventory cellInventory = new AppEngInternalInventory(this, 1);
-    private final IItemHandler internalInventory = new WrapperChainedItemHandler(this.inputInventory, this.cellInventory);
+    private final AppEngCellInventory cellSlot = new AppEngCellInventory(this.cellInventory);
+    private final IItemHandler internalInventory = new WrapperChainedItemHandler(this.inputInventory, this.cellSlot);
 
     private final IActionSource mySrc = new MachineSource(this);
     private final IConfigManager config = new ConfigManager(this);
@@ -114,7 +116,7 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, ITerminal
     }
 
     public ItemStack getCell() {
-        return this.cellInventory.getStackInSlot(0);
+        return this.cellSlot.getStackInSlot(0);
     }
 
     @Override
@@ -171,6 +173,7 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, ITerminal
             this.fluidHandler = null;
 
             final ItemStack is = this.getCell();
+            this.cellSlot.setHandler(0, null);
             if (!is.isEmpty()) {
                 this.isCached = true;
                 ICellHandler cellHandler = AEApi.instance().registries().cell().getHandler(is);
@@ -182,6 +185,7 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, ITerminal
                         if (newCell != null) {
                             power += cellHandler.cellIdleDrain(is, newCell);
                             this.cellHandler = this.wrap(newCell);
+                            this.cellSlot.setHandler(0, newCell);
                             break;
                         }
                     }
@@ -416,7 +420,7 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, ITerminal
     @Override
     protected IItemHandler getItemHandlerForSide(@Nonnull EnumFacing side) {
         if (side == this.getForward()) {
-            return this.cellInventory;
+            return this.cellSlot;
         } else {
             return this.inputInventory;
         }
@@ -526,9 +530,7 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, ITerminal
 
     @Override
     public void saveChanges(final ICellInventory<?> cellInventory) {
-        if (cellInventory != null) {
-            cellInventory.persist();
-        }
+        // the cell is persisted once its item stack is read, for example when the chunk is saved
         this.world.markChunkDirty(this.pos, this);
     }
 
@@ -0,0 +1,228 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util.inv;
+
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IItemList;
+import com.google.common.collect.Iterators;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * A list which reads through to the list below it and only copies the stacks which are looked up, so they can be
+ * modified without touching the list below.
+ *
+ * Only the lookups and additions write, and only into this overlay. Iterating and sizing read the list below and the
+ * copied stacks together, so an overlay which is no longer changed can be shared by several overlays on top of it, which
+ * are used from different threads, as long as nothing modifies the lists below in the meantime. The stacks returned by
+ * iterating which were not copied yet belong to the lists below and must not be modified.
+ */
+public class ItemListOverlay<T extends IAEStack<T>> implements IItemList<T> {
+
+    private final IItemList<T> below;
+    private final IItemList<T> local;
+    // the stacks in the local list, also the emptied ones, which its own iterator would drop
+    private final List<T> copied = new ArrayList<>();
+
+    /**
+     * @param below the list to read through to
+     * @param local an empty list to keep the copied stacks in
+     */
+    public ItemListOverlay(final IItemList<T> below, final IItemList<T> local) {
+        this.below = below;
+        this.local = local;
+    }
+
+    /**
+     * @return the stacks copied into this overlay so far, emptied ones included, they are the only ones which can
+     * differ from the list below
+     */
+    public Collection<T> getLocal() {
+        return Collections.unmodifiableList(this.copied);
+    }
+
+    @Override
+    public T findPrecise(final T i) {
+        if (i == null) {
+            return null;
+        }
+
+        final T found = this.local.findPrecise(i);
+        if (found != null) {
+            return found;
+        }
+
+        final T under = this.peekBelow(i);
+        if (under == null) {
+            return null;
+        }
+
+        return this.copy(under);
+    }
+
+    @Override
+    public Collection<T> findFuzzy(final T input, final FuzzyMode fuzzy) {
+        final List<T> out = new ArrayList<>();
+        for (final T under : this.peekFuzzyBelow(input, fuzzy)) {
+            if (this.local.findPrecise(under) == null) {
+                this.copy(under);
+            }
+        }
+
+        out.addAll(this.local.findFuzzy(input, fuzzy));
+        return out;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !this.iterator().hasNext();
+    }
+
+    @Override
+    public void add(final T option) {
+        final boolean fresh = this.findPrecise(option) == null;
+        this.local.add(option);
+        if (fresh) {
+            this.track(option);
+        }
+    }
+
+    @Override
+    public void addStorage(final T option) {
+        final boolean fresh = this.findPrecise(option) == null;
+        this.local.addStorage(option);
+        if (fresh) {
+            this.track(option);
+        }
+    }
+
+    @Override
+    public void addCrafting(final T option) {
+        final boolean fresh = this.findPrecise(option) == null;
+        this.local.addCrafting(option);
+        if (fresh) {
+            this.track(option);
+        }
+    }
+
+    @Override
+    public void addRequestable(final T option) {
+        final boolean fresh = this.findPrecise(option) == null;
+        this.local.addRequestable(option);
+        if (fresh) {
+            this.track(option);
+        }
+    }
+
+    @Override
+    public T getFirstItem() {
+        for (final T stack : this) {
+            return stack;
+        }
+
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return Iterators.size(this.iterator());
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        // the stacks below, replaced by their copies, then the copies of stacks which are not below
+        final Iterator<T> belowAndCopied = Iterators.filter(Iterators.transform(this.below.iterator(), this::shadow), Objects::nonNull);
+        final Iterator<T> onlyCopied = Iterators.filter(this.copied.iterator(), stack -> stack.isMeaningful() && this.peekBelow(stack) == null);
+
+        return Iterators.concat(belowAndCopied, onlyCopied);
+    }
+
+    @Override
+    public void resetStatus() {
+        final List<T> stacks = new ArrayList<>();
+        Iterators.addAll(stacks, this.iterator());
+
+        for (final T stack : stacks) {
+            this.findPrecise(stack).reset();
+        }
+    }
+
+    private T copy(final T stack) {
+        this.local.add(stack);
+        return this.track(stack);
+    }
+
+    private T track(final T stack) {
+        final T copy = this.local.findPrecise(stack);
+        if (copy != null) {
+            this.copied.add(copy);
+        }
+
+        return copy;
+    }
+
+    private T shadow(final T under) {
+        final T copy = this.local.findPrecise(under);
+        if (copy == null) {
+            return under;
+        }
+
+        return copy.isMeaningful() ? copy : null;
+    }
+
+    private T peek(final T i) {
+        final T found = this.local.findPrecise(i);
+        return found != null ? found : this.peekBelow(i);
+    }
+
+    private T peekBelow(final T i) {
+        if (this.below instanceof ItemListOverlay) {
+            return ((ItemListOverlay<T>) this.below).peek(i);
+        }
+
+        return this.below.findPrecise(i);
+    }
+
+    private Collection<T> peekFuzzy(final T input, final FuzzyMode fuzzy) {
+        final List<T> out = new ArrayList<>(this.local.findFuzzy(input, fuzzy));
+        for (final T under : this.peekFuzzyBelow(input, fuzzy)) {
+            if (this.local.findPrecise(under) == null) {
+                out.add(under);
+            }
+        }
+
+        return out;
+    }
+
+    private Collection<T> peekFuzzyBelow(final T input, final FuzzyMode fuzzy) {
+        if (this.below instanceof ItemListOverlay) {
+            return ((ItemListOverlay<T>) this.below).peekFuzzy(input, fuzzy);
+        }
+
+        return this.below.findFuzzy(input, fuzzy);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util.inv;
+
+
+import appeng.api.AEApi;
+import appeng.api.storage.IInventoryChangeCounter;
+import appeng.api.storage.channels.IItemStorageChannel;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+import appeng.util.item.AEItemStack;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Finds the changes of an {@link IItemHandler} without reading every slot into a new list each tick.
+ *
+ * Every slot is remembered by a fingerprint of the stack it held: the stack instance, its count, damage and NBT instance.
+ * Only slots whose fingerprint changed are read again, so an inventory which did not change costs one
+ * {@link IItemHandler#getStackInSlot(int)} per slot. Stacks whose NBT is changed in place keep their fingerprint, so
+ * all slots are read again every {@link #FULL_SCAN_INTERVAL} updates. Inventories offering an
+ * {@link IInventoryChangeCounter} are not looked at at all while their counter stays the same.
+ */
+public class ItemSlotTracker {
+
+    private static final int FULL_SCAN_INTERVAL = 20;
+
+    private final IItemHandler itemHandler;
+    private final IInventoryChangeCounter changeCounter;
+    private final IItemList<IAEItemStack> totals = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
+    private final List<IAEItemStack> touched = new ArrayList<>();
+    private boolean extractableOnly;
+
+    private ItemStack[] stacks = new ItemStack[0];
+    private int[] counts = new int[0];
+    private int[] damages = new int[0];
+    private Object[] tags = new Object[0];
+    private IAEItemStack[] items = new IAEItemStack[0];
+
+    private long lastChangeCount;
+    private boolean scanned = false;
+    private int updatesSinceFullScan = 0;
+
+    /**
+     * @param changeCounter the change counter of the inventory, if it has one
+     */
+    public ItemSlotTracker(final IItemHandler itemHandler, final IInventoryChangeCounter changeCounter, final boolean extractableOnly) {
+        this.itemHandler = itemHandler;
+        this.changeCounter = changeCounter;
+        this.extractableOnly = extractableOnly;
+    }
+
+    public void setExtractableOnly(final boolean extractableOnly) {
+        if (this.extractableOnly != extractableOnly) {
+            this.extractableOnly = extractableOnly;
+            this.scanned = false;
+        }
+    }
+
+    /**
+     * Makes the next update compare the cached amount of the item with the inventory, even if no slot seems to have
+     * changed. Used after changing the cache for items inserted or extracted through the handler.
+     */
+    public void touch(final IAEItemStack is) {
+        this.touched.add(is.copy());
+    }
+
+    /**
+     * Reads the changed slots and brings the cached contents up to date.
+     *
+     * @param cache the contents the listeners of the inventory know about
+     * @param changes receives the difference for every item whose amount in the cache changed
+     */
+    public void update(final IItemList<IAEItemStack> cache, final List<IAEItemStack> changes) {
+        final boolean scan;
+        final boolean fullScan;
+        if (this.changeCounter != null) {
+            final long changeCount = this.changeCounter.getChangeCount();
+            scan = !this.scanned || changeCount != this.lastChangeCount;
+            fullScan = !this.scanned;
+            this.lastChangeCount = changeCount;
+        } else {
+            scan = true;
+            fullScan = !this.scanned || ++this.updatesSinceFullScan >= FULL_SCAN_INTERVAL;
+        }
+
+        if (scan) {
+            this.scan(fullScan);
+        }
+
+        for (final IAEItemStack is : this.touched) {
+            final IAEItemStack total = this.totals.findPrecise(is);
+            final IAEItemStack cached = cache.findPrecise(is);
+            final long difference = (total == null ? 0 : total.getStackSize()) - (cached == null ? 0 : cached.getStackSize());
+
+            if (difference != 0) {
+                final IAEItemStack change = is.copy().setStackSize(difference);
+                cache.add(change);
+                changes.add(change);
+            }
+        }
+
+        this.touched.clear();
+    }
+
+    private void scan(final boolean fullScan) {
+        if (fullScan) {
+            this.updatesSinceFullScan = 0;
+        }
+
+        final int slots = this.itemHandler.getSlots();
+        if (slots != this.stacks.length) {
+            this.resize(slots);
+        }
+
+        for (int slot = 0; slot < slots; slot++) {
+            final ItemStack is = this.itemHandler.getStackInSlot(slot);
+            if (!fullScan && this.hasFingerprint(slot, is)) {
+                continue;
+            }
+
+            this.stacks[slot] = is;
+            this.counts[slot] = is.getCount();
+            this.damages[slot] = is.isEmpty() ? 0 : is.getItemDamage();
+            this.tags[slot] = is.getTagCompound();
+
+            IAEItemStack item = null;
+            if (!is.isEmpty() && (!this.extractableOnly || !this.itemHandler.extractItem(slot, Integer.MAX_VALUE, true).isEmpty())) {
+                final IAEItemStack old = this.items[slot];
+                if (old != null && old.getStackSize() == is.getCount() && old.isSameType(is)) {
+                    continue;
+                }
+                item = AEItemStack.fromItemStack(is);
+            }
+
+            this.setItem(slot, item);
+        }
+
+        this.scanned = true;
+    }
+
+    private boolean hasFingerprint(final int slot, final ItemStack is) {
+        return this.stacks[slot] == is && this.counts[slot] == is.getCount() && this.tags[slot] == is.getTagCompound()
+                && (is.isEmpty() || this.damages[slot] == is.getItemDamage());
+    }
+
+    private void setItem(final int slot, final IAEItemStack item) {
+        final IAEItemStack old = this.items[slot];
+        if (old != null) {
+            this.totals.add(old.copy().setStackSize(-old.getStackSize()));
+            this.touched.add(old);
+        }
+
+        this.items[slot] = item;
+        if (item != null) {
+            this.totals.add(item);
+            this.touched.add(item);
+        }
+    }
+
+    private void resize(final int slots) {
+        for (int slot = slots; slot < this.items.length; slot++) {
+            this.setItem(slot, null);
+        }
+
+        final int known = Math.min(slots, this.stacks.length);
+        this.stacks = Arrays.copyOf(this.stacks, slots);
+        this.counts = Arrays.copyOf(this.counts, slots);
+        this.damages = Arrays.copyOf(this.damages, slots);
+        this.tags = Arrays.copyOf(this.tags, slots);
+        this.items = Arrays.copyOf(this.items, slots);
+
+        // new slots never match a fingerprint
+        for (int slot = known; slot < slots; slot++) {
+            this.counts[slot] = -1;
+        }
+    }
+}
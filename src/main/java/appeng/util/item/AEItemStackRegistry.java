@@ -26,37 +26,116 @@ package appeng.util.item;
 import net.minecraft.item.ItemStack;
 
 import javax.annotation.Nonnull;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.WeakHashMap;
 
+/**
+ * Interns the {@link AESharedItemStack} of every item definition, as long as something still uses it.
+ *
+ * The registry is split into stripes by hash, each with its own lock, so threads looking up different items rarely wait
+ * for each other. Looking up a known definition neither allocates nor modifies the given stack.
+ */
 public final class AEItemStackRegistry {
-    private static final WeakHashMap<AESharedItemStack, WeakReference<AESharedItemStack>> REGISTRY = new WeakHashMap<>();
+    private static final int STRIPE_COUNT = 64;
+    private static final Stripe[] STRIPES = new Stripe[STRIPE_COUNT];
+
+    static {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            STRIPES[i] = new Stripe();
+        }
+    }
 
     private AEItemStackRegistry() {
     }
 
-    static synchronized AESharedItemStack getRegisteredStack(final @Nonnull ItemStack itemStack) {
+    static AESharedItemStack getRegisteredStack(final @Nonnull ItemStack itemStack) {
         if (itemStack.isEmpty()) {
             throw new IllegalArgumentException("stack cannot be empty");
         }
 
-        int oldStackSize = itemStack.getCount();
-        itemStack.setCount(1);
+        final int hash = AESharedItemStack.makeHashCode(itemStack, itemStack.getItemDamage());
+        final int spread = hash ^ (hash >>> 16);
+        return STRIPES[spread & (STRIPE_COUNT - 1)].intern(itemStack, hash, spread >>> 6);
+    }
+
+    private static final class Stripe {
+        private final ReferenceQueue<AESharedItemStack> queue = new ReferenceQueue<>();
+        private Entry[] table = new Entry[16];
+        private int size = 0;
+
+        private synchronized AESharedItemStack intern(final ItemStack itemStack, final int hash, final int spread) {
+            this.expungeStaleEntries();
+
+            final int index = spread & (this.table.length - 1);
+            for (Entry e = this.table[index]; e != null; e = e.next) {
+                if (e.hash == hash) {
+                    final AESharedItemStack registered = e.get();
+                    if (registered != null && registered.matches(itemStack)) {
+                        return registered;
+                    }
+                }
+            }
 
-        AESharedItemStack search = new AESharedItemStack(itemStack);
-        WeakReference<AESharedItemStack> weak = REGISTRY.get(search);
-        AESharedItemStack ret = null;
+            final ItemStack definition = itemStack.copy();
+            definition.setCount(1);
 
-        if (weak != null) {
-            ret = weak.get();
+            final AESharedItemStack created = new AESharedItemStack(definition);
+            this.table[index] = new Entry(created, hash, spread, this.queue, this.table[index]);
+            if (++this.size > this.table.length - (this.table.length >>> 2)) {
+                this.resize();
+            }
+
+            return created;
         }
 
-        if (ret == null) {
-            ret = new AESharedItemStack(itemStack.copy());
-            REGISTRY.put(ret, new WeakReference<>(ret));
+        private void expungeStaleEntries() {
+            for (Object ref; (ref = this.queue.poll()) != null; ) {
+                final Entry stale = (Entry) ref;
+                final int index = stale.spread & (this.table.length - 1);
+
+                Entry prev = null;
+                for (Entry e = this.table[index]; e != null; prev = e, e = e.next) {
+                    if (e == stale) {
+                        if (prev == null) {
+                            this.table[index] = e.next;
+                        } else {
+                            prev.next = e.next;
+                        }
+                        this.size--;
+                        break;
+                    }
+                }
+            }
         }
-        itemStack.setCount(oldStackSize);
 
-        return ret;
+        private void resize() {
+            final Entry[] old = this.table;
+            final Entry[] resized = new Entry[old.length << 1];
+
+            for (Entry e : old) {
+                while (e != null) {
+                    final Entry next = e.next;
+                    final int index = e.spread & (resized.length - 1);
+                    e.next = resized[index];
+                    resized[index] = e;
+                    e = next;
+                }
+            }
+
+            this.table = resized;
+        }
+    }
+
+    private static final class Entry extends WeakReference<AESharedItemStack> {
+        private final int hash;
+        private final int spread;
+        private Entry next;
+
+        private Entry(final AESharedItemStack referent, final int hash, final int spread, final ReferenceQueue<AESharedItemStack> queue, final Entry next) {
+            super(referent, queue);
+            this.hash = hash;
+            this.spread = spread;
+            this.next = next;
+        }
     }
 }
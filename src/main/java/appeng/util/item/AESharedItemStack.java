@@ -80,8 +80,24 @@ final class AESharedItemStack {
         return ItemStack.areItemStacksEqual(this.itemStack, other.itemStack);
     }
 
+    /**
+     * @return true if the stack has the same definition, ignoring its count
+     */
+    boolean matches(final ItemStack other) {
+        return this.itemStack.getItem() == other.getItem() && this.itemDamage == other.getItemDamage() && ItemStack.areItemStackTagsEqual(this.itemStack, other);
+    }
+
     private int makeHashCode() {
-        return Objects.hash(this.itemStack.getItem(), this.itemDamage, this.itemStack.hasTagCompound() ? this.itemStack.getTagCompound() : 0);
+        return makeHashCode(this.itemStack, this.itemDamage);
+    }
+
+    /**
+     * The same as {@code Objects.hash(item, damage, tag or 0)}, without allocating the array.
+     */
+    static int makeHashCode(final ItemStack itemStack, final int damage) {
+        int hash = 31 + Objects.hashCode(itemStack.getItem());
+        hash = 31 * hash + damage;
+        return 31 * hash + (itemStack.hasTagCompound() ? itemStack.getTagCompound().hashCode() : 0);
     }
 
 }
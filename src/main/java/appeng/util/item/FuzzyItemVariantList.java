@@ -30,7 +30,6 @@ import net.minecraft.item.ItemStack;
 
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.Map;
 
 
 /**
@@ -56,11 +55,19 @@ class FuzzyItemVariantList extends ItemVariantList {
         return this.records.subMap(lowerBound, upperBound).values();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
-    Map<AESharedItemStack, IAEItemStack> getRecords() {
-        // We ensure on our end that we NEVER use anything but AESharedItemStack as the key in this map
-        return (Map<AESharedItemStack, IAEItemStack>) (Object) this.records;
+    IAEItemStack getRecord(final AESharedItemStack sharedStack) {
+        return this.records.get(sharedStack);
+    }
+
+    @Override
+    void putRecord(final AESharedItemStack sharedStack, final IAEItemStack itemStack) {
+        this.records.put(sharedStack, itemStack);
+    }
+
+    @Override
+    Collection<IAEItemStack> getRecords() {
+        return this.records.values();
     }
 
     static class ItemDamageBound {
@@ -23,7 +23,6 @@ import appeng.api.storage.data.IAEItemStack;
 
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.Map;
 
 /**
  * Stores variants of a single type of {@link net.minecraft.item.Item}, i.e. versions with different durability, or
@@ -32,7 +31,7 @@ import java.util.Map;
 abstract class ItemVariantList {
 
     public void add(final IAEItemStack option) {
-        final IAEItemStack st = this.getRecords().get(((AEItemStack) option).getSharedStack());
+        final IAEItemStack st = this.getRecord(((AEItemStack) option).getSharedStack());
 
         if (st != null) {
             st.add(option);
@@ -45,11 +44,11 @@ abstract class ItemVariantList {
     }
 
     public IAEItemStack findPrecise(final IAEItemStack itemStack) {
-        return this.getRecords().get(((AEItemStack) itemStack).getSharedStack());
+        return this.getRecord(((AEItemStack) itemStack).getSharedStack());
     }
 
     public void addStorage(final IAEItemStack option) {
-        final IAEItemStack st = this.getRecords().get(((AEItemStack) option).getSharedStack());
+        final IAEItemStack st = this.getRecord(((AEItemStack) option).getSharedStack());
 
         if (st != null) {
             st.incStackSize(option.getStackSize());
@@ -62,7 +61,7 @@ abstract class ItemVariantList {
     }
 
     public void addCrafting(final IAEItemStack option) {
-        final IAEItemStack st = this.getRecords().get(((AEItemStack) option).getSharedStack());
+        final IAEItemStack st = this.getRecord(((AEItemStack) option).getSharedStack());
 
         if (st != null) {
             st.setCraftable(true);
@@ -77,7 +76,7 @@ abstract class ItemVariantList {
     }
 
     public void addRequestable(final IAEItemStack option) {
-        final IAEItemStack st = this.getRecords().get(((AEItemStack) option).getSharedStack());
+        final IAEItemStack st = this.getRecord(((AEItemStack) option).getSharedStack());
 
         if (st != null) {
             st.setCountRequestable(st.getCountRequestable() + option.getCountRequestable());
@@ -94,7 +93,7 @@ abstract class ItemVariantList {
 
     public int size() {
         int size = 0;
-        for (IAEItemStack entry : getRecords().values()) {
+        for (IAEItemStack entry : this.getRecords()) {
             if (entry.isMeaningful()) {
                 size++;
             }
@@ -104,14 +103,21 @@ abstract class ItemVariantList {
     }
 
     public Iterator<IAEItemStack> iterator() {
-        return new MeaningfulItemIterator<>(this.getRecords().values());
+        return new MeaningfulItemIterator<>(this.getRecords());
     }
 
     private void putItemRecord(final IAEItemStack itemStack) {
-        this.getRecords().put(((AEItemStack) itemStack).getSharedStack(), itemStack);
+        this.putRecord(((AEItemStack) itemStack).getSharedStack(), itemStack);
     }
 
-    abstract Map<AESharedItemStack, IAEItemStack> getRecords();
+    abstract IAEItemStack getRecord(AESharedItemStack sharedStack);
+
+    abstract void putRecord(AESharedItemStack sharedStack, IAEItemStack itemStack);
+
+    /**
+     * @return all records, including the ones which are no longer meaningful and are removed while iterating
+     */
+    abstract Collection<IAEItemStack> getRecords();
 
     public abstract Collection<IAEItemStack> findFuzzy(final IAEItemStack filter, final FuzzyMode fuzzy);
 
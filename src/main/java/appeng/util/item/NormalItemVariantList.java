@@ -20,31 +20,219 @@ package appeng.util.item;
 
 import appeng.api.config.FuzzyMode;
 import appeng.api.storage.data.IAEItemStack;
-import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
-import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.HashCommon;
 
+import java.util.AbstractList;
 import java.util.Collection;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 
 /**
  * This variant list is optimized for items that cannot be damaged and thus do not support querying durability ranges
  * via {@link #findFuzzy(IAEItemStack, FuzzyMode)}.
+ * <p>
+ * Most items only ever have a single variant, and whole network lists are iterated often, so the records are kept
+ * densely in an array, in the order they were added, and found by an open-addressed index of positions into it.
+ * Records which stop being meaningful are replaced by the last record while iterating.
  */
 class NormalItemVariantList extends ItemVariantList {
 
-    private final Reference2ObjectMap<AESharedItemStack, IAEItemStack> records = new Reference2ObjectOpenHashMap<>();
+    private AESharedItemStack[] keys = new AESharedItemStack[1];
+    private IAEItemStack[] values = new IAEItemStack[1];
+    private int count = 0;
+
+    /**
+     * Positions of the records plus one, 0 marks a free bucket. Never more than half full.
+     */
+    private int[] index = new int[2];
+
+    private final Collection<IAEItemStack> records = new Records();
+
+    @Override
+    IAEItemStack getRecord(final AESharedItemStack sharedStack) {
+        final int position = this.find(sharedStack);
+        return position >= 0 ? this.values[position] : null;
+    }
 
     @Override
-    Map<AESharedItemStack, IAEItemStack> getRecords() {
+    void putRecord(final AESharedItemStack sharedStack, final IAEItemStack itemStack) {
+        final int position = this.find(sharedStack);
+        if (position >= 0) {
+            this.values[position] = itemStack;
+            return;
+        }
+
+        if (this.count == this.keys.length) {
+            this.grow();
+        }
+
+        this.keys[this.count] = sharedStack;
+        this.values[this.count] = itemStack;
+        this.count++;
+        this.insertIndex(sharedStack, this.count);
+    }
+
+    @Override
+    Collection<IAEItemStack> getRecords() {
         return this.records;
     }
 
+    @Override
+    public Iterator<IAEItemStack> iterator() {
+        return new MeaningfulIterator();
+    }
+
     /**
      * For items that do not support durability, we just return all variants to a fuzzy search.
      */
     @Override
     public Collection<IAEItemStack> findFuzzy(IAEItemStack filter, FuzzyMode fuzzy) {
-        return this.getRecords().values();
+        return this.getRecords();
+    }
+
+    /**
+     * @return the position of the record, or -1
+     */
+    private int find(final AESharedItemStack sharedStack) {
+        final int mask = this.index.length - 1;
+        for (int bucket = HashCommon.mix(sharedStack.hashCode()) & mask; this.index[bucket] != 0; bucket = (bucket + 1) & mask) {
+            final int position = this.index[bucket] - 1;
+            if (this.keys[position] == sharedStack) {
+                return position;
+            }
+        }
+
+        return -1;
+    }
+
+    private int findBucket(final AESharedItemStack sharedStack) {
+        final int mask = this.index.length - 1;
+        int bucket = HashCommon.mix(sharedStack.hashCode()) & mask;
+        while (this.keys[this.index[bucket] - 1] != sharedStack) {
+            bucket = (bucket + 1) & mask;
+        }
+
+        return bucket;
     }
 
+    private void insertIndex(final AESharedItemStack sharedStack, final int positionPlusOne) {
+        final int mask = this.index.length - 1;
+        int bucket = HashCommon.mix(sharedStack.hashCode()) & mask;
+        while (this.index[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+
+        this.index[bucket] = positionPlusOne;
+    }
+
+    private void grow() {
+        final int capacity = this.keys.length * 2;
+        final AESharedItemStack[] keys = new AESharedItemStack[capacity];
+        final IAEItemStack[] values = new IAEItemStack[capacity];
+        System.arraycopy(this.keys, 0, keys, 0, this.count);
+        System.arraycopy(this.values, 0, values, 0, this.count);
+        this.keys = keys;
+        this.values = values;
+
+        this.index = new int[capacity * 2];
+        for (int position = 0; position < this.count; position++) {
+            this.insertIndex(this.keys[position], position + 1);
+        }
+    }
+
+    /**
+     * Removes the record at the given position by moving the last record into its place.
+     */
+    private void remove(final int position) {
+        this.removeIndex(this.findBucket(this.keys[position]));
+
+        final int last = this.count - 1;
+        if (position != last) {
+            this.index[this.findBucket(this.keys[last])] = position + 1;
+            this.keys[position] = this.keys[last];
+            this.values[position] = this.values[last];
+        }
+
+        this.keys[last] = null;
+        this.values[last] = null;
+        this.count--;
+    }
+
+    /**
+     * Frees a bucket, shifting back the following buckets of the same probe sequence so lookups still find them.
+     */
+    private void removeIndex(int free) {
+        final int mask = this.index.length - 1;
+        int bucket = free;
+
+        while (true) {
+            bucket = (bucket + 1) & mask;
+            if (this.index[bucket] == 0) {
+                this.index[free] = 0;
+                return;
+            }
+
+            final int home = HashCommon.mix(this.keys[this.index[bucket] - 1].hashCode()) & mask;
+            // the entry may move back unless its home bucket lies cyclically within (free, bucket]
+            if (free <= bucket ? free >= home || home > bucket : free >= home && home > bucket) {
+                this.index[free] = this.index[bucket];
+                free = bucket;
+            }
+        }
+    }
+
+    /**
+     * All records, including the ones which are no longer meaningful.
+     */
+    private class Records extends AbstractList<IAEItemStack> implements RandomAccess {
+        @Override
+        public IAEItemStack get(final int i) {
+            if (i < 0 || i >= NormalItemVariantList.this.count) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            return NormalItemVariantList.this.values[i];
+        }
+
+        @Override
+        public int size() {
+            return NormalItemVariantList.this.count;
+        }
+    }
+
+    /**
+     * Iterates the meaningful records, removing the others on the way like {@link MeaningfulItemIterator}. A removed
+     * record is replaced by the last one, which has not been visited yet, so the position is looked at again.
+     */
+    private class MeaningfulIterator implements Iterator<IAEItemStack> {
+        private int position = -1;
+
+        private MeaningfulIterator() {
+            this.seekNext();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.position < NormalItemVariantList.this.count;
+        }
+
+        @Override
+        public IAEItemStack next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final IAEItemStack result = NormalItemVariantList.this.values[this.position];
+            this.seekNext();
+            return result;
+        }
+
+        private void seekNext() {
+            this.position++;
+            while (this.position < NormalItemVariantList.this.count && !NormalItemVariantList.this.values[this.position].isMeaningful()) {
+                NormalItemVariantList.this.remove(this.position);
+            }
+        }
+    }
 }
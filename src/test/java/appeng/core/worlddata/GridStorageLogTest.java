@@ -0,0 +1,169 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.worlddata;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Tests for {@link GridStorageLog}
+ */
+public class GridStorageLogTest
+{
+	private static final byte[] FIRST = { 1, 2, 3 };
+	private static final byte[] SECOND = { 4, 5, 6, 7 };
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testReadsWhatWasWritten() throws IOException
+	{
+		final File file = this.folder.newFile();
+		final GridStorageLog log = new GridStorageLog( file );
+		log.open();
+		log.write( 3, FIRST );
+		log.write( 7, SECOND );
+
+		Assert.assertArrayEquals( FIRST, log.read( 3 ) );
+		Assert.assertArrayEquals( SECOND, log.read( 7 ) );
+		Assert.assertNull( log.read( 5 ) );
+		log.close();
+	}
+
+	@Test
+	public void testLatestEntrySurvivesReopening() throws IOException
+	{
+		final File file = this.folder.newFile();
+		final GridStorageLog log = new GridStorageLog( file );
+		log.open();
+		log.write( 3, FIRST );
+		log.write( 3, SECOND );
+		log.write( 7, FIRST );
+		log.remove( 7 );
+		log.writeCounter( 9 );
+		log.close();
+
+		final GridStorageLog reopened = new GridStorageLog( file );
+		reopened.open();
+		Assert.assertArrayEquals( SECOND, reopened.read( 3 ) );
+		Assert.assertFalse( reopened.contains( 7 ) );
+		Assert.assertEquals( 9, reopened.getCounter() );
+		reopened.close();
+	}
+
+	@Test
+	public void testUnchangedEntryIsNotWrittenAgain() throws IOException
+	{
+		final File file = this.folder.newFile();
+		final GridStorageLog log = new GridStorageLog( file );
+		log.open();
+		log.write( 3, FIRST );
+		final long length = file.length();
+
+		log.write( 3, FIRST.clone() );
+		Assert.assertEquals( length, file.length() );
+		log.close();
+	}
+
+	@Test
+	public void testCounterCoversStoredIds() throws IOException
+	{
+		final GridStorageLog log = new GridStorageLog( this.folder.newFile() );
+		log.open();
+		log.writeCounter( 2 );
+		log.write( 12, FIRST );
+
+		Assert.assertEquals( 13, log.getCounter() );
+		log.close();
+	}
+
+	@Test
+	public void testIncompleteRecordIsDropped() throws IOException
+	{
+		final File file = this.folder.newFile();
+		final GridStorageLog log = new GridStorageLog( file );
+		log.open();
+		log.write( 3, FIRST );
+		log.write( 7, SECOND );
+		log.close();
+
+		try( RandomAccessFile raf = new RandomAccessFile( file, "rw" ) )
+		{
+			raf.setLength( raf.length() - 1 );
+		}
+
+		final GridStorageLog reopened = new GridStorageLog( file );
+		reopened.open();
+		Assert.assertArrayEquals( FIRST, reopened.read( 3 ) );
+		Assert.assertFalse( reopened.contains( 7 ) );
+		reopened.close();
+	}
+	@Test
+	public void testZeroFilledTailIsDropped() throws IOException
+	{
+		final File file = this.folder.newFile();
+		final GridStorageLog log = new GridStorageLog( file );
+		log.open();
+		log.write( 0, FIRST );
+		log.close();
+
+		// a crash after the file grew, but before the record was written
+		try( RandomAccessFile raf = new RandomAccessFile( file, "rw" ) )
+		{
+			raf.setLength( raf.length() + 64 );
+		}
+
+		final GridStorageLog reopened = new GridStorageLog( file );
+		reopened.open();
+		Assert.assertArrayEquals( FIRST, reopened.read( 0 ) );
+		reopened.close();
+	}
+
+	@Test
+	public void testDamagedRecordIsDropped() throws IOException
+	{
+		final File file = this.folder.newFile();
+		final GridStorageLog log = new GridStorageLog( file );
+		log.open();
+		log.write( 3, FIRST );
+		log.write( 7, SECOND );
+		log.close();
+
+		try( RandomAccessFile raf = new RandomAccessFile( file, "rw" ) )
+		{
+			raf.seek( raf.length() - 1 );
+			raf.write( 42 );
+		}
+
+		final GridStorageLog reopened = new GridStorageLog( file );
+		reopened.open();
+		Assert.assertArrayEquals( FIRST, reopened.read( 3 ) );
+		Assert.assertFalse( reopened.contains( 7 ) );
+		reopened.close();
+	}
+}
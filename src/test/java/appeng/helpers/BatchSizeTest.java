@@ -0,0 +1,66 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.helpers;
+
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+
+/**
+ * Tests for {@link BatchSize}
+ */
+public final class BatchSizeTest
+{
+
+	@Test
+	public void testRoomForTheWholeBatch()
+	{
+		assertEquals( 256, BatchSize.fit( new long[] { 2, 1 }, ( x, amount ) -> amount, 256 ) );
+	}
+
+	@Test
+	public void testTargetHoldsLessThanOneFullBatch()
+	{
+		// a machine with a single slot of 64 items, fed 3 of one input per craft
+		final long[] perCraft = { 3 };
+		assertEquals( 21, BatchSize.fit( perCraft, ( x, amount ) -> Math.min( amount, 64 ), 256 ) );
+	}
+
+	@Test
+	public void testSmallestInputDecides()
+	{
+		final long[] perCraft = { 1, 4, 0 };
+		final long[] room = { 64, 64, 0 };
+		assertEquals( 16, BatchSize.fit( perCraft, ( x, amount ) -> Math.min( amount, room[(int) x] ), 256 ) );
+	}
+
+	@Test
+	public void testFullTargetStillTriesOneCraft()
+	{
+		assertEquals( 1, BatchSize.fit( new long[] { 1 }, ( x, amount ) -> 0, 256 ) );
+	}
+
+	@Test
+	public void testNeverMoreThanTheLimit()
+	{
+		assertEquals( 8, BatchSize.fit( new long[] { 1 }, ( x, amount ) -> Long.MAX_VALUE, 8 ) );
+	}
+}
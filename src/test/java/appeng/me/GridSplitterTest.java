@@ -0,0 +1,151 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+
+/**
+ * Tests for {@link GridSplitter.Cut}
+ */
+public final class GridSplitterTest
+{
+
+	private final Map<Integer, List<Integer>> edges = new HashMap<>();
+	private int expanded;
+
+	private void connect( final int a, final int b )
+	{
+		this.edges.computeIfAbsent( a, k -> new ArrayList<>() ).add( b );
+		this.edges.computeIfAbsent( b, k -> new ArrayList<>() ).add( a );
+	}
+
+	private GridSplitter.Cut<Integer> cut( final int pivot, final Integer... ends )
+	{
+		return new GridSplitter.Cut<>( Arrays.asList( ends ), ( node, visitor ) ->
+		{
+			this.expanded++;
+			this.edges.getOrDefault( node, Collections.emptyList() ).forEach( visitor );
+		}, pivot );
+	}
+
+	@Test
+	public void testRingStaysWhole()
+	{
+		// 0 - 1 - 2 - 3 - 4 - 5 - 0, with the edge 0 - 1 removed
+		for( int x = 1; x < 5; x++ )
+		{
+			this.connect( x, x + 1 );
+		}
+		this.connect( 5, 0 );
+
+		final GridSplitter.Cut<Integer> cut = this.cut( 3, 0, 1 );
+
+		assertTrue( cut.getCutOff().isEmpty() );
+		assertNull( cut.getPivot() );
+	}
+
+	@Test
+	public void testLeafIsCutOffWithoutWalkingTheRest()
+	{
+		// a chain of 1000 nodes, with the edge 998 - 999 removed
+		for( int x = 0; x < 998; x++ )
+		{
+			this.connect( x, x + 1 );
+		}
+
+		final GridSplitter.Cut<Integer> cut = this.cut( 0, 998, 999 );
+
+		assertEquals( Collections.singletonList( 999 ), cut.getCutOff() );
+		assertNull( cut.getPivot() );
+		assertTrue( this.expanded <= 4 );
+	}
+
+	@Test
+	public void testPivotLeavesTheCutOffLeaf()
+	{
+		for( int x = 0; x < 9; x++ )
+		{
+			this.connect( x, x + 1 );
+		}
+
+		final GridSplitter.Cut<Integer> cut = this.cut( 10, 9, 10 );
+
+		assertEquals( Collections.singletonList( 10 ), cut.getCutOff() );
+		assertEquals( Integer.valueOf( 9 ), cut.getPivot() );
+	}
+
+	@Test
+	public void testRemovedHubCutsSeveralParts()
+	{
+		// the hub held the branches 1 - 2 - 3, 4 and 5 - 6
+		this.connect( 1, 2 );
+		this.connect( 2, 3 );
+		this.connect( 5, 6 );
+
+		final GridSplitter.Cut<Integer> cut = this.cut( 1, 1, 4, 5 );
+
+		assertEquals( new HashSet<>( Arrays.asList( 4, 5 ) ), new HashSet<>( cut.getCutOff() ) );
+		assertNull( cut.getPivot() );
+	}
+
+	@Test
+	public void testEndsWhichMeetStayTogether()
+	{
+		// 1 and 2 are still connected through 7, 3 is only left with 8
+		this.connect( 1, 7 );
+		this.connect( 7, 2 );
+		this.connect( 3, 8 );
+
+		final GridSplitter.Cut<Integer> cut = this.cut( 1, 1, 2, 3 );
+
+		assertEquals( Collections.singletonList( 3 ), cut.getCutOff() );
+		assertNull( cut.getPivot() );
+	}
+
+	@Test
+	public void testEveryPartIsFoundOnce()
+	{
+		// three separate pairs, each part reached from two ends
+		this.connect( 1, 2 );
+		this.connect( 3, 4 );
+		this.connect( 5, 6 );
+
+		final GridSplitter.Cut<Integer> cut = this.cut( 1, 1, 2, 3, 4, 5, 6 );
+		final Set<Integer> roots = new HashSet<>( cut.getCutOff() );
+
+		assertEquals( 2, cut.getCutOff().size() );
+		assertEquals( new HashSet<>( Arrays.asList( 3, 5 ) ), roots );
+		assertNull( cut.getPivot() );
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+
+/**
+ * Tests for {@link NestingContext}, compared against the static source map the network monitor used before, on
+ * chains of subnets from depth 1 to 8.
+ */
+public final class NestingContextTest
+{
+
+	private static final int MAX_DEPTH = 8;
+	private static final int INJECTIONS = 1000;
+
+	private static final Map<Object, LinkedList<Monitor>> src2MonitorsMap = new HashMap<>();
+	private static final Set<Object> nestingSources = new HashSet<>();
+
+	/**
+	 * A network, with the storage busses of other networks that look into it.
+	 */
+	private static final class Monitor
+	{
+		private final List<Monitor> busTargets = new ArrayList<>();
+		private final List<Object> busSources = new ArrayList<>();
+		private boolean isNested;
+		private boolean wasNested;
+		private int forceUpdates;
+	}
+
+	private static Monitor[] chain( final int depth, final boolean loop, final boolean passThrough )
+	{
+		final Monitor[] monitors = new Monitor[depth + 1];
+		for( int x = 0; x < monitors.length; x++ )
+		{
+			monitors[x] = new Monitor();
+		}
+
+		for( int x = 0; x < depth; x++ )
+		{
+			link( monitors[x], monitors[x + 1], passThrough ? null : "bus" + x );
+		}
+
+		if( loop )
+		{
+			link( monitors[depth], monitors[0], passThrough ? null : "bus" + depth );
+		}
+
+		return monitors;
+	}
+
+	private static void link( final Monitor from, final Monitor to, final Object source )
+	{
+		from.busTargets.add( to );
+		from.busSources.add( source );
+	}
+
+	private static void postWithContext( final Monitor m, final Object src )
+	{
+		final NestingContext context = NestingContext.current();
+		final int frame = context.enter( src, m );
+		if( frame < 0 )
+		{
+			return;
+		}
+
+		try
+		{
+			forward( m, src, true );
+
+			if( context.isRoot( frame ) )
+			{
+				final boolean nested = context.isNested( frame );
+				for( int i = frame; i < context.getEnd(); i++ )
+				{
+					final Monitor other = (Monitor) context.getMember( frame, i );
+					if( other != null )
+					{
+						resolve( other, nested );
+					}
+				}
+			}
+		}
+		finally
+		{
+			if( context.isRoot( frame ) )
+			{
+				context.leave( frame );
+			}
+		}
+	}
+
+	private static void postWithMap( final Monitor m, final Object src )
+	{
+		src2MonitorsMap.putIfAbsent( src, new LinkedList<>() );
+		if( src2MonitorsMap.get( src ).contains( m ) )
+		{
+			nestingSources.add( src );
+			return;
+		}
+		src2MonitorsMap.get( src ).add( m );
+
+		forward( m, src, false );
+
+		if( src2MonitorsMap.get( src ).getFirst() == m )
+		{
+			final boolean nested = nestingSources.contains( src );
+			src2MonitorsMap.get( src ).forEach( other -> resolve( other, nested ) );
+			src2MonitorsMap.remove( src );
+			nestingSources.remove( src );
+		}
+	}
+
+	private static void forward( final Monitor m, final Object src, final boolean withContext )
+	{
+		for( int x = 0; x < m.busTargets.size(); x++ )
+		{
+			final Object busSource = m.busSources.get( x ) == null ? src : m.busSources.get( x );
+			if( withContext )
+			{
+				postWithContext( m.busTargets.get( x ), busSource );
+			}
+			else
+			{
+				postWithMap( m.busTargets.get( x ), busSource );
+			}
+		}
+	}
+
+	private static void resolve( final Monitor m, final boolean nested )
+	{
+		m.isNested = nested;
+		if( m.isNested != m.wasNested )
+		{
+			m.wasNested = m.isNested;
+			m.forceUpdates++;
+		}
+	}
+
+	private static void assertSameResult( final boolean loop, final boolean passThrough )
+	{
+		for( int depth = 1; depth <= MAX_DEPTH; depth++ )
+		{
+			final Monitor[] expected = chain( depth, loop, passThrough );
+			final Monitor[] actual = chain( depth, loop, passThrough );
+
+			for( int x = 0; x < INJECTIONS; x++ )
+			{
+				postWithMap( expected[x % expected.length], "player" );
+				postWithContext( actual[x % actual.length], "player" );
+				assertEquals( 0, NestingContext.current().getEnd() );
+			}
+
+			for( int x = 0; x < expected.length; x++ )
+			{
+				assertEquals( "nested at depth " + depth, expected[x].isNested, actual[x].isNested );
+				assertEquals( "updates at depth " + depth, expected[x].forceUpdates, actual[x].forceUpdates );
+			}
+		}
+	}
+
+	@Test
+	public void testChainsWithoutLoop()
+	{
+		assertSameResult( false, false );
+	}
+
+	@Test
+	public void testChainsWithLoop()
+	{
+		assertSameResult( true, false );
+	}
+
+	@Test
+	public void testPassThroughChainsWithoutLoop()
+	{
+		assertSameResult( false, true );
+	}
+
+	@Test
+	public void testPassThroughChainsWithLoop()
+	{
+		assertSameResult( true, true );
+
+		final Monitor[] monitors = chain( 3, true, true );
+		postWithContext( monitors[0], "player" );
+		for( final Monitor m : monitors )
+		{
+			assertTrue( m.isNested );
+		}
+	}
+}
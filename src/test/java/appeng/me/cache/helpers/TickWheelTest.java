@@ -0,0 +1,120 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import appeng.api.networking.ticking.TickingRequest;
+
+
+/**
+ * Tests for {@link TickWheel}
+ */
+public final class TickWheelTest
+{
+
+	private static TickTracker tracker( final int rate, final long lastTick )
+	{
+		final TickTracker tt = new TickTracker( new TickingRequest( rate, rate, false, false ), null, null, lastTick, null );
+		tt.setCurrentRate( rate );
+		return tt;
+	}
+
+	@Test
+	public void testTrackersAreReturnedExactlyOnTheirTick()
+	{
+		final Random rand = new Random( 42 );
+		final TickWheel wheel = new TickWheel( 1 );
+		final TickTracker[] trackers = new TickTracker[500];
+
+		for( int x = 0; x < trackers.length; x++ )
+		{
+			// every tenth tracker exceeds the far wheel and has to come back from the overflow bucket
+			trackers[x] = tracker( 1 + rand.nextInt( x % 10 == 0 ? 10000 : 200 ), 0 );
+			wheel.schedule( trackers[x] );
+		}
+
+		for( long tick = 1; tick < 20000; tick++ )
+		{
+			wheel.startTick( tick );
+
+			TickTracker tt;
+			while( ( tt = wheel.poll() ) != null )
+			{
+				assertEquals( tick, tt.getNextTick() );
+				tt.setLastTick( tick );
+				wheel.schedule( tt );
+			}
+
+			for( final TickTracker t : trackers )
+			{
+				assertTrue( t.getNextTick() > tick );
+			}
+
+			wheel.endTick();
+		}
+
+		assertEquals( trackers.length, wheel.size() );
+	}
+
+	@Test
+	public void testOverdueTrackerIsTickedInTheCurrentPass()
+	{
+		final TickWheel wheel = new TickWheel( 1 );
+		final TickTracker first = tracker( 1, 0 );
+		final TickTracker overdue = tracker( 5, -20 );
+
+		wheel.schedule( first );
+		wheel.startTick( 1 );
+
+		assertSame( first, wheel.poll() );
+		wheel.schedule( overdue );
+		assertSame( overdue, wheel.poll() );
+		assertNull( wheel.poll() );
+	}
+
+	@Test
+	public void testRemovedTrackerIsNotReturned()
+	{
+		final TickWheel wheel = new TickWheel( 1 );
+		final TickTracker tt = tracker( 3, 0 );
+
+		wheel.schedule( tt );
+		assertTrue( wheel.remove( tt ) );
+		assertFalse( wheel.remove( tt ) );
+
+		for( long tick = 1; tick < 10; tick++ )
+		{
+			wheel.startTick( tick );
+			assertNull( wheel.poll() );
+			wheel.endTick();
+		}
+
+		assertEquals( 0, wheel.size() );
+	}
+}
@@ -0,0 +1,266 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.pathfinding;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumSet;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.EnumFacing;
+
+import appeng.api.networking.GridFlags;
+import appeng.api.networking.GridNotification;
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridBlock;
+import appeng.api.networking.IGridHost;
+import appeng.api.networking.IGridNode;
+import appeng.api.util.AECableType;
+import appeng.api.util.AEColor;
+import appeng.api.util.AEPartLocation;
+import appeng.api.util.DimensionalCoord;
+import appeng.api.util.IReadOnlyCollection;
+import appeng.me.GridNode;
+import appeng.me.cache.PathGridCache;
+
+
+/**
+ * Tests for {@link IncrementalPathing}
+ */
+public final class IncrementalPathingTest
+{
+
+	private final IncrementalPathing changes = new IncrementalPathing();
+	private final PathGridCache pgc = new PathGridCache( null );
+
+	@Test
+	public void testDeadEndRemovalDoesNotRepath()
+	{
+		final PathItem cable = new PathItem( null );
+		final GridNode device = node();
+
+		assertTrue( this.changes.nodeDestroyed( device, 0 ) );
+		this.changes.connectionRemoved( new PathItem( cable ), cable, device, true, 0 );
+		assertTrue( this.changes.nodeRemoved( device ) );
+
+		assertEquals( 0, this.changes.apply( this.pgc, null, 0 ) );
+		assertTrue( this.changes.isEmpty() );
+	}
+
+	@Test
+	public void testDeadEndRemovalHandsBackItsChannel()
+	{
+		// controller <- trunk <- cable <- link <- device, the device used one channel
+		final PathItem trunk = new PathItem( null );
+		final PathItem cable = new PathItem( trunk );
+		trunk.channels = 1;
+		cable.channels = 1;
+		this.pgc.setChannelsInUse( 1 );
+		this.pgc.setChannelsByBlocks( 4 );
+
+		final GridNode device = node();
+		assertTrue( this.changes.nodeDestroyed( device, 1 ) );
+		this.changes.connectionRemoved( new PathItem( cable ), cable, device, true, 1 );
+		assertTrue( this.changes.nodeRemoved( device ) );
+
+		assertEquals( 0, this.changes.apply( this.pgc, null, 0 ) );
+		assertEquals( 0, this.pgc.getChannelsInUse() );
+		assertEquals( 0, this.pgc.getChannelsByBlocks() );
+		assertEquals( 0, cable.channels );
+		assertEquals( 0, trunk.channels );
+		assertTrue( cable.finalized && trunk.finalized );
+	}
+
+	@Test
+	public void testNodeMovedBySplitRepaths()
+	{
+		assertFalse( this.changes.nodeRemoved( node() ) );
+	}
+
+	@Test
+	public void testRoutedLinkBelowRemainingNodeRepaths()
+	{
+		final PathItem cable = new PathItem( null );
+		this.changes.connectionRemoved( new PathItem( cable ), cable, node(), true, 0 );
+
+		assertEquals( -1, this.changes.apply( this.pgc, null, 0 ) );
+	}
+
+	@Test
+	public void testFreedChannelWithWaitingNodesRepaths()
+	{
+		final PathItem cable = new PathItem( null );
+		final GridNode device = node();
+		this.changes.nodeDestroyed( device, 1 );
+		this.changes.connectionRemoved( new PathItem( cable ), cable, device, true, 1 );
+
+		assertEquals( -1, this.changes.apply( this.pgc, null, 1 ) );
+	}
+
+	private static GridNode node()
+	{
+		return new GridNode( new Block() );
+	}
+
+	private static final class PathItem implements IPathItem
+	{
+
+		private final IPathItem route;
+		private int channels;
+		private boolean finalized;
+
+		private PathItem( final IPathItem route )
+		{
+			this.route = route;
+		}
+
+		@Override
+		public IPathItem getControllerRoute()
+		{
+			return this.route;
+		}
+
+		@Override
+		public void setControllerRoute( final IPathItem fast, final boolean zeroOut )
+		{
+		}
+
+		@Override
+		public boolean canSupportMoreChannels()
+		{
+			return true;
+		}
+
+		@Override
+		public IReadOnlyCollection<IPathItem> getPossibleOptions()
+		{
+			return null;
+		}
+
+		@Override
+		public void incrementChannelCount( final int usedChannels )
+		{
+			this.channels += usedChannels;
+		}
+
+		@Override
+		public EnumSet<GridFlags> getFlags()
+		{
+			return EnumSet.noneOf( GridFlags.class );
+		}
+
+		@Override
+		public void finalizeChannels()
+		{
+			this.finalized = true;
+		}
+	}
+
+	private static final class Block implements IGridBlock, IGridHost
+	{
+
+		@Override
+		public double getIdlePowerUsage()
+		{
+			return 0;
+		}
+
+		@Override
+		public EnumSet<GridFlags> getFlags()
+		{
+			return EnumSet.of( GridFlags.REQUIRE_CHANNEL );
+		}
+
+		@Override
+		public boolean isWorldAccessible()
+		{
+			return false;
+		}
+
+		@Override
+		public DimensionalCoord getLocation()
+		{
+			return null;
+		}
+
+		@Override
+		public AEColor getGridColor()
+		{
+			return AEColor.TRANSPARENT;
+		}
+
+		@Override
+		public void onGridNotification( @Nonnull final GridNotification notification )
+		{
+		}
+
+		@Override
+		public void setNetworkStatus( final IGrid grid, final int channelsInUse )
+		{
+		}
+
+		@Override
+		public EnumSet<EnumFacing> getConnectableSides()
+		{
+			return EnumSet.noneOf( EnumFacing.class );
+		}
+
+		@Override
+		public IGridHost getMachine()
+		{
+			return this;
+		}
+
+		@Override
+		public void gridChanged()
+		{
+		}
+
+		@Override
+		public ItemStack getMachineRepresentation()
+		{
+			return null;
+		}
+
+		@Override
+		public IGridNode getGridNode( @Nonnull final AEPartLocation dir )
+		{
+			return null;
+		}
+
+		@Nonnull
+		@Override
+		public AECableType getCableConnectionType( @Nonnull final AEPartLocation dir )
+		{
+			return AECableType.GLASS;
+		}
+
+		@Override
+		public void securityBreak()
+		{
+		}
+	}
+}